@@ -0,0 +1,166 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+/**
+ * This class is a mutable position that steps through every point of a
+ * cubic domain in turn, in increasing z then y then x. It lets crawlers that
+ * sweep the domain do so without creating a {@link Point3D} for every point
+ * they test.
+ * <p/>Typical use is:
+ * <pre>
+ * for(Cursor3D c = new Cursor3D(size); c.isInside(); c.next()) {
+ *     // test c.getX(), c.getY(), c.getZ()
+ * }
+ * </pre>
+ * @author Robert Haines
+ * @see org.realitygrid.examples.paramsearch.crawlers.SimpleCrawler
+ */
+public final class Cursor3D {
+
+	private final int size;
+	private int x;
+	private int y;
+	private int z;
+
+	/**
+	 * Create a cursor at the origin of a domain of the specified size.
+	 * @param size the size (side length) of the domain.
+	 */
+	public Cursor3D(int size) {
+		this.size = size;
+		reset();
+	}
+
+	/**
+	 * Get the size of the domain this cursor steps through.
+	 * @return the size (side length) of the domain.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Get the X coordinate of the current position.
+	 * @return the X coordinate.
+	 */
+	public int getX() {
+		return x;
+	}
+
+	/**
+	 * Get the Y coordinate of the current position.
+	 * @return the Y coordinate.
+	 */
+	public int getY() {
+		return y;
+	}
+
+	/**
+	 * Get the Z coordinate of the current position.
+	 * @return the Z coordinate.
+	 */
+	public int getZ() {
+		return z;
+	}
+
+	/**
+	 * Move the cursor back to the origin.
+	 */
+	public void reset() {
+		set(0, 0, 0);
+	}
+
+	/**
+	 * Move the cursor to the specified position.
+	 * @param x the X coordinate.
+	 * @param y the Y coordinate.
+	 * @param z the Z coordinate.
+	 */
+	public void set(int x, int y, int z) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+	}
+
+	/**
+	 * Is the cursor at a position within the domain? This is false once the
+	 * cursor has stepped past the last point of the domain.
+	 * @return whether the cursor is within the domain.
+	 */
+	public boolean isInside() {
+		return x >= 0 && x < size && y >= 0 && y < size && z >= 0 && z < size;
+	}
+
+	/**
+	 * Step to the next position in the domain.
+	 * @return whether the new position is within the domain.
+	 */
+	public boolean next() {
+		if(++z >= size) {
+			z = 0;
+			if(++y >= size) {
+				y = 0;
+				x++;
+			}
+		}
+
+		return isInside();
+	}
+
+	/**
+	 * Get the current position as a new {@link Point3D}.
+	 * @return the current position.
+	 */
+	public Point3D toPoint3D() {
+		return new Point3D(x, y, z);
+	}
+
+	@Override
+	public String toString() {
+		return "Cursor3D [size=" + size + ", position=(" + x + ", " + y + ", " + z + ")]";
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A {@link VisitedSet} held as a bitmap with one bit for each point in the
+ * domain. Bits are set with a compare-and-set so visiting is lock-free.
+ * <p/>The bitmap is kept on the heap. A direct buffer would take just as
+ * much memory, and the only way to compare-and-set in one is through
+ * {@code sun.misc.Unsafe}, which is not a supported API and which this
+ * code otherwise has no need of.
+ * @author Robert Haines
+ * @see VisitedSet#dense(int)
+ */
+final class DenseVisitedSet extends VisitedSet {
+
+	private final AtomicLongArray bits;
+
+	DenseVisitedSet(int size) {
+		super(size);
+
+		long words = (((long) size * size * size) + 63) >>> 6;
+		if(words > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Domain of size " + size + " is too big for a bitmap.");
+
+		bits = new AtomicLongArray((int) words);
+	}
+
+	@Override
+	boolean visit(long index) {
+		int word = (int) (index >>> 6);
+		long bit = 1L << index;
+		while(true) {
+			long old = bits.get(word);
+			if((old & bit) != 0)
+				return false;
+			if(bits.compareAndSet(word, old, old | bit))
+				return true;
+		}
+	}
+
+	@Override
+	boolean isVisited(long index) {
+		return (bits.get((int) (index >>> 6)) & (1L << index)) != 0;
+	}
+
+	@Override
+	public long count() {
+		long result = 0;
+		for(int i = 0; i < bits.length(); i++)
+			result += Long.bitCount(bits.get(i));
+
+		return result;
+	}
+
+	@Override
+	public void clear() {
+		for(int i = 0; i < bits.length(); i++)
+			bits.set(i, 0);
+	}
+}
@@ -45,10 +45,23 @@
 
 package org.realitygrid.examples.paramsearch;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.realitygrid.examples.paramsearch.cost.Budget;
+import org.realitygrid.examples.paramsearch.cost.CostModel;
+import org.realitygrid.examples.paramsearch.cost.FixedCost;
+import org.realitygrid.examples.paramsearch.cost.ZeroCost;
 
 /**
  * The Domain class represents a volume of 3D space that has a number of
@@ -67,8 +80,32 @@ import java.util.Collections;
  *   halo.</li>
  *   <li>Testing anywhere within this blue halo is enough to trigger the
  *   target and find it.</li>
- *   <li>Testing a point in the domain takes approximately one second.</li>
+ *   <li>Testing a point in the domain takes approximately one second,
+ *   unless a different {@link CostModel} has been set.</li>
  * </ul>
+ * <p/>A domain may be searched by many threads at once. Its targets are
+ * still found one at a time and in order: if several threads test points
+ * near the current target at the same time exactly one of them finds it,
+ * and the others go on to test their points against the next target. This
+ * is done without locking so threads testing points never wait for each
+ * other, only for the {@link CostModel}. Only {@link #reset()} should not
+ * be called while a domain is being searched.
+ * <p/>A domain can instead be put into any-order mode (see
+ * {@link #setAnyOrder(boolean)}), in which testing within the halo of any
+ * target that has not been found finds it, and hints lead to the nearest
+ * such target. Then many crawlers can each hunt a different target at
+ * once.
+ * <p/>Points may also be tested asynchronously, with
+ * {@link #evaluateAsync(int, int, int)}, so that one thread can keep many
+ * tests in progress at once. These are run by an {@link Executor} that can
+ * be set with {@link #setExecutor(Executor)}. A whole batch of points can be
+ * tested at once, for a single batch cost, with
+ * {@link #evaluateBatch(PointBatch)}.
+ * <p/>As well as the full test of a point there is a cheap probe,
+ * {@link #probe(int, int, int)}, that only gives the hint towards the
+ * current target and never finds it. Probes have their own
+ * {@link CostModel}, which by default makes them free, and full tests and
+ * probes are each counted, and may be limited, by their own {@link Budget}.
  * @author Robert Haines
  * @see org.realitygrid.examples.paramsearch.crawlers
  */
@@ -78,13 +115,21 @@ public class Domain {
 	private final static int TARGET_SEED = 17;
 
 	private int size;
-	private ArrayList<Target> targets;
+	private TargetIndex targets;
 	private int numTargets;
 	private String name;
+	private volatile CostModel costModel;
+	private volatile CostModel probeCostModel;
+	private volatile Budget testBudget;
+	private volatile Budget probeBudget;
+	private volatile Executor executor;
+	private volatile boolean anyOrder;
 
 	/**
 	 * Create a named domain of the specified size and with the required number
-	 * of targets.
+	 * of targets. The targets are placed at random, but always in the same
+	 * places for the same name, size and number of targets, and no two are in
+	 * the same place.
 	 * @param name the name of the domain.
 	 * @param size the size (side length) of the domain.
 	 * @param numTargets the number of targets to embed in the domain.
@@ -93,23 +138,96 @@ public class Domain {
 		this.size = size;
 		this.name = name;
 		this.numTargets = numTargets;
-		targets = new ArrayList<Target>(numTargets);
+		this.costModel = new FixedCost(SLEEP_TIME);
+		this.probeCostModel = new ZeroCost();
+		this.testBudget = new Budget("Test");
+		this.probeBudget = new Budget("Probe");
+		this.anyOrder = false;
 
 		// generate target locations
 		try {
 			MessageDigest md;
 			md = MessageDigest.getInstance("sha1");
 			md.reset();
-			md.update((name + numTargets + size + TARGET_SEED).getBytes());
+			md.update((name + numTargets + size + TARGET_SEED).getBytes(StandardCharsets.UTF_8));
 			byte[] hash = md.digest();
 
-			generateTargets(hash);
-			Collections.sort(targets);
+			long seed = 0;
+			for(int i = 0; i < 8; i++)
+				seed = (seed << 8) | (hash[i] & 0xFF);
+
+			long[] packed = new TargetGenerator(seed, size, ERROR).generate(numTargets);
+			targets = TargetIndex.fromPacked(packed);
 		} catch (NoSuchAlgorithmException e) {
 			// I know sha1 is correct so...
 		}
 	}
 
+	/**
+	 * Create a domain that does not hold any targets itself. This is for
+	 * sub-classes that find out about their targets some other way, such as
+	 * by asking a domain elsewhere, and which must therefore override every
+	 * public method that tests points or looks at the targets, as well as
+	 * {@link #getNumTargets()}.
+	 * @param name the name of the domain.
+	 * @param size the size (side length) of the domain.
+	 * @see org.realitygrid.examples.paramsearch.remote.RemoteDomain
+	 */
+	protected Domain(String name, int size) {
+		this.size = size;
+		this.name = name;
+		this.numTargets = 0;
+		this.costModel = new FixedCost(SLEEP_TIME);
+		this.probeCostModel = new ZeroCost();
+		this.testBudget = new Budget("Test");
+		this.probeBudget = new Budget("Probe");
+		this.anyOrder = false;
+		this.targets = null;
+	}
+
+	private Domain(String name, int size, TargetIndex targets) {
+		this.size = size;
+		this.name = name;
+		this.numTargets = targets.size();
+		this.costModel = new FixedCost(SLEEP_TIME);
+		this.probeCostModel = new ZeroCost();
+		this.testBudget = new Budget("Test");
+		this.probeBudget = new Budget("Probe");
+		this.anyOrder = false;
+		this.targets = targets;
+	}
+
+	/**
+	 * Create a domain from a target set file. The file is mapped into memory
+	 * rather than read, so this is quick even for files with millions of
+	 * targets.
+	 * @param file the target set file.
+	 * @return the domain.
+	 * @throws IOException if the file cannot be read or is not a target set
+	 * file.
+	 * @see TargetFile
+	 */
+	public static Domain load(File file) throws IOException {
+		TargetFile tf = TargetFile.map(file);
+
+		return new Domain(tf.getName(), tf.getSize(), new TargetIndex(tf.getTargets()));
+	}
+
+	/**
+	 * Write the targets of this domain to a target set file, from which the
+	 * domain can be loaded again with {@link #load(File)}.
+	 * @param file the file to write.
+	 * @throws IOException if the file cannot be written.
+	 * @see TargetFile
+	 */
+	public void save(File file) throws IOException {
+		long[] packed = new long[targets.size()];
+		for(int t = 0; t < packed.length; t++)
+			packed[t] = targets.getPacked(t);
+
+		TargetFile.write(file, name, size, packed);
+	}
+
 	/**
 	 * Get the name of the domain.
 	 * @return the name of the domain.
@@ -118,6 +236,138 @@ public class Domain {
 		return name;
 	}
 
+	/**
+	 * Get the cost model that decides how long testing a point takes.
+	 * @return the cost model.
+	 */
+	public CostModel getCostModel() {
+		return costModel;
+	}
+
+	/**
+	 * Set the cost model that decides how long testing a point takes. By
+	 * default every test takes one second.
+	 * @param costModel the cost model to use.
+	 * @see org.realitygrid.examples.paramsearch.cost
+	 */
+	public void setCostModel(CostModel costModel) {
+		if(costModel == null)
+			throw new NullPointerException("costModel");
+
+		this.costModel = costModel;
+	}
+
+	/**
+	 * Is this domain in any-order mode?
+	 * @return true if the targets may be found in any order, false if they
+	 * must be found in order.
+	 * @see #setAnyOrder(boolean)
+	 */
+	public boolean isAnyOrder() {
+		return anyOrder;
+	}
+
+	/**
+	 * Set whether the targets of this domain may be found in any order. In
+	 * any-order mode a test within the halo of any target not yet found
+	 * finds it, and hints lead to the nearest target, in a straight line,
+	 * not yet found. By default targets must be found in order. Like
+	 * {@link #reset()} this must not be called while the domain is being
+	 * searched.
+	 * @param anyOrder true to allow the targets to be found in any order.
+	 */
+	public void setAnyOrder(boolean anyOrder) {
+		this.anyOrder = anyOrder;
+	}
+
+	/**
+	 * Get the cost model that decides how long a probe takes.
+	 * @return the probe cost model.
+	 * @see #probe(int, int, int)
+	 */
+	public CostModel getProbeCostModel() {
+		return probeCostModel;
+	}
+
+	/**
+	 * Set the cost model that decides how long a probe takes. By default
+	 * probes are free.
+	 * @param probeCostModel the cost model to use for probes.
+	 * @see #probe(int, int, int)
+	 */
+	public void setProbeCostModel(CostModel probeCostModel) {
+		if(probeCostModel == null)
+			throw new NullPointerException("probeCostModel");
+
+		this.probeCostModel = probeCostModel;
+	}
+
+	/**
+	 * Get the budget that counts full tests of points, made by any of the
+	 * {@code evaluate} methods or {@link #isWithinError(int, int, int)}.
+	 * @return the budget for full tests.
+	 */
+	public Budget getTestBudget() {
+		return testBudget;
+	}
+
+	/**
+	 * Set the budget that counts, and may limit, full tests of points. By
+	 * default full tests are counted but not limited.
+	 * @param testBudget the budget for full tests.
+	 */
+	public void setTestBudget(Budget testBudget) {
+		if(testBudget == null)
+			throw new NullPointerException("testBudget");
+
+		this.testBudget = testBudget;
+	}
+
+	/**
+	 * Get the budget that counts probes.
+	 * @return the budget for probes.
+	 * @see #probe(int, int, int)
+	 */
+	public Budget getProbeBudget() {
+		return probeBudget;
+	}
+
+	/**
+	 * Set the budget that counts, and may limit, probes. By default probes
+	 * are counted but not limited.
+	 * @param probeBudget the budget for probes.
+	 * @see #probe(int, int, int)
+	 */
+	public void setProbeBudget(Budget probeBudget) {
+		if(probeBudget == null)
+			throw new NullPointerException("probeBudget");
+
+		this.probeBudget = probeBudget;
+	}
+
+	/**
+	 * Get the executor that runs asynchronous tests.
+	 * @return the executor.
+	 * @see #evaluateAsync(int, int, int)
+	 */
+	public Executor getExecutor() {
+		Executor e = executor;
+		return (e == null) ? DefaultExecutor.INSTANCE : e;
+	}
+
+	/**
+	 * Set the executor that runs asynchronous tests. By default they are
+	 * run by a pool of daemon threads, shared by all domains, that grows as
+	 * needed. As most of the time taken by a test is usually spent waiting
+	 * for its cost to be paid, the number of threads available decides how
+	 * many tests can be in progress at once.
+	 * @param executor the executor to use, or null to use the default.
+	 * @see #evaluateAsync(int, int, int)
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
 	/**
 	 * Get the number of targets in this domain.
 	 * @return the number of targets.
@@ -126,6 +376,20 @@ public class Domain {
 		return numTargets;
 	}
 
+	/**
+	 * Get the number of targets in this domain that have been found. The
+	 * target that a test is measured against, whether the current one or,
+	 * in any-order mode, the nearest one, only depends on which targets have
+	 * been found, and this changes exactly when they do. So anything that
+	 * depends on the results of tests, such as a cache of them, is still
+	 * correct for as long as this stays the same.
+	 * @return the number of targets found.
+	 * @see org.realitygrid.examples.paramsearch.EvaluationCache
+	 */
+	public int getNumFound() {
+		return targets.getNumFound();
+	}
+
 	/**
 	 * Get the size of the domain. Domains are cubic so a single number is
 	 * used to describe all three side lengths.
@@ -135,14 +399,25 @@ public class Domain {
 		return size;
 	}
 
+	/**
+	 * Get the tolerance of this domain. Testing a point finds a target if
+	 * the point is no further than this from the target along each axis, so
+	 * a crawler that knows it can skip points whose neighbours would find the
+	 * same targets.
+	 * @return the tolerance, or -1 if it is not known.
+	 */
+	public int getError() {
+		return ERROR;
+	}
+
 	/**
 	 * Reset the "found" status of each of the targets in the domain. This is
-	 * generally only used by something that is benchmarking a domain.
+	 * generally only used by something that is benchmarking a domain, and
+	 * must not be called while the domain is being searched.
 	 * @see org.realitygrid.examples.paramsearch.runner.Runner
 	 */
 	public void reset() {
-		for(Target t : targets)
-			t.reset();
+		targets.reset();
 	}
 
 	/**
@@ -158,17 +433,56 @@ public class Domain {
 		if(location == null)
 			return null;
 
-		for(Target t : targets) {
-			if(t.isFound())
-				continue;
-
-			if(t.isFound(location))
+		while(true) {
+			int t = target(location.getIntX(), location.getIntY(), location.getIntZ());
+			if(t < 0)
 				return Vector3D.ZERO;
 
-			return location.getVectorTo(t.getLocation());
+			if(location.getIntX() != targets.getX(t) || location.getIntY() != targets.getY(t)
+					|| location.getIntZ() != targets.getZ(t))
+				return location.getVectorTo(targets.getLocation(t));
+
+			// another thread may have found this target first, in which case
+			// try again against the next one
+			if(targets.markFound(t))
+				return Vector3D.ZERO;
 		}
+	}
+
+	/**
+	 * Get a hint as to the direction of the target from a point. Unlike
+	 * {@link #search(Point3D)} this never marks a target as found.
+	 * @param x the X coordinate of the point.
+	 * @param y the Y coordinate of the point.
+	 * @param z the Z coordinate of the point.
+	 * @return the packed direction of the current target from the point, as
+	 * a hint from {@link Evaluation#hint(int, int, int)}.
+	 * @see Evaluation
+	 */
+	public int getDirection(int x, int y, int z) {
+		int t = target(x, y, z);
+		if(t < 0)
+			return Evaluation.hint(0, 0, 0);
+
+		return getDirection(x, y, z, targets.getX(t), targets.getY(t), targets.getZ(t));
+	}
 
-		return Vector3D.ZERO;
+	/**
+	 * Get a hint as to the direction of a target from a point. By default
+	 * this is simply the direction of the target; sub-classes may override
+	 * this to give hints that are less helpful, such as those that follow the
+	 * slope of a landscape around the target.
+	 * @param x the X coordinate of the point.
+	 * @param y the Y coordinate of the point.
+	 * @param z the Z coordinate of the point.
+	 * @param tx the X coordinate of the target.
+	 * @param ty the Y coordinate of the target.
+	 * @param tz the Z coordinate of the target.
+	 * @return the packed hint, from {@link Evaluation#hint(int, int, int)}.
+	 * @see org.realitygrid.examples.paramsearch.objective.ObjectiveDomain
+	 */
+	protected int getDirection(int x, int y, int z, int tx, int ty, int tz) {
+		return Evaluation.hint(tx - x, ty - y, tz - z);
 	}
 
 	/**
@@ -179,112 +493,321 @@ public class Domain {
 	 * @see Point3D
 	 */
 	public Point3D isWithinError(Point3D location) {
-		// sleep to emulate work
-		try {
-			Thread.sleep(SLEEP_TIME);
-		} catch (InterruptedException e) {
-		}
-
 		if(location == null)
 			return null;
 
-		for(Target t : targets) {
-			if(t.isFound())
-				continue;
+		return isWithinError(location.getIntX(), location.getIntY(), location.getIntZ());
+	}
 
-			return t.search(location);
-		}
+	/**
+	 * Test a point to see if it is within a certain distance of a target.
+	 * This is the same as {@link #isWithinError(Point3D)} but does not need
+	 * a point to be created for the test.
+	 * @param x the X coordinate of the point to test.
+	 * @param y the Y coordinate of the point to test.
+	 * @param z the Z coordinate of the point to test.
+	 * @return the actual target point if test point is within the error
+	 * bounds, null otherwise.
+	 */
+	public Point3D isWithinError(int x, int y, int z) {
+		chargeTest(x, y, z);
 
-		return null;
+		return findWithinError(x, y, z);
 	}
 
 	/**
-	 * Get a hint as to where the target might be.
-	 * @return a point offset by an error margin in all three axes.
+	 * Test a point against the current target. This is the same as
+	 * {@link #isWithinError(int, int, int)} but gives a hint towards the
+	 * target if the point does not find it.
+	 * @param x the X coordinate of the point to test.
+	 * @param y the Y coordinate of the point to test.
+	 * @param z the Z coordinate of the point to test.
+	 * @return {@link Evaluation#FOUND} if the point finds the target, or a
+	 * hint from {@link #getDirection(int, int, int)} if not.
+	 * @see Evaluation
 	 */
-	public Point3D getHint() {
-		for(Target t : targets) {
-			if(t.isFound())
-				continue;
+	public int evaluate(int x, int y, int z) {
+		chargeTest(x, y, z);
 
-			return t.getLocation().moveBy(new Vector3D(-ERROR, -ERROR, -ERROR));
+		return (claimWithinError(x, y, z) >= 0) ? Evaluation.FOUND : getDirection(x, y, z);
+	}
+
+	/**
+	 * Test a point against the current target, as
+	 * {@link #evaluate(int, int, int)} does, and also say what the result
+	 * depends on, so that a caller needs nothing more from the domain to
+	 * show or to cache the result. The first element of {@code outcome} is
+	 * set to the number of targets found when the result was decided: a
+	 * hint is correct for as long as that many targets have been found, and
+	 * a point that finds a target counts it. If the point finds a target the
+	 * next three elements are set to the target's coordinates.
+	 * @param x the X coordinate of the point to test.
+	 * @param y the Y coordinate of the point to test.
+	 * @param z the Z coordinate of the point to test.
+	 * @param outcome an array of at least four elements to describe the
+	 * result in.
+	 * @return {@link Evaluation#FOUND} if the point finds the target, or a
+	 * hint from {@link #getDirection(int, int, int)} if not.
+	 * @see #getNumFound()
+	 * @see Evaluation
+	 */
+	public int evaluate(int x, int y, int z, int[] outcome) {
+		if(outcome.length < 4)
+			throw new IllegalArgumentException("Outcome array too short: " + outcome.length);
+
+		chargeTest(x, y, z);
+
+		int t = claimWithinError(x, y, z);
+		if(t >= 0) {
+			outcome[0] = getNumFound();
+			outcome[1] = targets.getX(t);
+			outcome[2] = targets.getY(t);
+			outcome[3] = targets.getZ(t);
+			return Evaluation.FOUND;
 		}
 
-		return null;
+		// counted before the hint is worked out, so that a target found in
+		// between makes the hint look older than it is rather than newer
+		outcome[0] = getNumFound();
+		return getDirection(x, y, z);
 	}
 
-	private void generateTargets(byte[] hash) {
-		int h = 0;
-		int multiplier = size / 256;
+	/**
+	 * Probe a point for a hint as to the direction of the current target.
+	 * A probe is a cheap, low-fidelity test: it gives the same hint as
+	 * {@link #evaluate(int, int, int)} but never finds a target, even if the
+	 * point is within the target's halo, and it is charged to the probe
+	 * cost model and budget rather than those of full tests. A crawler can
+	 * use probes to decide where a full test is worth its cost.
+	 * @param x the X coordinate of the point to probe.
+	 * @param y the Y coordinate of the point to probe.
+	 * @param z the Z coordinate of the point to probe.
+	 * @return a hint from {@link #getDirection(int, int, int)}.
+	 * @throws org.realitygrid.examples.paramsearch.cost.BudgetExhaustedException
+	 * if the probe budget has been spent.
+	 * @see #setProbeCostModel(CostModel)
+	 * @see #setProbeBudget(Budget)
+	 */
+	public int probe(int x, int y, int z) {
+		probeBudget.spend(1);
+		probeCostModel.charge(x, y, z);
 
-		for (int i = 0; i < numTargets; i++) {
-			int[] dims = new int[3];
-			for (int j = 0; j < 3; j++) {
-				dims[j] = (size / 2) + (hash[h++] * multiplier);
-				if (h == hash.length)
-					h = 0;
-			}
-			targets.add(new Target(dims[0], dims[1], dims[2]));
-		}
+		return getDirection(x, y, z);
 	}
 
-	@Override
-	public String toString() {
-		int found = 0;
-		String result = "Domain created for " + name + ", size = " + size
-		+ ".\nTargets found: ";
-		for (Target t : targets)
-			if (t.isFound()) {
-				result += t + "\n               ";
-				found += 1;
-			}
+	/**
+	 * Test a batch of points against the targets in a single call. The
+	 * {@link CostModel} is charged once for the whole batch (see
+	 * {@link CostModel#chargeBatch(PointBatch)}) and then the points are
+	 * tested in the order they appear in the batch, each against the target
+	 * that is current when its turn comes. A batch can therefore find more
+	 * than one target: the points after one that finds a target are tested
+	 * against the next.
+	 * @param batch the points to test.
+	 * @return the result of testing each point, in the same order as the
+	 * points, as would be returned by {@link #evaluate(int, int, int)}.
+	 * @see Evaluation
+	 */
+	public int[] evaluateBatch(PointBatch batch) {
+		int[] results = new int[batch.size()];
+		evaluateBatch(batch, results);
 
-		return result + found + "\\" + numTargets;
+		return results;
 	}
 
-	private static class Target implements Comparable<Target> {
-		private Point3D location;
-		private boolean found;
+	/**
+	 * Test a batch of points against the targets in a single call, putting
+	 * the results into an existing array.
+	 * @param batch the points to test.
+	 * @param results the array to hold the result of testing each point,
+	 * which must be at least as long as the batch.
+	 * @return the number of targets found by the batch.
+	 * @see #evaluateBatch(PointBatch)
+	 */
+	public int evaluateBatch(PointBatch batch, int[] results) {
+		return evaluateBatch(batch, results, null);
+	}
 
-		Target(int x, int y, int z) {
-			location = new Point3D(x, y, z);
-			found = false;
+	/**
+	 * Test a batch of points against the targets in a single call, putting
+	 * the results into an existing array and the targets found onto the end
+	 * of a batch, in the order they are found, so that a caller needs
+	 * nothing more from the domain to show them.
+	 * @param batch the points to test.
+	 * @param results the array to hold the result of testing each point,
+	 * which must be at least as long as the batch.
+	 * @param found the batch to append each target found to, or null.
+	 * @return the number of targets found by the batch.
+	 * @see #evaluateBatch(PointBatch)
+	 * @see #evaluate(int, int, int, int[])
+	 */
+	public int evaluateBatch(PointBatch batch, int[] results, PointBatch found) {
+		int n = batch.size();
+		if(results.length < n)
+			throw new IllegalArgumentException("Results array too short for batch: "
+					+ results.length + " < " + n);
+
+		// emulate work
+		testBudget.spend(n);
+		costModel.chargeBatch(batch);
+
+		int count = 0;
+		for(int i = 0; i < n; i++) {
+			int x = batch.getX(i);
+			int y = batch.getY(i);
+			int z = batch.getZ(i);
+			int t = claimWithinError(x, y, z);
+			if(t >= 0) {
+				results[i] = Evaluation.FOUND;
+				if(found != null)
+					found.append(targets.getX(t), targets.getY(t), targets.getZ(t));
+				count++;
+			}
+			else
+				results[i] = getDirection(x, y, z);
 		}
 
-		void reset() {
-			found = false;
-		}
+		return count;
+	}
 
-		boolean isFound() {
-			return found;
-		}
+	/**
+	 * Test a point against the current target without waiting for the test
+	 * to finish. The test is run by the executor of this domain (see
+	 * {@link #setExecutor(Executor)}) and its result, as would be returned by
+	 * {@link #evaluate(int, int, int)}, completes the returned future.
+	 * <p/>Cancelling the future before the test has started stops it from
+	 * being run, so its cost is never paid. Cancelling it while its cost is
+	 * being paid stops it from finding a target, but a test cancelled as it
+	 * finishes may still find one.
+	 * @param x the X coordinate of the point to test.
+	 * @param y the Y coordinate of the point to test.
+	 * @param z the Z coordinate of the point to test.
+	 * @return a future for the result of the test. If the executor rejects
+	 * the test the future completes exceptionally.
+	 * @see Evaluation
+	 */
+	public CompletableFuture<Integer> evaluateAsync(final int x, final int y, final int z) {
+		final CompletableFuture<Integer> result = new CompletableFuture<Integer>();
 
-		boolean isFound(Point3D location) {
-			found = location.equals(this.location);
-			return found;
+		try {
+			getExecutor().execute(new Runnable() {
+				public void run() {
+					if(result.isDone())
+						return;
+
+					try {
+						chargeTest(x, y, z);
+						if(result.isDone())
+							return;
+
+						int r = (claimWithinError(x, y, z) >= 0) ? Evaluation.FOUND : getDirection(x, y, z);
+						result.complete(r);
+					} catch(Throwable t) {
+						result.completeExceptionally(t);
+					}
+				}
+			});
+		} catch(RejectedExecutionException e) {
+			result.completeExceptionally(e);
 		}
 
-		Point3D search(Point3D p) {
-			if(location.isWithin(ERROR, p)) {
-				found = true;
-				return location;
-			}
+		return result;
+	}
 
-			return null;
-		}
+	/**
+	 * Test a point against the current target without waiting for the test
+	 * to finish.
+	 * @param location the point to test.
+	 * @return a future for the result of the test.
+	 * @see #evaluateAsync(int, int, int)
+	 */
+	public CompletableFuture<Integer> evaluateAsync(Point3D location) {
+		return evaluateAsync(location.getIntX(), location.getIntY(), location.getIntZ());
+	}
 
-		Point3D getLocation() {
-			return location;
-		}
+	// count a full test against its budget and then emulate its work
+	private void chargeTest(int x, int y, int z) {
+		testBudget.spend(1);
+		costModel.charge(x, y, z);
+	}
+
+	private Point3D findWithinError(int x, int y, int z) {
+		int t = claimWithinError(x, y, z);
+
+		return (t < 0) ? null : targets.getLocation(t);
+	}
+
+	// the target that a point is measured against
+	private int target(int x, int y, int z) {
+		return anyOrder ? targets.nearest(x, y, z) : targets.current();
+	}
 
-		@Override
-		public String toString() {
-			return "Target [found=" + found + ", location=" + location + "]";
+	// find the current target, or in any-order mode any target not yet
+	// found, if it is within the error bounds of a point
+	private int claimWithinError(int x, int y, int z) {
+		if(anyOrder) {
+			while(true) {
+				int t = targets.findWithin(ERROR, x, y, z);
+				if(t < 0 || targets.markFound(t))
+					return t;
+			}
 		}
 
-		@Override
-		public int compareTo(Target o) {
-			return location.compareTo(o.location);
+		while(true) {
+			int t = targets.current();
+			if(t < 0)
+				return -1;
+
+			if(Math.abs(targets.getX(t) - x) > ERROR || Math.abs(targets.getY(t) - y) > ERROR
+					|| Math.abs(targets.getZ(t) - z) > ERROR)
+				return -1;
+
+			// another thread may have found this target first, in which case
+			// try again against the next one
+			if(targets.markFound(t))
+				return t;
 		}
 	}
+
+	/**
+	 * Get a hint as to where the target might be.
+	 * @return a point offset by an error margin in all three axes.
+	 */
+	public Point3D getHint() {
+		int t = targets.current();
+		if(t < 0)
+			return null;
+
+		return Point3D.of(targets.getX(t) - ERROR, targets.getY(t) - ERROR, targets.getZ(t) - ERROR);
+	}
+
+	@Override
+	public String toString() {
+		int found = 0;
+		String result = "Domain created for " + name + ", size = " + size
+		+ ".\nTargets found: ";
+		for (int t = 0; t < targets.size(); t++)
+			if (targets.isFound(t)) {
+				result += "Target [found=true, location=" + targets.getLocation(t)
+				+ "]\n               ";
+				found += 1;
+			}
+
+		return result + found + "\\" + numTargets;
+	}
+
+	/*
+	 * The default executor for asynchronous tests, only created if needed.
+	 */
+	private static final class DefaultExecutor {
+		static final ExecutorService INSTANCE = Executors.newCachedThreadPool(new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "domain-evaluator-" + count.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
 }
@@ -0,0 +1,235 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import java.util.Arrays;
+
+/**
+ * This class represents a tuple of arbitrary length with {@code double}
+ * components. The components are held in a primitive array rather than in
+ * the component list of {@link Tuple} so that the arithmetic methods of this
+ * class are simple loops that neither box nor allocate.
+ * <p/>A DoubleTuple is equal to any other {@link Tuple} with the same
+ * components, whatever their type. As with {@link Tuple#distance(Tuple)},
+ * tuples of different lengths are treated as if their missing components
+ * were zero.
+ * @author Robert Haines
+ * @see IntTuple
+ */
+public final class DoubleTuple extends Tuple<Double> {
+
+	private final double[] values;
+
+	/**
+	 * Create a tuple with the specified components. The components are
+	 * copied.
+	 * @param values the components.
+	 */
+	public DoubleTuple(double... values) {
+		this(values, true);
+	}
+
+	/**
+	 * Create a tuple with the same components as another tuple.
+	 * @param t the tuple to copy.
+	 */
+	public DoubleTuple(Tuple<?> t) {
+		super();
+		values = new double[t.getLength()];
+		for(int i = 0; i < values.length; i++)
+			values[i] = t.getDoubleComponent(i);
+	}
+
+	private DoubleTuple(double[] values, boolean copy) {
+		super();
+		this.values = copy ? values.clone() : values;
+	}
+
+	/**
+	 * Get a component of this tuple as a primitive double.
+	 * @param i the index of the component.
+	 * @return the component.
+	 */
+	public double get(int i) {
+		return values[i];
+	}
+
+	/**
+	 * Get a copy of the components of this tuple.
+	 * @return an array holding the components of this tuple.
+	 */
+	public double[] toArray() {
+		return values.clone();
+	}
+
+	@Override
+	public int getLength() {
+		return values.length;
+	}
+
+	@Override
+	protected Double getComponent(int i) {
+		return values[i];
+	}
+
+	@Override
+	protected double getDoubleComponent(int i) {
+		return values[i];
+	}
+
+	/**
+	 * Get the distance between this tuple and another.
+	 * @param t the other tuple.
+	 * @return the distance between the two tuples.
+	 */
+	public double distance(DoubleTuple t) {
+		double[] a = values;
+		double[] b = t.values;
+		int common = Math.min(a.length, b.length);
+		double result = 0.0;
+
+		for(int i = 0; i < common; i++) {
+			double d = b[i] - a[i];
+			result += d * d;
+		}
+		for(int i = common; i < a.length; i++)
+			result += a[i] * a[i];
+		for(int i = common; i < b.length; i++)
+			result += b[i] * b[i];
+
+		return Math.sqrt(result);
+	}
+
+	/**
+	 * Get the Chebyshev distance between this tuple and another. This is the
+	 * largest difference between any pair of corresponding components.
+	 * @param t the other tuple.
+	 * @return the Chebyshev distance between the two tuples.
+	 */
+	public double chebyshevDistance(DoubleTuple t) {
+		double[] a = values;
+		double[] b = t.values;
+		int common = Math.min(a.length, b.length);
+		double result = 0.0;
+
+		for(int i = 0; i < common; i++)
+			result = Math.max(result, Math.abs(b[i] - a[i]));
+		for(int i = common; i < a.length; i++)
+			result = Math.max(result, Math.abs(a[i]));
+		for(int i = common; i < b.length; i++)
+			result = Math.max(result, Math.abs(b[i]));
+
+		return result;
+	}
+
+	/**
+	 * Get the dot product of this tuple and another.
+	 * @param t the other tuple.
+	 * @return the dot product of the two tuples.
+	 */
+	public double dot(DoubleTuple t) {
+		double[] a = values;
+		double[] b = t.values;
+		int common = Math.min(a.length, b.length);
+		double result = 0.0;
+
+		for(int i = 0; i < common; i++)
+			result += a[i] * b[i];
+
+		return result;
+	}
+
+	/**
+	 * Add another tuple to this one.
+	 * @param t the other tuple.
+	 * @return a new tuple holding the sum of the two tuples.
+	 */
+	public DoubleTuple add(DoubleTuple t) {
+		double[] a = (values.length >= t.values.length) ? values : t.values;
+		double[] b = (a == values) ? t.values : values;
+		double[] result = a.clone();
+
+		for(int i = 0; i < b.length; i++)
+			result[i] += b[i];
+
+		return new DoubleTuple(result, false);
+	}
+
+	@Override
+	public int hashCode() {
+		int result = HASH_SEED;
+		for (double c : values) {
+			result = hash(result, hashComponent(c));
+		}
+
+		return finishHash(result);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj instanceof DoubleTuple) {
+			double[] other = ((DoubleTuple) obj).values;
+			if (values.length != other.length) {
+				return false;
+			}
+			for (int i = 0; i < values.length; i++)
+				if (values[i] != other[i])
+					return false;
+
+			return true;
+		}
+
+		return super.equals(obj);
+	}
+
+	@Override
+	public String toString() {
+		return "DoubleTuple " + Arrays.toString(values);
+	}
+}
@@ -0,0 +1,162 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+/**
+ * This class provides static methods for working with the result of testing
+ * a point in a {@link Domain}, packed into a single {@code int}. A result
+ * either says that the target was found or gives a hint towards it: the sign
+ * (-1, 0 or 1) of the direction to the target along each axis. This is the
+ * same information as the {@link Vector3D} returned by
+ * {@link org.realitygrid.examples.paramsearch.crawlers.AbstractCrawler}'s
+ * original testPoint method, but needs no objects or floating point
+ * arithmetic to produce or examine.
+ * @author Robert Haines
+ * @see Domain#getDirection(int, int, int)
+ */
+public final class Evaluation {
+
+	/**
+	 * The result of a test that found the target.
+	 */
+	public static final int FOUND = 1 << 6;
+
+	// each axis is stored as its sign plus one in two bits
+	private static final int AXIS_BITS = 2;
+	private static final int AXIS_MASK = (1 << AXIS_BITS) - 1;
+	private static final int Y_SHIFT = AXIS_BITS;
+	private static final int Z_SHIFT = 2 * AXIS_BITS;
+
+	// shared vectors for every possible result
+	private static final Vector3D[] VECTORS = new Vector3D[FOUND << 1];
+
+	static {
+		for(int r = 0; r < VECTORS.length; r++) {
+			if(isFound(r))
+				VECTORS[r] = Vector3D.ZERO;
+			else
+				VECTORS[r] = new Vector3D(getX(r), getY(r), getZ(r));
+		}
+	}
+
+	private Evaluation() {
+	}
+
+	/**
+	 * Get the result of a test that did not find the target, with a hint in
+	 * the direction specified. Only the sign of each component of the
+	 * direction is kept.
+	 * @param dx the direction to the target along the X axis.
+	 * @param dy the direction to the target along the Y axis.
+	 * @param dz the direction to the target along the Z axis.
+	 * @return the packed result.
+	 */
+	public static int hint(int dx, int dy, int dz) {
+		return (Integer.signum(dx) + 1)
+		| ((Integer.signum(dy) + 1) << Y_SHIFT)
+		| ((Integer.signum(dz) + 1) << Z_SHIFT);
+	}
+
+	/**
+	 * Did the test that gave this result find the target?
+	 * @param r the packed result.
+	 * @return whether the target was found.
+	 */
+	public static boolean isFound(int r) {
+		return (r & FOUND) != 0;
+	}
+
+	/**
+	 * Get the hint towards the target along the X axis.
+	 * @param r the packed result.
+	 * @return -1, 0 or 1, or 0 if the target was found.
+	 */
+	public static int getX(int r) {
+		return isFound(r) ? 0 : (r & AXIS_MASK) - 1;
+	}
+
+	/**
+	 * Get the hint towards the target along the Y axis.
+	 * @param r the packed result.
+	 * @return -1, 0 or 1, or 0 if the target was found.
+	 */
+	public static int getY(int r) {
+		return isFound(r) ? 0 : ((r >> Y_SHIFT) & AXIS_MASK) - 1;
+	}
+
+	/**
+	 * Get the hint towards the target along the Z axis.
+	 * @param r the packed result.
+	 * @return -1, 0 or 1, or 0 if the target was found.
+	 */
+	public static int getZ(int r) {
+		return isFound(r) ? 0 : ((r >> Z_SHIFT) & AXIS_MASK) - 1;
+	}
+
+	/**
+	 * Get a result as a vector. This is the zero vector if the target was
+	 * found, or a vector with unit components giving the hint towards it if
+	 * not. The vectors returned are shared so no new objects are created.
+	 * @param r the packed result.
+	 * @return the vector form of the result.
+	 * @see Vector3D#unitComponents()
+	 */
+	public static Vector3D toVector3D(int r) {
+		return VECTORS[r & (VECTORS.length - 1)];
+	}
+
+	/**
+	 * Get a string describing a result.
+	 * @param r the packed result.
+	 * @return a description of the result.
+	 */
+	public static String toString(int r) {
+		if(isFound(r))
+			return "Found";
+
+		return "Hint (" + getX(r) + ", " + getY(r) + ", " + getZ(r) + ")";
+	}
+}
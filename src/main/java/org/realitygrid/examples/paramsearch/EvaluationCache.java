@@ -0,0 +1,338 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import java.util.Arrays;
+
+/**
+ * This class is a bounded cache of the results of testing points, so that a
+ * crawler that tests the same point twice only pays for it once. Results are
+ * kept as packed ints (see {@link Evaluation}) keyed by packed points (see
+ * {@link PackedPoints}), so no objects are created to cache a result.
+ * <p/>A result is only correct for as long as the target it was tested
+ * against is the current target, so the cache must be cleared whenever a
+ * target is found; {@link #validate(int)} does this given the number of
+ * targets found so far (see {@link Domain#getNumFound()}). Results that found
+ * a target are never cached.
+ * <p/>When the cache is full the entry to replace is chosen with the CLOCK
+ * algorithm, an approximation of least recently used: each entry has a bit
+ * that is set when it is used and a "hand" sweeps round the entries, clearing
+ * set bits, until it reaches one whose bit is clear. Entries are found
+ * through an open-addressed hash table of twice the capacity.
+ * <p/>The cache also keeps the time taken by the tests whose results it
+ * holds, so that it can estimate how much time it has saved. It is not
+ * thread-safe and is intended to be used by a single crawler; crawlers that
+ * test points from several threads at once lock it while they use it.
+ * @author Robert Haines
+ * @see org.realitygrid.examples.paramsearch.crawlers.AbstractCrawler#setEvaluationCache(EvaluationCache)
+ */
+public final class EvaluationCache {
+
+	/**
+	 * The value returned by {@link #get(int, int, int)} when the result of
+	 * testing a point is not in the cache.
+	 */
+	public static final int MISS = -1;
+
+	private static final int EMPTY = -1;
+
+	// entries
+	private final long[] keys;
+	private final int[] results;
+	private final boolean[] used;
+	private int size;
+	private int hand;
+
+	// hash table of entry numbers
+	private final int[] table;
+	private final int mask;
+
+	private int generation;
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long testTime;
+	private long tests;
+
+	/**
+	 * Create a cache that can hold the specified number of results.
+	 * @param capacity the number of results to hold.
+	 */
+	public EvaluationCache(int capacity) {
+		if(capacity < 1 || capacity > (1 << 29))
+			throw new IllegalArgumentException("Illegal capacity: " + capacity);
+
+		keys = new long[capacity];
+		results = new int[capacity];
+		used = new boolean[capacity];
+
+		int tableSize = Integer.highestOneBit(capacity) << 1;
+		if(tableSize < (capacity << 1))
+			tableSize <<= 1;
+		table = new int[tableSize];
+		mask = tableSize - 1;
+
+		generation = 0;
+		clear();
+	}
+
+	/**
+	 * Clear the cache if any targets have been found since it was last
+	 * validated.
+	 * @param numFound the number of targets found so far.
+	 * @return true if the cache was cleared.
+	 */
+	public boolean validate(int numFound) {
+		if(numFound == generation)
+			return false;
+
+		generation = numFound;
+		clear();
+
+		return true;
+	}
+
+	/**
+	 * Get the number of targets that had been found when this cache was last
+	 * validated. The results it holds were all tested against the target
+	 * that was current then.
+	 * @return the number of targets found.
+	 * @see #validate(int)
+	 */
+	public int getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * Get the result of testing a point, if it is in the cache.
+	 * @param x the X coordinate of the point.
+	 * @param y the Y coordinate of the point.
+	 * @param z the Z coordinate of the point.
+	 * @return the result of testing the point, or {@link #MISS} if it is not
+	 * in the cache.
+	 */
+	public int get(int x, int y, int z) {
+		if(PackedPoints.canEncode(x, y, z)) {
+			long key = PackedPoints.encode(x, y, z);
+			for(int i = Point3D.hashCode(x, y, z) & mask; table[i] != EMPTY; i = (i + 1) & mask) {
+				int e = table[i];
+				if(keys[e] == key) {
+					used[e] = true;
+					hits++;
+					return results[e];
+				}
+			}
+		}
+
+		misses++;
+		return MISS;
+	}
+
+	/**
+	 * Add the result of testing a point to the cache, replacing another if
+	 * the cache is full. Results that found a target are not cached.
+	 * @param x the X coordinate of the point.
+	 * @param y the Y coordinate of the point.
+	 * @param z the Z coordinate of the point.
+	 * @param result the result of testing the point.
+	 */
+	public void put(int x, int y, int z, int result) {
+		if(Evaluation.isFound(result) || !PackedPoints.canEncode(x, y, z))
+			return;
+
+		long key = PackedPoints.encode(x, y, z);
+		int i = Point3D.hashCode(x, y, z) & mask;
+		for(; table[i] != EMPTY; i = (i + 1) & mask) {
+			int e = table[i];
+			if(keys[e] == key) {
+				results[e] = result;
+				used[e] = true;
+				return;
+			}
+		}
+
+		int e;
+		if(size < keys.length)
+			e = size++;
+		else {
+			e = evict();
+
+			// the slot found above may have moved up to fill the gap
+			i = Point3D.hashCode(x, y, z) & mask;
+			while(table[i] != EMPTY)
+				i = (i + 1) & mask;
+		}
+
+		keys[e] = key;
+		results[e] = result;
+		used[e] = false;
+		table[i] = e;
+	}
+
+	/**
+	 * Record the time taken by a test that was not answered from the cache,
+	 * for use by {@link #getSavedTime()}.
+	 * @param nanos the time, in nanoseconds, that the test took.
+	 */
+	public void addTestTime(long nanos) {
+		testTime += nanos;
+		tests++;
+	}
+
+	// choose an entry to replace and remove it from the hash table
+	private int evict() {
+		while(used[hand]) {
+			used[hand] = false;
+			hand = (hand + 1 == keys.length) ? 0 : hand + 1;
+		}
+		int e = hand;
+		hand = (hand + 1 == keys.length) ? 0 : hand + 1;
+		evictions++;
+
+		long key = keys[e];
+		int i = hash(key) & mask;
+		while(table[i] != e)
+			i = (i + 1) & mask;
+
+		// move later entries in the run back so that none is left beyond a gap
+		int gap = i;
+		for(int j = (i + 1) & mask; table[j] != EMPTY; j = (j + 1) & mask) {
+			int home = hash(keys[table[j]]) & mask;
+			if(((j - home) & mask) >= ((j - gap) & mask)) {
+				table[gap] = table[j];
+				gap = j;
+			}
+		}
+		table[gap] = EMPTY;
+
+		return e;
+	}
+
+	private static int hash(long key) {
+		return Point3D.hashCode(PackedPoints.getX(key), PackedPoints.getY(key), PackedPoints.getZ(key));
+	}
+
+	/**
+	 * Remove all results from the cache. The statistics are kept.
+	 */
+	public void clear() {
+		Arrays.fill(table, EMPTY);
+		Arrays.fill(used, false);
+		size = 0;
+		hand = 0;
+	}
+
+	/**
+	 * Get the number of results this cache can hold.
+	 * @return the capacity of this cache.
+	 */
+	public int getCapacity() {
+		return keys.length;
+	}
+
+	/**
+	 * Get the number of results currently held in this cache.
+	 * @return the number of results held.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get the number of tests that were answered from the cache.
+	 * @return the number of cache hits.
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Get the number of tests that were not answered from the cache.
+	 * @return the number of cache misses.
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Get the number of results that were replaced to make room for others.
+	 * @return the number of evictions.
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Estimate the time saved by answering tests from the cache, assuming
+	 * that each would have taken the average time of the tests that were
+	 * not.
+	 * @return the estimated time saved, in seconds.
+	 */
+	public double getSavedTime() {
+		if(tests == 0)
+			return 0.0;
+
+		return (hits * ((double) testTime / tests)) / 1e9;
+	}
+
+	/**
+	 * Reset the statistics to zero. The cached results are kept.
+	 */
+	public void resetStatistics() {
+		hits = 0;
+		misses = 0;
+		evictions = 0;
+		testTime = 0;
+		tests = 0;
+	}
+
+	@Override
+	public String toString() {
+		return "EvaluationCache [capacity=" + getCapacity() + ", hits=" + hits
+		+ ", misses=" + misses + ", evictions=" + evictions
+		+ ", saved=" + String.format("%.3fs", getSavedTime()) + "]";
+	}
+}
@@ -0,0 +1,248 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+/**
+ * This class provides static methods for working with points in integer 3D
+ * space that have been packed into a single {@code long}. Large collections
+ * of points can then be held in a {@code long[]} rather than as
+ * {@link Point3D} objects.
+ * <p/>Each coordinate is stored in 21 bits, biased so that the stored value is
+ * never negative. The X coordinate occupies the most significant bits and the
+ * Z coordinate the least, so comparing two packed points as longs orders them
+ * in the same way as {@link Point3D#compareTo(Point3D)}: firstly by their x
+ * coordinate, then their y coordinate and finally their z coordinate.
+ * @author Robert Haines
+ * @see Point3D#toPacked()
+ * @see Point3D#fromPacked(long)
+ */
+public final class PackedPoints {
+
+	/**
+	 * The number of bits used to store each coordinate.
+	 */
+	public static final int BITS_PER_AXIS = 21;
+
+	/**
+	 * The smallest coordinate that can be packed.
+	 */
+	public static final int MIN_COORDINATE = -(1 << (BITS_PER_AXIS - 1));
+
+	/**
+	 * The largest coordinate that can be packed.
+	 */
+	public static final int MAX_COORDINATE = (1 << (BITS_PER_AXIS - 1)) - 1;
+
+	private static final int BIAS = 1 << (BITS_PER_AXIS - 1);
+	private static final long MASK = (1L << BITS_PER_AXIS) - 1;
+	private static final int X_SHIFT = 2 * BITS_PER_AXIS;
+	private static final int Y_SHIFT = BITS_PER_AXIS;
+
+	private PackedPoints() {
+	}
+
+	/**
+	 * Pack the specified coordinates into a single long.
+	 * @param x the X coordinate.
+	 * @param y the Y coordinate.
+	 * @param z the Z coordinate.
+	 * @return the packed point.
+	 * @throws IllegalArgumentException if any coordinate is outside the range
+	 * {@link #MIN_COORDINATE} to {@link #MAX_COORDINATE}.
+	 */
+	public static long encode(int x, int y, int z) {
+		return ((long) bias(x) << X_SHIFT) | ((long) bias(y) << Y_SHIFT) | bias(z);
+	}
+
+	/**
+	 * Test whether the specified coordinates can be packed into a single
+	 * long.
+	 * @param x the X coordinate.
+	 * @param y the Y coordinate.
+	 * @param z the Z coordinate.
+	 * @return true if each coordinate is in the range {@link #MIN_COORDINATE}
+	 * to {@link #MAX_COORDINATE}.
+	 */
+	public static boolean canEncode(int x, int y, int z) {
+		return x >= MIN_COORDINATE && x <= MAX_COORDINATE && y >= MIN_COORDINATE
+				&& y <= MAX_COORDINATE && z >= MIN_COORDINATE && z <= MAX_COORDINATE;
+	}
+
+	/**
+	 * Pack the specified point into a single long.
+	 * @param p the point to pack.
+	 * @return the packed point.
+	 * @throws IllegalArgumentException if any coordinate is outside the range
+	 * {@link #MIN_COORDINATE} to {@link #MAX_COORDINATE}.
+	 */
+	public static long encode(Point3D p) {
+		return encode(p.getIntX(), p.getIntY(), p.getIntZ());
+	}
+
+	/**
+	 * Unpack a packed point into a new {@link Point3D}.
+	 * @param p the packed point.
+	 * @return the unpacked point.
+	 */
+	public static Point3D decode(long p) {
+		return new Point3D(getX(p), getY(p), getZ(p));
+	}
+
+	/**
+	 * Get the X coordinate of a packed point.
+	 * @param p the packed point.
+	 * @return the X coordinate.
+	 */
+	public static int getX(long p) {
+		return (int) ((p >>> X_SHIFT) & MASK) - BIAS;
+	}
+
+	/**
+	 * Get the Y coordinate of a packed point.
+	 * @param p the packed point.
+	 * @return the Y coordinate.
+	 */
+	public static int getY(long p) {
+		return (int) ((p >>> Y_SHIFT) & MASK) - BIAS;
+	}
+
+	/**
+	 * Get the Z coordinate of a packed point.
+	 * @param p the packed point.
+	 * @return the Z coordinate.
+	 */
+	public static int getZ(long p) {
+		return (int) (p & MASK) - BIAS;
+	}
+
+	/**
+	 * Find the packed point arrived at by moving from a packed point by the
+	 * specified amounts along each axis.
+	 * @param p the packed point to move from.
+	 * @param dx the distance to move along the X axis.
+	 * @param dy the distance to move along the Y axis.
+	 * @param dz the distance to move along the Z axis.
+	 * @return the new packed point.
+	 * @throws IllegalArgumentException if the new point cannot be packed.
+	 */
+	public static long moveBy(long p, int dx, int dy, int dz) {
+		return encode(getX(p) + dx, getY(p) + dy, getZ(p) + dz);
+	}
+
+	/**
+	 * Test to see if two packed points are within a certain distance of each
+	 * other. <strong>This method tests distance along each axis, not straight
+	 * line distance!</strong>
+	 * @param d the distance within which the two points must be.
+	 * @param a the first packed point.
+	 * @param b the second packed point.
+	 * @return whether the two points are within the specified distance.
+	 * @see Point3D#isWithin(int, Point3D)
+	 */
+	public static boolean isWithin(int d, long a, long b) {
+		if(Math.abs(getX(a) - getX(b)) > d)
+			return false;
+
+		if(Math.abs(getY(a) - getY(b)) > d)
+			return false;
+
+		if(Math.abs(getZ(a) - getZ(b)) > d)
+			return false;
+
+		return true;
+	}
+
+	/**
+	 * Get the Chebyshev distance between two packed points. This is the
+	 * largest distance between them along any one axis.
+	 * @param a the first packed point.
+	 * @param b the second packed point.
+	 * @return the Chebyshev distance between the two points.
+	 */
+	public static int chebyshevDistance(long a, long b) {
+		int dx = Math.abs(getX(a) - getX(b));
+		int dy = Math.abs(getY(a) - getY(b));
+		int dz = Math.abs(getZ(a) - getZ(b));
+
+		return Math.max(dx, Math.max(dy, dz));
+	}
+
+	/**
+	 * Get the straight line distance between two packed points.
+	 * @param a the first packed point.
+	 * @param b the second packed point.
+	 * @return the distance between the two points.
+	 * @see Point3D#distance(Point3D)
+	 */
+	public static double distance(long a, long b) {
+		double dx = getX(a) - getX(b);
+		double dy = getY(a) - getY(b);
+		double dz = getZ(a) - getZ(b);
+
+		return Math.sqrt((dx * dx) + (dy * dy) + (dz * dz));
+	}
+
+	/**
+	 * Compare two packed points in the same order as
+	 * {@link Point3D#compareTo(Point3D)}. Because of the way points are packed
+	 * this is simply a comparison of the two longs.
+	 * @param a the first packed point.
+	 * @param b the second packed point.
+	 * @return a negative number, zero or a positive number as the first point
+	 * is less than, equal to or greater than the second.
+	 */
+	public static int compare(long a, long b) {
+		return (a < b) ? -1 : ((a == b) ? 0 : 1);
+	}
+
+	private static int bias(int c) {
+		if(c < MIN_COORDINATE || c > MAX_COORDINATE)
+			throw new IllegalArgumentException("Coordinate " + c
+					+ " cannot be packed into " + BITS_PER_AXIS + " bits.");
+
+		return c + BIAS;
+	}
+}
@@ -47,6 +47,10 @@ package org.realitygrid.examples.paramsearch;
 
 /**
  * This class represents a point in integer 3D space.
+ * <p/>The coordinates are held in primitive fields rather than in the
+ * component list of {@link Tuple} so that creating and examining points does
+ * not box. The primitive accessors {@link #getIntX()}, {@link #getIntY()} and
+ * {@link #getIntZ()} should be preferred in performance sensitive code.
  * @author Robert Haines
  */
 public final class Point3D extends Tuple3<Integer> implements Comparable<Point3D> {
@@ -56,6 +60,25 @@ public final class Point3D extends Tuple3<Integer> implements Comparable<Point3D
 	 */
 	public static final Point3D ORIGIN = new Point3D(0);
 
+	private static volatile Point3DCache cache = null;
+
+	private final int x;
+	private final int y;
+	private final int z;
+
+	/**
+	 * Create a new point at the coordinates specified.
+	 * @param x the X coordinate.
+	 * @param y the Y coordinate.
+	 * @param z the Z coordinate.
+	 */
+	public Point3D(int x, int y, int z) {
+		super();
+		this.x = x;
+		this.y = y;
+		this.z = z;
+	}
+
 	/**
 	 * Create a new point at the coordinates specified.
 	 * @param x the X coordinate.
@@ -63,7 +86,7 @@ public final class Point3D extends Tuple3<Integer> implements Comparable<Point3D
 	 * @param z the Z coordinate.
 	 */
 	public Point3D(Integer x, Integer y, Integer z) {
-		super(x, y, z);
+		this(x.intValue(), y.intValue(), z.intValue());
 	}
 
 	/**
@@ -71,7 +94,15 @@ public final class Point3D extends Tuple3<Integer> implements Comparable<Point3D
 	 * @param t the {@link Tuple3} holding the coordinates to use.
 	 */
 	public Point3D(Tuple3<Integer> t) {
-		super(t);
+		this(t.getX(), t.getY(), t.getZ());
+	}
+
+	/**
+	 * Create a new point with all three coordinates the same.
+	 * @param c the single X, Y and Z coordinate.
+	 */
+	public Point3D(int c) {
+		this(c, c, c);
 	}
 
 	/**
@@ -79,7 +110,124 @@ public final class Point3D extends Tuple3<Integer> implements Comparable<Point3D
 	 * @param c the single X, Y and Z coordinate.
 	 */
 	public Point3D(Integer c) {
-		super(c);
+		this(c.intValue());
+	}
+
+	/**
+	 * Get a point at the coordinates specified. If a cache has been set with
+	 * {@link #setCache(Point3DCache)} then the point may be a shared instance,
+	 * otherwise a new point is created.
+	 * @param x the X coordinate.
+	 * @param y the Y coordinate.
+	 * @param z the Z coordinate.
+	 * @return a point at the coordinates specified.
+	 */
+	public static Point3D of(int x, int y, int z) {
+		Point3DCache c = cache;
+		if(c == null)
+			return new Point3D(x, y, z);
+
+		return c.get(x, y, z);
+	}
+
+	/**
+	 * Set the cache to be used by {@link #of(int, int, int)}.
+	 * @param c the cache to use, or null to stop caching points.
+	 */
+	public static void setCache(Point3DCache c) {
+		cache = c;
+	}
+
+	/**
+	 * Get the cache being used by {@link #of(int, int, int)}.
+	 * @return the cache, or null if points are not being cached.
+	 */
+	public static Point3DCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * Create a new point from one that has been packed into a long.
+	 * @param p the packed point.
+	 * @return the unpacked point.
+	 * @see PackedPoints
+	 */
+	public static Point3D fromPacked(long p) {
+		return PackedPoints.decode(p);
+	}
+
+	/**
+	 * Pack this point into a single long.
+	 * @return the packed form of this point.
+	 * @throws IllegalArgumentException if any coordinate is too large to be
+	 * packed.
+	 * @see PackedPoints
+	 */
+	public long toPacked() {
+		return PackedPoints.encode(x, y, z);
+	}
+
+	/**
+	 * Get the X coordinate as a primitive int.
+	 * @return the X coordinate.
+	 */
+	public int getIntX() {
+		return x;
+	}
+
+	/**
+	 * Get the Y coordinate as a primitive int.
+	 * @return the Y coordinate.
+	 */
+	public int getIntY() {
+		return y;
+	}
+
+	/**
+	 * Get the Z coordinate as a primitive int.
+	 * @return the Z coordinate.
+	 */
+	public int getIntZ() {
+		return z;
+	}
+
+	@Override
+	public Integer getX() {
+		return x;
+	}
+
+	@Override
+	public Integer getY() {
+		return y;
+	}
+
+	@Override
+	public Integer getZ() {
+		return z;
+	}
+
+	@Override
+	public int getLength() {
+		return 3;
+	}
+
+	@Override
+	protected Integer getComponent(int i) {
+		return (int) getDoubleComponent(i);
+	}
+
+	@Override
+	protected double getDoubleComponent(int i) {
+		switch(i) {
+		case 0:
+			return x;
+		case 1:
+			return y;
+		case 2:
+			return z;
+		default:
+			throw new IndexOutOfBoundsException("Index: " + i + ", Size: 3");
+		}
 	}
 
 	/**
@@ -88,7 +236,11 @@ public final class Point3D extends Tuple3<Integer> implements Comparable<Point3D
 	 * @return the distance between the two points.
 	 */
 	public double distance(Point3D p) {
-		return super.distance(p);
+		double dx = p.x - x;
+		double dy = p.y - y;
+		double dz = p.z - z;
+
+		return Math.sqrt((dx * dx) + (dy * dy) + (dz * dz));
 	}
 
 	/**
@@ -98,8 +250,7 @@ public final class Point3D extends Tuple3<Integer> implements Comparable<Point3D
 	 * @see #getNormalizedVectorTo(Point3D)
 	 */
 	public Vector3D getVectorTo(Point3D p) {
-		return new Vector3D(p.getX() - this.getX(), p.getY() - this.getY(),
-				p.getZ() - this.getZ());
+		return new Vector3D(p.x - x, p.y - y, p.z - z);
 	}
 
 	/**
@@ -109,21 +260,19 @@ public final class Point3D extends Tuple3<Integer> implements Comparable<Point3D
 	 * @see #getVectorTo(Point3D)
 	 */
 	public Vector3D getNormalizedVectorTo(Point3D p) {
-		Vector3D result = new Vector3D(p.getX() - this.getX(), p.getY()
-				- this.getY(), p.getZ() - this.getZ());
-		return result.normalize();
+		return getVectorTo(p).normalize();
 	}
 
 	@Override
 	public int compareTo(Point3D o) {
-		if(getX() != o.getX()) {
-			return getX() - o.getX();
+		if(x != o.x) {
+			return x - o.x;
 		}
-		else if(getY() != o.getY()) {
-			return getY() - o.getY();
+		else if(y != o.y) {
+			return y - o.y;
 		}
-		else if(getZ() != o.getZ()) {
-			return getZ() - o.getZ();
+		else if(z != o.z) {
+			return z - o.z;
 		}
 
 		return 0;
@@ -136,9 +285,9 @@ public final class Point3D extends Tuple3<Integer> implements Comparable<Point3D
 	 * @return the new point after moving by the specified vector.
 	 */
 	public Point3D moveBy(Vector3D v) {
-		return new Point3D(getX() + v.getX().intValue(),
-				getY() + v.getY().intValue(),
-				getZ() + v.getZ().intValue());
+		return of(x + (int) v.getDoubleX(),
+				y + (int) v.getDoubleY(),
+				z + (int) v.getDoubleZ());
 	}
 
 	/**
@@ -150,15 +299,60 @@ public final class Point3D extends Tuple3<Integer> implements Comparable<Point3D
 	 * @return whether the two points are within the specified distance.
 	 */
 	public boolean isWithin(int d, Point3D p) {
-		if(Math.abs(this.getX() - p.getX()) > d)
+		return isWithin(d, p.x, p.y, p.z);
+	}
+
+	/**
+	 * Test to see if the specified coordinates are within a certain distance
+	 * of this point. <strong>This method tests distance along each axis, not
+	 * straight line distance!</strong>
+	 * @param d the distance within which the two points must be.
+	 * @param px the X coordinate of the other point.
+	 * @param py the Y coordinate of the other point.
+	 * @param pz the Z coordinate of the other point.
+	 * @return whether the two points are within the specified distance.
+	 * @see #isWithin(int, Point3D)
+	 */
+	public boolean isWithin(int d, int px, int py, int pz) {
+		if(Math.abs(x - px) > d)
 			return false;
 
-		if(Math.abs(this.getY() - p.getY()) > d)
+		if(Math.abs(y - py) > d)
 			return false;
 
-		if(Math.abs(this.getZ() - p.getZ()) > d)
+		if(Math.abs(z - pz) > d)
 			return false;
 
 		return true;
 	}
+
+	@Override
+	public int hashCode() {
+		return hashCode(x, y, z);
+	}
+
+	/**
+	 * Get the hash code that a point at the specified coordinates would
+	 * have, without creating it.
+	 * @param x the X coordinate.
+	 * @param y the Y coordinate.
+	 * @param z the Z coordinate.
+	 * @return the hash code.
+	 */
+	static int hashCode(int x, int y, int z) {
+		return finishHash(hash(hash(hash(HASH_SEED, x), y), z));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj instanceof Point3D) {
+			Point3D other = (Point3D) obj;
+			return x == other.x && y == other.y && z == other.z;
+		}
+
+		return super.equals(obj);
+	}
 }
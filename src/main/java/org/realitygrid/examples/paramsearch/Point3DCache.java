@@ -0,0 +1,179 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * This class is a bounded cache of {@link Point3D} instances, used by
+ * {@link Point3D#of(int, int, int)} so that frequently requested coordinates
+ * share a single instance. Sharing instances saves allocating new points and
+ * lets {@link Point3D#equals(Object)} succeed on identity.
+ * <p/>The cache is a direct-mapped table: each point can only live in the
+ * slot chosen by its hash code, and a newly created point simply replaces
+ * whatever was in its slot. Lookups and replacements are single atomic reads
+ * and writes so the cache can be shared between threads without locking.
+ * Hit and miss counts are kept in a number of separate stripes so that
+ * threads using different slots do not contend on one counter.
+ * @author Robert Haines
+ * @see Point3D#setCache(Point3DCache)
+ */
+public final class Point3DCache {
+
+	private static final int STRIPES = 16;
+
+	// spacing between counters to keep each stripe on its own cache line
+	private static final int PAD = 8;
+
+	private final AtomicReferenceArray<Point3D> table;
+	private final int mask;
+	private final AtomicLongArray hits;
+	private final AtomicLongArray misses;
+
+	/**
+	 * Create a cache that can hold at least the specified number of points.
+	 * The capacity is rounded up to a power of two.
+	 * @param capacity the minimum number of points to hold.
+	 */
+	public Point3DCache(int capacity) {
+		if(capacity < 1 || capacity > (1 << 30))
+			throw new IllegalArgumentException("Illegal capacity: " + capacity);
+
+		int size = Integer.highestOneBit(capacity);
+		if(size < capacity)
+			size <<= 1;
+
+		table = new AtomicReferenceArray<Point3D>(size);
+		mask = size - 1;
+		hits = new AtomicLongArray(STRIPES * PAD);
+		misses = new AtomicLongArray(STRIPES * PAD);
+	}
+
+	/**
+	 * Get a point at the specified coordinates, either from the cache or by
+	 * creating it and adding it to the cache.
+	 * @param x the X coordinate.
+	 * @param y the Y coordinate.
+	 * @param z the Z coordinate.
+	 * @return a point at the specified coordinates.
+	 */
+	public Point3D get(int x, int y, int z) {
+		int slot = Point3D.hashCode(x, y, z) & mask;
+		int stripe = (slot & (STRIPES - 1)) * PAD;
+
+		Point3D p = table.get(slot);
+		if(p != null && p.getIntX() == x && p.getIntY() == y && p.getIntZ() == z) {
+			hits.incrementAndGet(stripe);
+			return p;
+		}
+
+		misses.incrementAndGet(stripe);
+		p = new Point3D(x, y, z);
+		table.lazySet(slot, p);
+
+		return p;
+	}
+
+	/**
+	 * Get the number of points this cache can hold.
+	 * @return the capacity of this cache.
+	 */
+	public int getCapacity() {
+		return table.length();
+	}
+
+	/**
+	 * Get the number of requests that were answered from the cache.
+	 * @return the number of cache hits.
+	 */
+	public long getHits() {
+		return sum(hits);
+	}
+
+	/**
+	 * Get the number of requests that needed a new point to be created.
+	 * @return the number of cache misses.
+	 */
+	public long getMisses() {
+		return sum(misses);
+	}
+
+	/**
+	 * Get the fraction of requests that were answered from the cache.
+	 * @return the hit rate, between zero and one.
+	 */
+	public double getHitRate() {
+		long h = getHits();
+		long total = h + getMisses();
+
+		return (total == 0) ? 0.0 : (double) h / total;
+	}
+
+	/**
+	 * Reset the hit and miss counts to zero. The cached points are kept.
+	 */
+	public void resetStatistics() {
+		for(int i = 0; i < STRIPES; i++) {
+			hits.set(i * PAD, 0);
+			misses.set(i * PAD, 0);
+		}
+	}
+
+	private static long sum(AtomicLongArray counts) {
+		long result = 0;
+		for(int i = 0; i < STRIPES; i++)
+			result += counts.get(i * PAD);
+
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return "Point3DCache [capacity=" + getCapacity() + ", hits=" + getHits()
+		+ ", misses=" + getMisses() + ", hit rate=" + String.format("%.1f%%", getHitRate() * 100.0) + "]";
+	}
+}
@@ -0,0 +1,334 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class holds a batch of points in integer 3D space. Rather than holding
+ * a list of {@link Point3D} objects the coordinates are stored in three
+ * parallel {@code int} arrays, one per axis, so that code processing many
+ * points at once can do so with simple loops and without creating an object
+ * per point.
+ * <p/>The backing arrays are available through {@link #getXArray()},
+ * {@link #getYArray()} and {@link #getZArray()}. The points of this batch
+ * occupy the elements from {@link #getOffset()} (inclusive) to
+ * {@code getOffset() + size()} (exclusive) of those arrays.
+ * <p/>A sub-range of a batch can be viewed as a batch in its own right by
+ * using {@link #subBatch(int, int)}. Views share the backing arrays of the
+ * batch they were created from and cannot be appended to or cleared. As with
+ * {@link java.util.List#subList(int, int)} a view should not be used once
+ * the batch it was created from has been appended to or cleared.
+ * @author Robert Haines
+ * @see Point3D
+ */
+public final class PointBatch implements Iterable<Point3D> {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private int[] xs;
+	private int[] ys;
+	private int[] zs;
+	private final int offset;
+	private int size;
+	private final boolean view;
+
+	/**
+	 * Create an empty batch with a default initial capacity.
+	 */
+	public PointBatch() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Create an empty batch with the specified initial capacity.
+	 * @param capacity the number of points the batch can hold before it needs
+	 * to grow.
+	 */
+	public PointBatch(int capacity) {
+		if(capacity < 0)
+			throw new IllegalArgumentException("Illegal capacity: " + capacity);
+
+		xs = new int[capacity];
+		ys = new int[capacity];
+		zs = new int[capacity];
+		offset = 0;
+		size = 0;
+		view = false;
+	}
+
+	private PointBatch(PointBatch parent, int from, int to) {
+		xs = parent.xs;
+		ys = parent.ys;
+		zs = parent.zs;
+		offset = parent.offset + from;
+		size = to - from;
+		view = true;
+	}
+
+	/**
+	 * Get the number of points in this batch.
+	 * @return the number of points in this batch.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Is this batch empty?
+	 * @return whether this batch has no points in it.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Add a point to the end of this batch.
+	 * @param x the X coordinate.
+	 * @param y the Y coordinate.
+	 * @param z the Z coordinate.
+	 * @throws UnsupportedOperationException if this batch is a view.
+	 */
+	public void append(int x, int y, int z) {
+		checkNotView();
+		if(size == xs.length)
+			grow(size + 1);
+
+		xs[size] = x;
+		ys[size] = y;
+		zs[size] = z;
+		size++;
+	}
+
+	/**
+	 * Add a point to the end of this batch.
+	 * @param p the point to add.
+	 * @throws UnsupportedOperationException if this batch is a view.
+	 */
+	public void append(Point3D p) {
+		append(p.getIntX(), p.getIntY(), p.getIntZ());
+	}
+
+	/**
+	 * Add all the points in another batch to the end of this one.
+	 * @param b the batch to add.
+	 * @throws UnsupportedOperationException if this batch is a view.
+	 */
+	public void append(PointBatch b) {
+		checkNotView();
+		if(size + b.size > xs.length)
+			grow(size + b.size);
+
+		System.arraycopy(b.xs, b.offset, xs, size, b.size);
+		System.arraycopy(b.ys, b.offset, ys, size, b.size);
+		System.arraycopy(b.zs, b.offset, zs, size, b.size);
+		size += b.size;
+	}
+
+	/**
+	 * Remove all the points from this batch. The storage is kept so that the
+	 * batch can be refilled without allocating.
+	 * @throws UnsupportedOperationException if this batch is a view.
+	 */
+	public void clear() {
+		checkNotView();
+		size = 0;
+	}
+
+	/**
+	 * Get the X coordinate of a point in this batch.
+	 * @param i the index of the point.
+	 * @return the X coordinate.
+	 */
+	public int getX(int i) {
+		return xs[index(i)];
+	}
+
+	/**
+	 * Get the Y coordinate of a point in this batch.
+	 * @param i the index of the point.
+	 * @return the Y coordinate.
+	 */
+	public int getY(int i) {
+		return ys[index(i)];
+	}
+
+	/**
+	 * Get the Z coordinate of a point in this batch.
+	 * @param i the index of the point.
+	 * @return the Z coordinate.
+	 */
+	public int getZ(int i) {
+		return zs[index(i)];
+	}
+
+	/**
+	 * Get a point in this batch as a {@link Point3D}. This creates a new
+	 * object, so loops over large batches should use {@link #getX(int)},
+	 * {@link #getY(int)} and {@link #getZ(int)} or the backing arrays
+	 * instead.
+	 * @param i the index of the point.
+	 * @return the point.
+	 */
+	public Point3D get(int i) {
+		int j = index(i);
+		return new Point3D(xs[j], ys[j], zs[j]);
+	}
+
+	/**
+	 * Get the array backing the X coordinates of this batch.
+	 * @return the X coordinate array.
+	 * @see #getOffset()
+	 */
+	public int[] getXArray() {
+		return xs;
+	}
+
+	/**
+	 * Get the array backing the Y coordinates of this batch.
+	 * @return the Y coordinate array.
+	 * @see #getOffset()
+	 */
+	public int[] getYArray() {
+		return ys;
+	}
+
+	/**
+	 * Get the array backing the Z coordinates of this batch.
+	 * @return the Z coordinate array.
+	 * @see #getOffset()
+	 */
+	public int[] getZArray() {
+		return zs;
+	}
+
+	/**
+	 * Get the index of the first point of this batch in the backing arrays.
+	 * This is always zero unless this batch is a view.
+	 * @return the offset of this batch in its backing arrays.
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+	/**
+	 * Get a view of part of this batch.
+	 * @param from the index of the first point in the view (inclusive).
+	 * @param to the index of the last point in the view (exclusive).
+	 * @return the view.
+	 * @see java.util.List#subList(int, int)
+	 */
+	public PointBatch subBatch(int from, int to) {
+		if(from < 0 || to > size || from > to)
+			throw new IndexOutOfBoundsException("Range: [" + from + ", " + to
+					+ "), Size: " + size);
+
+		return new PointBatch(this, from, to);
+	}
+
+	@Override
+	public Iterator<Point3D> iterator() {
+		return new Iterator<Point3D>() {
+			private int next = 0;
+
+			@Override
+			public boolean hasNext() {
+				return next < size;
+			}
+
+			@Override
+			public Point3D next() {
+				if(next >= size)
+					throw new NoSuchElementException();
+
+				return get(next++);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder("PointBatch [size=" + size + ", points=[");
+		for(int i = 0; i < size; i++) {
+			if(i > 0)
+				result.append(", ");
+			result.append("(" + getX(i) + ", " + getY(i) + ", " + getZ(i) + ")");
+		}
+
+		return result.append("]]").toString();
+	}
+
+	private int index(int i) {
+		if(i < 0 || i >= size)
+			throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+
+		return offset + i;
+	}
+
+	private void grow(int minCapacity) {
+		int capacity = Math.max(minCapacity, (xs.length * 3) / 2 + 1);
+		int[] newXs = new int[capacity];
+		int[] newYs = new int[capacity];
+		int[] newZs = new int[capacity];
+		System.arraycopy(xs, 0, newXs, 0, size);
+		System.arraycopy(ys, 0, newYs, 0, size);
+		System.arraycopy(zs, 0, newZs, 0, size);
+		xs = newXs;
+		ys = newYs;
+		zs = newZs;
+	}
+
+	private void checkNotView() {
+		if(view)
+			throw new UnsupportedOperationException("Cannot modify a view of a PointBatch.");
+	}
+}
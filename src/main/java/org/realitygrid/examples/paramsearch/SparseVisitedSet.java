@@ -0,0 +1,175 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link VisitedSet} held in compressed form, for domains too big for a
+ * bitmap. The points of the domain are numbered and split into chunks of
+ * 65536 by the high bits of their numbers. Only chunks with a visited point
+ * are held, each as either a sorted array of the low 16 bits of its points
+ * or, once that would be bigger than 8KB, as a bitmap of 65536 bits.
+ * <p/>Chunks are found through a concurrent map and each chunk is locked
+ * while it is changed, so threads visiting points in different chunks do
+ * not wait for each other.
+ * @author Robert Haines
+ * @see VisitedSet#sparse(int)
+ */
+final class SparseVisitedSet extends VisitedSet {
+
+	private static final int CHUNK_BITS = 16;
+	private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+	private final ConcurrentMap<Long, Chunk> chunks;
+
+	SparseVisitedSet(int size) {
+		super(size);
+		chunks = new ConcurrentHashMap<Long, Chunk>();
+	}
+
+	@Override
+	boolean visit(long index) {
+		Long key = Long.valueOf(index >>> CHUNK_BITS);
+		Chunk chunk = chunks.get(key);
+		if(chunk == null) {
+			Chunk c = new Chunk();
+			chunk = chunks.putIfAbsent(key, c);
+			if(chunk == null)
+				chunk = c;
+		}
+
+		return chunk.add((int) index & CHUNK_MASK);
+	}
+
+	@Override
+	boolean isVisited(long index) {
+		Chunk chunk = chunks.get(Long.valueOf(index >>> CHUNK_BITS));
+
+		return chunk != null && chunk.contains((int) index & CHUNK_MASK);
+	}
+
+	@Override
+	public long count() {
+		long result = 0;
+		for(Chunk c : chunks.values())
+			result += c.count();
+
+		return result;
+	}
+
+	@Override
+	public void clear() {
+		chunks.clear();
+	}
+
+	/*
+	 * The visited points in one chunk: a sorted array of their low bits
+	 * until there are more than ARRAY_LIMIT of them, then a bitmap.
+	 */
+	private static final class Chunk {
+		private static final int ARRAY_LIMIT = 4096;
+
+		private char[] array;
+		private long[] bitmap;
+		private int count;
+
+		Chunk() {
+			array = new char[4];
+			bitmap = null;
+			count = 0;
+		}
+
+		synchronized boolean add(int low) {
+			if(bitmap != null) {
+				long bit = 1L << low;
+				if((bitmap[low >>> 6] & bit) != 0)
+					return false;
+				bitmap[low >>> 6] |= bit;
+				count++;
+				return true;
+			}
+
+			int i = Arrays.binarySearch(array, 0, count, (char) low);
+			if(i >= 0)
+				return false;
+
+			if(count == ARRAY_LIMIT) {
+				toBitmap();
+				return add(low);
+			}
+
+			i = -(i + 1);
+			if(count == array.length)
+				array = Arrays.copyOf(array, Math.min(count * 2, ARRAY_LIMIT));
+			System.arraycopy(array, i, array, i + 1, count - i);
+			array[i] = (char) low;
+			count++;
+
+			return true;
+		}
+
+		synchronized boolean contains(int low) {
+			if(bitmap != null)
+				return (bitmap[low >>> 6] & (1L << low)) != 0;
+
+			return Arrays.binarySearch(array, 0, count, (char) low) >= 0;
+		}
+
+		synchronized int count() {
+			return count;
+		}
+
+		private void toBitmap() {
+			bitmap = new long[1 << (CHUNK_BITS - 6)];
+			for(int i = 0; i < count; i++)
+				bitmap[array[i] >>> 6] |= 1L << array[i];
+			array = null;
+		}
+	}
+}
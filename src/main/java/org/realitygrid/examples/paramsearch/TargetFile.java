@@ -0,0 +1,188 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * This class reads and writes target set files, which hold the targets of a
+ * {@link Domain} in a compact binary form. Such files let a domain be built
+ * from targets produced elsewhere, such as by a real simulation, rather than
+ * from the ones a domain generates for itself.
+ * <p/>A target set file is laid out as follows, with all values big-endian:
+ * <ul>
+ *   <li>the magic number {@code 0x50535447} ("PSTG");</li>
+ *   <li>the format version, currently 1;</li>
+ *   <li>the size (side length) of the domain;</li>
+ *   <li>the number of targets;</li>
+ *   <li>the length of the domain's name in bytes, followed by the name
+ *   itself in UTF-8 and enough zero bytes to align the next item to eight
+ *   bytes;</li>
+ *   <li>the targets as packed points (see {@link PackedPoints}), one
+ *   {@code long} each, in increasing order.</li>
+ * </ul>
+ * Files are read by mapping them into memory, so opening even a very large
+ * file is quick and targets are only read from disk when they are first
+ * looked at. A file cannot hold more than about 268 million targets.
+ * @author Robert Haines
+ * @see Domain#load(File)
+ * @see Domain#save(File)
+ */
+public final class TargetFile {
+
+	private static final int MAGIC = 0x50535447;
+	private static final int VERSION = 1;
+	private static final int HEADER_INTS = 5;
+	private static final String CHARSET = "UTF-8";
+
+	private final String name;
+	private final int size;
+	private final LongBuffer targets;
+
+	private TargetFile(String name, int size, LongBuffer targets) {
+		this.name = name;
+		this.size = size;
+		this.targets = targets;
+	}
+
+	/**
+	 * Write a target set file.
+	 * @param file the file to write.
+	 * @param name the name of the domain.
+	 * @param size the size (side length) of the domain.
+	 * @param targets the targets as packed points, in any order. The array is
+	 * not modified.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public static void write(File file, String name, int size, long[] targets) throws IOException {
+		long[] sorted = targets.clone();
+		Arrays.sort(sorted);
+		byte[] nameBytes = name.getBytes(CHARSET);
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(file)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(size);
+			out.writeInt(sorted.length);
+			out.writeInt(nameBytes.length);
+			out.write(nameBytes);
+			for(int i = 0; i < padding(nameBytes.length); i++)
+				out.writeByte(0);
+			for(long t : sorted)
+				out.writeLong(t);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Map a target set file into memory.
+	 * @param file the file to map.
+	 * @return the mapped file.
+	 * @throws IOException if the file cannot be read or is not a target set
+	 * file.
+	 */
+	static TargetFile map(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+			if(buffer.remaining() < HEADER_INTS * 4 || buffer.getInt() != MAGIC)
+				throw new IOException(file + " is not a target set file.");
+			int version = buffer.getInt();
+			if(version != VERSION)
+				throw new IOException(file + " has unsupported version " + version + ".");
+
+			int size = buffer.getInt();
+			int count = buffer.getInt();
+			int nameLength = buffer.getInt();
+			if(count < 0 || nameLength < 0 || nameLength > buffer.remaining())
+				throw new IOException(file + " has a corrupt header.");
+
+			byte[] nameBytes = new byte[nameLength];
+			buffer.get(nameBytes);
+			buffer.position(buffer.position() + padding(nameLength));
+			if((long) count * 8 != buffer.remaining())
+				throw new IOException(file + " should hold " + count + " targets but is "
+						+ channel.size() + " bytes long.");
+
+			return new TargetFile(new String(nameBytes, CHARSET), size,
+					buffer.slice().asLongBuffer());
+		} finally {
+			// the mapping stays valid after the file is closed
+			raf.close();
+		}
+	}
+
+	String getName() {
+		return name;
+	}
+
+	int getSize() {
+		return size;
+	}
+
+	LongBuffer getTargets() {
+		return targets;
+	}
+
+	// the header before the name is 20 bytes long
+	private static int padding(int nameLength) {
+		return (8 - ((HEADER_INTS * 4 + nameLength) % 8)) % 8;
+	}
+}
@@ -0,0 +1,210 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class generates the locations of the targets of a {@link Domain}
+ * from a seed, so that the same seed always gives the same targets.
+ * <p/>Each random number is a function of the seed and its position in the
+ * sequence alone (the "SplitMix" mixing function is applied to the seed
+ * plus a multiple of the position), rather than of the number before it.
+ * The sequence can therefore be split into ranges that are generated
+ * independently and in parallel, and the targets are the same however it is
+ * split. The targets are then sorted, in parallel, and any that are the same
+ * as another are replaced with targets from further along the sequence until
+ * all are distinct.
+ * <p/>Targets are spread evenly over the domain, except that they are kept
+ * far enough from its sides for the halo round each to be inside the domain,
+ * if the domain is big enough.
+ * @author Robert Haines
+ * @see Domain#Domain(String, int, int)
+ */
+final class TargetGenerator {
+
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	// generate ranges shorter than this without splitting them further
+	private static final int SPLIT_THRESHOLD = 1 << 14;
+
+	private final long seed;
+	private final int min;
+	private final int range;
+
+	/**
+	 * Create a generator of targets for a domain.
+	 * @param seed the seed.
+	 * @param size the size (side length) of the domain.
+	 * @param margin the distance to keep targets from the sides of the
+	 * domain, if it is big enough.
+	 */
+	TargetGenerator(long seed, int size, int margin) {
+		if(size < 1)
+			throw new IllegalArgumentException("Illegal domain size: " + size);
+
+		this.seed = seed;
+		if(size > 2 * margin) {
+			min = margin;
+			range = size - (2 * margin);
+		}
+		else {
+			min = 0;
+			range = size;
+		}
+	}
+
+	/**
+	 * Get the number of distinct places a target can be.
+	 * @return the number of places.
+	 */
+	long getPlaces() {
+		return (long) range * range * range;
+	}
+
+	/**
+	 * Generate the specified number of distinct targets.
+	 * @param n the number of targets.
+	 * @return the targets, in order, as packed points.
+	 * @throws IllegalArgumentException if there are not enough places for
+	 * that many distinct targets.
+	 * @see PackedPoints
+	 */
+	long[] generate(int n) {
+		if(n < 0 || n > getPlaces())
+			throw new IllegalArgumentException("Cannot place " + n + " distinct targets in "
+					+ getPlaces() + " places.");
+
+		long[] result = new long[n];
+		ForkJoinPool.commonPool().invoke(new Fill(result, 0, n, 0));
+		Arrays.parallelSort(result);
+
+		// replace duplicates until there are none
+		long next = n;
+		int distinct;
+		while((distinct = removeDuplicates(result)) < n) {
+			for(int i = distinct; i < n; i++)
+				result[i] = target(next++);
+			Arrays.parallelSort(result);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Generate the target at a position in the sequence.
+	 * @param index the position.
+	 * @return the target, as a packed point.
+	 */
+	long target(long index) {
+		long base = 3 * index;
+
+		return PackedPoints.encode(coordinate(base), coordinate(base + 1), coordinate(base + 2));
+	}
+
+	private int coordinate(long index) {
+		// the top 32 bits scaled to the range
+		long bits = mix(seed + (index + 1) * GOLDEN_GAMMA) >>> 32;
+
+		return min + (int) ((bits * range) >>> 32);
+	}
+
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+
+		return z ^ (z >>> 31);
+	}
+
+	// move the distinct values of a sorted array to its start, in order,
+	// returning how many there are
+	private static int removeDuplicates(long[] a) {
+		if(a.length == 0)
+			return 0;
+
+		int j = 1;
+		for(int i = 1; i < a.length; i++)
+			if(a[i] != a[j - 1])
+				a[j++] = a[i];
+
+		return j;
+	}
+
+	/*
+	 * Fill a range of an array with the targets from a range of the
+	 * sequence, splitting it in two while it is long enough.
+	 */
+	private final class Fill extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final long[] result;
+		private final int from;
+		private final int to;
+		private final long first;
+
+		Fill(long[] result, int from, int to, long first) {
+			this.result = result;
+			this.from = from;
+			this.to = to;
+			this.first = first;
+		}
+
+		@Override
+		protected void compute() {
+			if(to - from <= SPLIT_THRESHOLD) {
+				for(int i = from; i < to; i++)
+					result[i] = target(first + (i - from));
+				return;
+			}
+
+			int mid = (from + to) >>> 1;
+			invokeAll(new Fill(result, from, mid, first),
+					new Fill(result, mid, to, first + (mid - from)));
+		}
+	}
+}
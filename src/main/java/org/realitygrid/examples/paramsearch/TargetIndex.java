@@ -0,0 +1,461 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import java.nio.LongBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class holds the targets of a {@link Domain} and answers the
+ * questions the domain needs to ask of them quickly, however many targets
+ * there are.
+ * <p/>The targets are held in order (see {@link Point3D#compareTo(Point3D)})
+ * as packed points (see {@link PackedPoints}) in a {@link LongBuffer} and are
+ * referred to by their position in that order. The buffer may wrap an array
+ * or be mapped from a file (see {@link TargetFile}), in which case targets
+ * are only read from disk as they are needed. The first target that has not
+ * been found is tracked with a cursor, and a k-d tree over the targets,
+ * which keeps a count of the targets not yet found below each of its nodes,
+ * finds a target near a point without looking at those that are far away or
+ * already found. The k-d tree is only built the first time it is needed.
+ * <p/>The k-d tree is implicit: it is a permutation of the target numbers in
+ * which the root of each sub-tree is the middle element of its range, with
+ * the elements before and after it forming its two sub-trees.
+ * <p/>An index may be used by many threads at once without locking. Each
+ * target has a found flag, held two bits to a target in an
+ * {@link AtomicLongArray}, which is set with a compare-and-set so that
+ * exactly one caller of {@link #markFound(int)} finds each target. The
+ * cursor only moves forward, past targets whose flags are already set, and
+ * the k-d tree is built once, by whichever thread needs it first, and then
+ * published to the others. The second bit of each target records whether
+ * it has been counted out of the k-d tree, so that a target found while the
+ * tree is being built is counted out exactly once, either by the thread
+ * that found it or by the thread that built the tree. Only
+ * {@link #reset()} must not be called while the index is in use.
+ * @author Robert Haines
+ * @see Domain
+ */
+final class TargetIndex {
+
+	// two bits per target: found, then counted out of the k-d tree
+	private static final int FOUND = 1;
+	private static final int COUNTED = 2;
+
+	private final LongBuffer targets;
+	private final int size;
+	private final AtomicLongArray flags;
+	private final AtomicInteger cursor;
+	private final AtomicInteger numFound;
+
+	private volatile KdTree tree;
+
+	/**
+	 * Create an index over the packed targets in a buffer, from its start to
+	 * its limit. The targets must already be in order.
+	 * @param targets the packed targets.
+	 */
+	TargetIndex(LongBuffer targets) {
+		this.targets = targets.slice();
+		size = this.targets.limit();
+		flags = new AtomicLongArray((size + 31) >>> 5);
+		cursor = new AtomicInteger(0);
+		numFound = new AtomicInteger(0);
+		tree = null;
+	}
+
+	/**
+	 * Create an index over targets held as packed points, which must already
+	 * be in order. The array is used directly, not copied.
+	 * @param packed the packed targets.
+	 * @see PackedPoints
+	 */
+	static TargetIndex fromPacked(long[] packed) {
+		return new TargetIndex(LongBuffer.wrap(packed));
+	}
+
+	int size() {
+		return size;
+	}
+
+	long getPacked(int t) {
+		return targets.get(t);
+	}
+
+	int getX(int t) {
+		return PackedPoints.getX(targets.get(t));
+	}
+
+	int getY(int t) {
+		return PackedPoints.getY(targets.get(t));
+	}
+
+	int getZ(int t) {
+		return PackedPoints.getZ(targets.get(t));
+	}
+
+	Point3D getLocation(int t) {
+		return PackedPoints.decode(targets.get(t));
+	}
+
+	boolean isFound(int t) {
+		return (flags(t) & FOUND) != 0;
+	}
+
+	private int flags(int t) {
+		return (int) (flags.get(t >>> 5) >>> ((t & 31) << 1)) & 3;
+	}
+
+	// atomically set a flag, returning false if it was already set
+	private boolean setFlag(int t, int flag) {
+		int word = t >>> 5;
+		long bit = (long) flag << ((t & 31) << 1);
+		while(true) {
+			long old = flags.get(word);
+			if((old & bit) != 0)
+				return false;
+			if(flags.compareAndSet(word, old, old | bit))
+				return true;
+		}
+	}
+
+	/**
+	 * Get the number of targets that have been found.
+	 * @return the number of targets found.
+	 */
+	int getNumFound() {
+		return numFound.get();
+	}
+
+	/**
+	 * Get the first target, in order, that has not been found.
+	 * @return the target number, or -1 if all targets have been found.
+	 */
+	int current() {
+		int start = cursor.get();
+		int c = start;
+		while(c < size && isFound(c))
+			c++;
+
+		// only ever move the cursor forwards; if another thread has already
+		// moved it then it has moved at least as far as this one would have
+		if(c != start)
+			cursor.compareAndSet(start, c);
+
+		return (c < size) ? c : -1;
+	}
+
+	/**
+	 * Mark a target as found. If more than one thread marks the same target
+	 * at the same time only one of them succeeds.
+	 * @param t the target number.
+	 * @return true if this call found the target, false if it had already
+	 * been found.
+	 */
+	boolean markFound(int t) {
+		if(!setFlag(t, FOUND))
+			return false;
+
+		numFound.incrementAndGet();
+		KdTree kd = tree;
+		if(kd != null)
+			countOut(kd, t);
+
+		return true;
+	}
+
+	// count a found target out of each sub-tree it is in, if no other
+	// thread has done so already
+	private void countOut(KdTree kd, int t) {
+		if(!setFlag(t, COUNTED))
+			return;
+
+		// walk down to the target's node
+		int p = kd.position[t];
+		int lo = 0;
+		int hi = size;
+		while(true) {
+			int mid = (lo + hi) >>> 1;
+			kd.remaining.decrementAndGet(mid);
+			if(p == mid)
+				break;
+			else if(p < mid)
+				hi = mid;
+			else
+				lo = mid + 1;
+		}
+	}
+
+	/**
+	 * Mark all targets as not found. Unlike the other methods of this class
+	 * this must not be called while other threads are using the index.
+	 */
+	void reset() {
+		for(int i = 0; i < flags.length(); i++)
+			flags.set(i, 0);
+		cursor.set(0);
+		numFound.set(0);
+		KdTree kd = tree;
+		if(kd != null)
+			kd.count(0, size);
+	}
+
+	/**
+	 * Find a target that has not been found within a certain distance of a
+	 * point. Distance is measured along each axis, as in
+	 * {@link Point3D#isWithin(int, int, int, int)}.
+	 * @param d the distance.
+	 * @param x the X coordinate of the point.
+	 * @param y the Y coordinate of the point.
+	 * @param z the Z coordinate of the point.
+	 * @return the target number, or -1 if there is no such target.
+	 */
+	int findWithin(int d, int x, int y, int z) {
+		KdTree kd = tree;
+		if(kd == null)
+			kd = buildTree();
+
+		return findWithin(kd, 0, size, 0, d, x, y, z);
+	}
+
+	private int findWithin(KdTree kd, int lo, int hi, int axis, int d, int x, int y, int z) {
+		while(lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if(kd.remaining.get(mid) <= 0)
+				return -1;
+
+			int t = kd.tree[mid];
+			long p = targets.get(t);
+			if(!isFound(t) && Math.abs(PackedPoints.getX(p) - x) <= d
+					&& Math.abs(PackedPoints.getY(p) - y) <= d
+					&& Math.abs(PackedPoints.getZ(p) - z) <= d)
+				return t;
+
+			int q = coordinate(axis, x, y, z);
+			int c = coordinate(axis, p);
+			int next = (axis + 1) % 3;
+			boolean left = (q - d <= c);
+			boolean right = (q + d >= c);
+
+			if(left && right) {
+				int result = findWithin(kd, lo, mid, next, d, x, y, z);
+				if(result >= 0)
+					return result;
+				lo = mid + 1;
+			}
+			else if(left)
+				hi = mid;
+			else
+				lo = mid + 1;
+			axis = next;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Find the target that has not been found nearest to a point, in a
+	 * straight line. If several are equally near any one of them may be
+	 * returned.
+	 * @param x the X coordinate of the point.
+	 * @param y the Y coordinate of the point.
+	 * @param z the Z coordinate of the point.
+	 * @return the target number, or -1 if all targets have been found.
+	 */
+	int nearest(int x, int y, int z) {
+		KdTree kd = tree;
+		if(kd == null)
+			kd = buildTree();
+
+		// the squared distance to the nearest target so far, and its number
+		long[] best = { Long.MAX_VALUE, -1 };
+		nearest(kd, 0, size, 0, x, y, z, best);
+
+		return (int) best[1];
+	}
+
+	private void nearest(KdTree kd, int lo, int hi, int axis, int x, int y, int z, long[] best) {
+		while(lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if(kd.remaining.get(mid) <= 0)
+				return;
+
+			int t = kd.tree[mid];
+			long p = targets.get(t);
+			if(!isFound(t)) {
+				long dx = PackedPoints.getX(p) - x;
+				long dy = PackedPoints.getY(p) - y;
+				long dz = PackedPoints.getZ(p) - z;
+				long d = (dx * dx) + (dy * dy) + (dz * dz);
+				if(d < best[0]) {
+					best[0] = d;
+					best[1] = t;
+				}
+			}
+
+			// search the side of the split the point is on first, then the
+			// other side only if it could hold a nearer target
+			long split = coordinate(axis, x, y, z) - coordinate(axis, p);
+			int next = (axis + 1) % 3;
+			if(split < 0) {
+				nearest(kd, lo, mid, next, x, y, z, best);
+				lo = mid + 1;
+			}
+			else {
+				nearest(kd, mid + 1, hi, next, x, y, z, best);
+				hi = mid;
+			}
+			if(split * split >= best[0])
+				return;
+			axis = next;
+		}
+	}
+
+	private static int coordinate(int axis, long p) {
+		return (axis == 0) ? PackedPoints.getX(p)
+				: (axis == 1) ? PackedPoints.getY(p) : PackedPoints.getZ(p);
+	}
+
+	private int coordinate(int axis, int t) {
+		return coordinate(axis, targets.get(t));
+	}
+
+	private static int coordinate(int axis, int x, int y, int z) {
+		return (axis == 0) ? x : (axis == 1) ? y : z;
+	}
+
+	private synchronized KdTree buildTree() {
+		if(tree != null)
+			return tree;
+
+		KdTree kd = new KdTree(size);
+		build(kd.tree, 0, size, 0);
+		for(int i = 0; i < size; i++)
+			kd.position[kd.tree[i]] = i;
+		kd.count(0, size);
+		tree = kd;
+
+		// count out the targets found so far; any found from now on are
+		// counted out by markFound
+		for(int t = 0; t < size; t++)
+			if(isFound(t))
+				countOut(kd, t);
+
+		return kd;
+	}
+
+	private void build(int[] tree, int lo, int hi, int axis) {
+		while(hi - lo > 1) {
+			int mid = (lo + hi) >>> 1;
+			select(tree, lo, hi, mid, axis);
+			int next = (axis + 1) % 3;
+			build(tree, lo, mid, next);
+			lo = mid + 1;
+			axis = next;
+		}
+	}
+
+	// partially sort tree[lo, hi) so that tree[k] holds the target that
+	// would be there if the range were sorted along the specified axis
+	private void select(int[] tree, int lo, int hi, int k, int axis) {
+		hi--;
+		while(hi > lo) {
+			int pivot = coordinate(axis, tree[(lo + hi) >>> 1]);
+			int i = lo;
+			int j = hi;
+			while(i <= j) {
+				while(coordinate(axis, tree[i]) < pivot)
+					i++;
+				while(coordinate(axis, tree[j]) > pivot)
+					j--;
+				if(i <= j) {
+					int tmp = tree[i];
+					tree[i] = tree[j];
+					tree[j] = tmp;
+					i++;
+					j--;
+				}
+			}
+			if(k <= j)
+				hi = j;
+			else if(k >= i)
+				lo = i;
+			else
+				return;
+		}
+	}
+
+	/*
+	 * The k-d tree, its inverse and the count of targets not yet counted
+	 * out of each sub-tree, held at the sub-tree's root.
+	 */
+	private static final class KdTree {
+		final int[] tree;
+		final int[] position;
+		final AtomicIntegerArray remaining;
+
+		KdTree(int size) {
+			tree = new int[size];
+			position = new int[size];
+			remaining = new AtomicIntegerArray(size);
+			for(int i = 0; i < size; i++)
+				tree[i] = i;
+		}
+
+		// set the count of each sub-tree to its number of targets
+		int count(int lo, int hi) {
+			if(lo >= hi)
+				return 0;
+
+			int mid = (lo + hi) >>> 1;
+			int c = count(lo, mid) + count(mid + 1, hi) + 1;
+			remaining.set(mid, c);
+
+			return c;
+		}
+	}
+}
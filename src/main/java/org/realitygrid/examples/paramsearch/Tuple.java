@@ -50,18 +50,37 @@ import java.util.ArrayList;
 /**
  * This class represents a tuple of arbitrary length. It is the base class of
  * the component-based classes in this package, {@link Point3D} and
- * {@link Vector3D}.
- * <p/>The component list is stored internally as an {@link ArrayList}.
+ * {@link Vector3D}, and of the primitive array backed {@link IntTuple} and
+ * {@link DoubleTuple}.
+ * <p/>The component list is stored internally as an {@link ArrayList}, unless
+ * a subclass chooses to store its components itself (see {@link #Tuple()}).
  * @author Robert Haines
  *
  * @param <T> the type (extends {@link Number}) of the elements in this Tuple.
  */
 public class Tuple<T extends Number> {
+	/**
+	 * The starting value for hash codes built with {@link #hash(int, int)}.
+	 */
+	static final int HASH_SEED = 1;
+
+	private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
 	/**
 	 * The list of components that make up this tuple.
 	 */
 	protected ArrayList<T> components;
 
+	/**
+	 * Create a tuple without an internal component list. This is for
+	 * subclasses that store their components in primitive fields of their own
+	 * to avoid boxing; such subclasses must override {@link #getLength()},
+	 * {@link #getComponent(int)} and {@link #getDoubleComponent(int)}.
+	 */
+	protected Tuple() {
+		this.components = null;
+	}
+
 	/**
 	 * Create a tuple using the supplied ArrayList as its component list.
 	 * @param components the ArrayList of components to use.
@@ -129,6 +148,24 @@ public class Tuple<T extends Number> {
 		return this.components.size();
 	}
 
+	/**
+	 * Get the component at the specified index.
+	 * @param i the index of the component.
+	 * @return the component.
+	 */
+	protected T getComponent(int i) {
+		return this.components.get(i);
+	}
+
+	/**
+	 * Get the component at the specified index as a double.
+	 * @param i the index of the component.
+	 * @return the component as a double.
+	 */
+	protected double getDoubleComponent(int i) {
+		return getComponent(i).doubleValue();
+	}
+
 	/**
 	 * Get the distance between this tuple and another. The other tuple can be
 	 * of a different type and of a different length. All components are cast
@@ -142,34 +179,87 @@ public class Tuple<T extends Number> {
 	 */
 	public <U extends Number> double distance(Tuple<U> t) {
 		double a = 0.0;
-		int num = Math.max(this.components.size(), t.getLength());
-		ArrayList<Double> d = new ArrayList<Double>(num);
+		int thisLength = getLength();
+		int otherLength = t.getLength();
+		int num = Math.max(thisLength, otherLength);
 		for (int i = 0; i < num; i++) {
-			if (this.components.size() <= i)
-				d.add(t.components.get(i).doubleValue());
-			else if (t.getLength() <= i)
-				d.add(this.components.get(i).doubleValue());
+			double s;
+			if (thisLength <= i)
+				s = t.getDoubleComponent(i);
+			else if (otherLength <= i)
+				s = getDoubleComponent(i);
 			else
-				d.add(t.components.get(i).doubleValue()
-						- this.components.get(i).doubleValue());
-		}
+				s = t.getDoubleComponent(i) - getDoubleComponent(i);
 
-		for (double s : d) {
 			a += (s * s);
 		}
 
 		return Math.sqrt(a);
 	}
 
+	/**
+	 * Get a hash code for this tuple. Because tuples of different component
+	 * types are equal if their components have the same values, the hash of
+	 * each component is taken from its value rather than its type, so the
+	 * {@link Integer} tuple {@code (1, 2, 3)} has the same hash code as the
+	 * {@link Double} tuple {@code (1.0, 2.0, 3.0)}. The component hashes are
+	 * combined in order and then mixed so that permutations of the same
+	 * components, and points close to each other in space, have very
+	 * different hash codes.
+	 * @return the hash code of this tuple.
+	 */
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		for (T c : components) {
-			result += prime * (c.intValue() + 1);
+		int result = HASH_SEED;
+		for (int i = 0; i < getLength(); i++) {
+			result = hash(result, hashComponent(getDoubleComponent(i)));
 		}
 
-		return result;
+		return finishHash(result);
+	}
+
+	/**
+	 * Add the hash of a component to a partially built hash code.
+	 * @param h the hash code so far.
+	 * @param c the hash of the next component.
+	 * @return the updated hash code.
+	 */
+	static int hash(int h, int c) {
+		return (h + c) * HASH_MULTIPLIER;
+	}
+
+	/**
+	 * Get the hash of a component. Components holding whole numbers hash to
+	 * that number, whatever their type, so this gives the same result as
+	 * passing the component straight to {@link #hash(int, int)} when it is an
+	 * int.
+	 * @param c the component.
+	 * @return the hash of the component.
+	 */
+	static int hashComponent(double c) {
+		int i = (int) c;
+		if (i == c) {
+			return i;
+		}
+
+		long bits = Double.doubleToLongBits(c);
+		return (int) (bits ^ (bits >>> 32));
+	}
+
+	/**
+	 * Mix the bits of a hash code built with {@link #hash(int, int)} so that
+	 * all of them depend on all of the components.
+	 * @param h the hash code.
+	 * @return the mixed hash code.
+	 */
+	static int finishHash(int h) {
+		h ^= h >>> 16;
+		h *= 0x85EBCA6B;
+		h ^= h >>> 13;
+		h *= 0xC2B2AE35;
+		h ^= h >>> 16;
+
+		return h;
 	}
 
 	@SuppressWarnings("unchecked")
@@ -185,17 +275,13 @@ public class Tuple<T extends Number> {
 			return false;
 		}
 		Tuple other = (Tuple) obj;
-		if (components == null) {
-			if (other.components != null) {
-				return false;
-			}
-		} else if (components.size() != other.components.size()) {
+		int length = getLength();
+		if (length != other.getLength()) {
 			return false;
 		}
 
-		for (int i = 0; i < components.size(); i++)
-			if (components.get(i).doubleValue() != ((Number) other.components
-					.get(i)).doubleValue())
+		for (int i = 0; i < length; i++)
+			if (getDoubleComponent(i) != other.getDoubleComponent(i))
 				return false;
 
 		return true;
@@ -58,7 +58,16 @@ public class Tuple3<T extends Number> extends Tuple<T> {
 	 * @param t the tuple to copy.
 	 */
 	public Tuple3(Tuple3<T> t) {
-		super(t.components);
+		super(t.getX(), t.getY(), t.getZ());
+	}
+
+	/**
+	 * Create a Tuple3 without an internal component list, for subclasses
+	 * that store their components in primitive fields.
+	 * @see Tuple#Tuple()
+	 */
+	protected Tuple3() {
+		super();
 	}
 
 	/**
@@ -84,7 +93,7 @@ public class Tuple3<T extends Number> extends Tuple<T> {
 	 * @return the first component.
 	 */
 	public T getX() {
-		return this.components.get(0);
+		return getComponent(0);
 	}
 
 	/**
@@ -92,7 +101,7 @@ public class Tuple3<T extends Number> extends Tuple<T> {
 	 * @return the second component.
 	 */
 	public T getY() {
-		return this.components.get(1);
+		return getComponent(1);
 	}
 
 	/**
@@ -100,7 +109,7 @@ public class Tuple3<T extends Number> extends Tuple<T> {
 	 * @return the third component.
 	 */
 	public T getZ() {
-		return this.components.get(2);
+		return getComponent(2);
 	}
 
 	/**
@@ -47,6 +47,11 @@ package org.realitygrid.examples.paramsearch;
 
 /**
  * This class represents a vector in 3D space.
+ * <p/>The components are held in primitive fields rather than in the
+ * component list of {@link Tuple} so that creating and examining vectors does
+ * not box. The primitive accessors {@link #getDoubleX()},
+ * {@link #getDoubleY()} and {@link #getDoubleZ()} should be preferred in
+ * performance sensitive code.
  * @author Robert Haines
  */
 public final class Vector3D extends Tuple3<Double> {
@@ -56,7 +61,22 @@ public final class Vector3D extends Tuple3<Double> {
 	 */
 	public static final Vector3D ZERO = new Vector3D(0.0);
 
-	private double magnitude;
+	private final double x;
+	private final double y;
+	private final double z;
+
+	/**
+	 * Create a vector with the specified X, Y and Z components.
+	 * @param x the X component.
+	 * @param y the Y component.
+	 * @param z the Z component.
+	 */
+	public Vector3D(double x, double y, double z) {
+		super();
+		this.x = x;
+		this.y = y;
+		this.z = z;
+	}
 
 	/**
 	 * Create a vector with the specified X, Y and Z components.
@@ -65,8 +85,7 @@ public final class Vector3D extends Tuple3<Double> {
 	 * @param z the Z component.
 	 */
 	public Vector3D(Double x, Double y, Double z) {
-		super(x, y, z);
-		calcMagnitude();
+		this(x.doubleValue(), y.doubleValue(), z.doubleValue());
 	}
 
 	/**
@@ -74,8 +93,15 @@ public final class Vector3D extends Tuple3<Double> {
 	 * @param t the {@link Tuple3} holding the components to use.
 	 */
 	public Vector3D(Tuple3<Double> t) {
-		super(t);
-		calcMagnitude();
+		this(t.getX(), t.getY(), t.getZ());
+	}
+
+	/**
+	 * Create a vector with all components equal.
+	 * @param c the single X, Y and Z component.
+	 */
+	public Vector3D(double c) {
+		this(c, c, c);
 	}
 
 	/**
@@ -83,8 +109,7 @@ public final class Vector3D extends Tuple3<Double> {
 	 * @param c the single X, Y and Z component.
 	 */
 	public Vector3D(Double c) {
-		super(c);
-		calcMagnitude();
+		this(c.doubleValue());
 	}
 
 	/**
@@ -94,20 +119,80 @@ public final class Vector3D extends Tuple3<Double> {
 	 * @param z the Z component.
 	 */
 	Vector3D(Integer x, Integer y, Integer z) {
-		super(x.doubleValue(), y.doubleValue(), z.doubleValue());
-		calcMagnitude();
+		this(x.doubleValue(), y.doubleValue(), z.doubleValue());
+	}
+
+	/**
+	 * Get the X component as a primitive double.
+	 * @return the X component.
+	 */
+	public double getDoubleX() {
+		return x;
+	}
+
+	/**
+	 * Get the Y component as a primitive double.
+	 * @return the Y component.
+	 */
+	public double getDoubleY() {
+		return y;
+	}
+
+	/**
+	 * Get the Z component as a primitive double.
+	 * @return the Z component.
+	 */
+	public double getDoubleZ() {
+		return z;
+	}
+
+	@Override
+	public Double getX() {
+		return x;
+	}
+
+	@Override
+	public Double getY() {
+		return y;
+	}
+
+	@Override
+	public Double getZ() {
+		return z;
 	}
 
-	private void calcMagnitude() {
-		magnitude = Math.sqrt((getX() * getX()) + (getY() * getY()) + (getZ() * getZ()));
+	@Override
+	public int getLength() {
+		return 3;
+	}
+
+	@Override
+	protected Double getComponent(int i) {
+		return getDoubleComponent(i);
+	}
+
+	@Override
+	protected double getDoubleComponent(int i) {
+		switch(i) {
+		case 0:
+			return x;
+		case 1:
+			return y;
+		case 2:
+			return z;
+		default:
+			throw new IndexOutOfBoundsException("Index: " + i + ", Size: 3");
+		}
 	}
 
 	/**
-	 * Get the magnitude of this vector.
+	 * Get the magnitude of this vector. This is calculated when it is asked
+	 * for rather than when the vector is created, as most vectors never need
+	 * it.
 	 * @return the magnitude of this vector.
 	 */
 	public double getMagnitude() {
-		return magnitude;
+		return Math.sqrt((x * x) + (y * y) + (z * z));
 	}
 
 	/**
@@ -117,7 +202,8 @@ public final class Vector3D extends Tuple3<Double> {
 	 * @return a new vector which is the normalized form of this one.
 	 */
 	public Vector3D normalize() {
-		return new Vector3D(getX() / magnitude, getY() / magnitude, getZ() / magnitude);
+		double magnitude = getMagnitude();
+		return new Vector3D(x / magnitude, y / magnitude, z / magnitude);
 	}
 
 	/**
@@ -126,10 +212,32 @@ public final class Vector3D extends Tuple3<Double> {
 	 * @return the squashed vector.
 	 */
 	public Vector3D unitComponents() {
-		double x = (getX() == 0.0) ? 0.0 : (getX() < 0.0) ? -1.0 : 1.0;
-		double y = (getY() == 0.0) ? 0.0 : (getY() < 0.0) ? -1.0 : 1.0;
-		double z = (getZ() == 0.0) ? 0.0 : (getZ() < 0.0) ? -1.0 : 1.0;
+		double ux = (x == 0.0) ? 0.0 : (x < 0.0) ? -1.0 : 1.0;
+		double uy = (y == 0.0) ? 0.0 : (y < 0.0) ? -1.0 : 1.0;
+		double uz = (z == 0.0) ? 0.0 : (z < 0.0) ? -1.0 : 1.0;
+
+		return new Vector3D(ux, uy, uz);
+	}
+
+	@Override
+	public int hashCode() {
+		int result = hash(HASH_SEED, hashComponent(x));
+		result = hash(result, hashComponent(y));
+		result = hash(result, hashComponent(z));
+
+		return finishHash(result);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj instanceof Vector3D) {
+			Vector3D other = (Vector3D) obj;
+			return x == other.x && y == other.y && z == other.z;
+		}
 
-		return new Vector3D(x, y, z);
+		return super.equals(obj);
 	}
 }
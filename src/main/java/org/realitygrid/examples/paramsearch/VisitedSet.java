@@ -0,0 +1,191 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+/**
+ * This class records which points of a {@link Domain} have been visited,
+ * so that a crawler can cheaply avoid testing a point more than once. Points
+ * are added with {@link #visit(int, int, int)}, which atomically tests
+ * whether a point has been visited and marks it as visited, so a set can be
+ * shared by crawlers running in parallel without two of them testing the
+ * same point.
+ * <p/>There are two representations, which {@link #create(int)} chooses
+ * between by the size of the domain:
+ * <ul>
+ *   <li>A dense bitmap, one bit per point, for small domains. A domain of
+ *   size 300 needs about 3.4MB.</li>
+ *   <li>A compressed set, in the style of a "roaring" bitmap, for domains
+ *   too big for a bitmap, which can only ever be visited sparsely. Points
+ *   are grouped into chunks of 65536 and each chunk that has been visited is
+ *   held as either a sorted array or, once it holds enough points, a
+ *   bitmap.</li>
+ * </ul>
+ * Points outside the domain are never recorded: visiting one always returns
+ * true.
+ * @author Robert Haines
+ * @see org.realitygrid.examples.paramsearch.crawlers.AbstractCrawler
+ */
+public abstract class VisitedSet {
+
+	/**
+	 * The largest number of points for which {@link #create(int)} chooses a
+	 * dense bitmap, which then needs 32MB.
+	 */
+	public static final long DENSE_LIMIT = 1L << 28;
+
+	/**
+	 * The largest domain size that can be recorded.
+	 */
+	public static final int MAX_SIZE = 1 << 20;
+
+	private final int size;
+
+	VisitedSet(int size) {
+		if(size < 1 || size > MAX_SIZE)
+			throw new IllegalArgumentException("Illegal domain size: " + size);
+
+		this.size = size;
+	}
+
+	/**
+	 * Create a set for a domain of the specified size, choosing the best
+	 * representation for it.
+	 * @param size the size (side length) of the domain.
+	 * @return the new set.
+	 */
+	public static VisitedSet create(int size) {
+		long points = (long) size * size * size;
+		return (size > 0 && points <= DENSE_LIMIT) ? dense(size) : sparse(size);
+	}
+
+	/**
+	 * Create a set for a domain of the specified size held as a dense bitmap.
+	 * @param size the size (side length) of the domain.
+	 * @return the new set.
+	 * @throws IllegalArgumentException if the domain has more points than a
+	 * bitmap can hold.
+	 */
+	public static VisitedSet dense(int size) {
+		return new DenseVisitedSet(size);
+	}
+
+	/**
+	 * Create a set for a domain of the specified size held in compressed
+	 * form.
+	 * @param size the size (side length) of the domain.
+	 * @return the new set.
+	 */
+	public static VisitedSet sparse(int size) {
+		return new SparseVisitedSet(size);
+	}
+
+	/**
+	 * Get the size of the domain this set is for.
+	 * @return the size (side length) of the domain.
+	 */
+	public final int getDomainSize() {
+		return size;
+	}
+
+	/**
+	 * Mark a point as visited.
+	 * @param x the X coordinate of the point.
+	 * @param y the Y coordinate of the point.
+	 * @param z the Z coordinate of the point.
+	 * @return true if the point had not already been visited, or is outside
+	 * the domain.
+	 */
+	public final boolean visit(int x, int y, int z) {
+		if(!isInside(x, y, z))
+			return true;
+
+		return visit(index(x, y, z));
+	}
+
+	/**
+	 * Test whether a point has been visited.
+	 * @param x the X coordinate of the point.
+	 * @param y the Y coordinate of the point.
+	 * @param z the Z coordinate of the point.
+	 * @return true if the point has been visited.
+	 */
+	public final boolean isVisited(int x, int y, int z) {
+		if(!isInside(x, y, z))
+			return false;
+
+		return isVisited(index(x, y, z));
+	}
+
+	/**
+	 * Get the number of points that have been visited.
+	 * @return the number of points visited.
+	 */
+	public abstract long count();
+
+	/**
+	 * Forget all visited points. If points are visited while the set is
+	 * being cleared some of them may be forgotten too.
+	 */
+	public abstract void clear();
+
+	abstract boolean visit(long index);
+
+	abstract boolean isVisited(long index);
+
+	private boolean isInside(int x, int y, int z) {
+		return x >= 0 && x < size && y >= 0 && y < size && z >= 0 && z < size;
+	}
+
+	// the position of a point in the domain with z varying fastest
+	private long index(int x, int y, int z) {
+		return ((long) x * size + y) * size + z;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [size=" + size + ", visited=" + count() + "]";
+	}
+}
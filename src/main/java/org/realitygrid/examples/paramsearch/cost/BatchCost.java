@@ -0,0 +1,99 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.cost;
+
+import org.realitygrid.examples.paramsearch.PointBatch;
+
+/**
+ * The BatchCost model emulates a simulation that takes some time to set up
+ * before it can test any points, but can then test as many points as it is
+ * given for a fixed time each. Testing a single point pays for the setup
+ * every time, whereas testing a batch of points pays for it only once.
+ * @author Robert Haines
+ * @see org.realitygrid.examples.paramsearch.Domain#evaluateBatch(PointBatch)
+ */
+public final class BatchCost extends DelayCost {
+
+	private final double setup;
+	private final double perPoint;
+	private final long setupNanos;
+	private final long perPointNanos;
+
+	/**
+	 * Create a BatchCost model.
+	 * @param setup the time to set up a test, in milliseconds.
+	 * @param perPoint the time to test each point once set up, in
+	 * milliseconds.
+	 */
+	public BatchCost(double setup, double perPoint) {
+		if(setup < 0.0 || perPoint < 0.0)
+			throw new IllegalArgumentException("Bad batch cost parameters: setup="
+					+ setup + ", perPoint=" + perPoint);
+
+		this.setup = setup;
+		this.perPoint = perPoint;
+		setupNanos = toNanos(setup);
+		perPointNanos = toNanos(perPoint);
+	}
+
+	@Override
+	protected long getDelay(int x, int y, int z) {
+		return setupNanos + perPointNanos;
+	}
+
+	@Override
+	protected long getBatchDelay(PointBatch batch) {
+		if(batch.isEmpty())
+			return 0;
+
+		return setupNanos + (perPointNanos * batch.size());
+	}
+
+	@Override
+	public String toString() {
+		return "BatchCost [setup=" + setup + ", perPoint=" + perPoint + "]";
+	}
+}
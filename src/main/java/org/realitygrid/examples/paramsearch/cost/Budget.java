@@ -0,0 +1,173 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.cost;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A budget counts the tests of one kind made on a
+ * {@link org.realitygrid.examples.paramsearch.Domain}, such as its full
+ * tests or its cheap probes, and may limit how many can be made. Once a
+ * limited budget is spent any further test is refused, before its cost is
+ * paid, with a {@link BudgetExhaustedException}. A budget may be shared by
+ * many threads. An unlimited budget only counts its tests, with a
+ * {@link LongAdder} so that threads testing at once do not contend for it;
+ * a limited one must check its limit and count atomically, so it does.
+ * @author Robert Haines
+ * @see org.realitygrid.examples.paramsearch.Domain#getTestBudget()
+ * @see org.realitygrid.examples.paramsearch.Domain#getProbeBudget()
+ */
+public final class Budget {
+
+	/**
+	 * The limit of a budget that can never be spent.
+	 */
+	public static final long UNLIMITED = Long.MAX_VALUE;
+
+	private final String name;
+	private final long limit;
+
+	// exactly one of these counts the tests, depending on the limit
+	private final AtomicLong spent;
+	private final LongAdder counted;
+
+	/**
+	 * Create a named budget with no limit.
+	 * @param name the name of the budget, such as the kind of test it
+	 * counts.
+	 */
+	public Budget(String name) {
+		this(name, UNLIMITED);
+	}
+
+	/**
+	 * Create a named budget that allows a limited number of tests.
+	 * @param name the name of the budget, such as the kind of test it
+	 * counts.
+	 * @param limit the most tests that may be made.
+	 */
+	public Budget(String name, long limit) {
+		if(limit < 0)
+			throw new IllegalArgumentException("Budget limit must not be negative: " + limit);
+
+		this.name = name;
+		this.limit = limit;
+		spent = (limit == UNLIMITED) ? null : new AtomicLong();
+		counted = (limit == UNLIMITED) ? new LongAdder() : null;
+	}
+
+	/**
+	 * Spend some of this budget on tests that are about to be made.
+	 * @param tests the number of tests.
+	 * @throws BudgetExhaustedException if the tests would take this budget
+	 * over its limit, in which case none of it is spent.
+	 */
+	public void spend(int tests) {
+		if(counted != null) {
+			counted.add(tests);
+			return;
+		}
+
+		while(true) {
+			long s = spent.get();
+			if(s + tests > limit)
+				throw new BudgetExhaustedException(name + " budget of " + limit
+						+ " spent, " + tests + " more refused.");
+
+			if(spent.compareAndSet(s, s + tests))
+				return;
+		}
+	}
+
+	/**
+	 * Get the name of this budget.
+	 * @return the name of this budget.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Get the most tests that may be made.
+	 * @return the limit of this budget, or {@link #UNLIMITED}.
+	 */
+	public long getLimit() {
+		return limit;
+	}
+
+	/**
+	 * Get the number of tests made so far.
+	 * @return the number of tests made.
+	 */
+	public long getSpent() {
+		return (counted != null) ? counted.sum() : spent.get();
+	}
+
+	/**
+	 * Get the number of tests that may still be made.
+	 * @return the number of tests left, or {@link #UNLIMITED}.
+	 */
+	public long getRemaining() {
+		return (counted != null) ? UNLIMITED : limit - spent.get();
+	}
+
+	/**
+	 * Forget all the tests made so far.
+	 */
+	public void reset() {
+		if(counted != null)
+			counted.reset();
+		else
+			spent.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return "Budget [name=" + name + ", spent=" + getSpent()
+		+ ((limit == UNLIMITED) ? "" : ", limit=" + limit) + "]";
+	}
+}
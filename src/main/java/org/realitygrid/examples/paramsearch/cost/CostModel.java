@@ -0,0 +1,88 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.cost;
+
+import org.realitygrid.examples.paramsearch.PointBatch;
+
+/**
+ * A cost model decides how long testing a point in a
+ * {@link org.realitygrid.examples.paramsearch.Domain} takes. Testing a point
+ * in a real parameter search means running a simulation; a cost model
+ * emulates that by making the test take some time.
+ * @author Robert Haines
+ * @see org.realitygrid.examples.paramsearch.Domain#setCostModel(CostModel)
+ */
+public interface CostModel {
+
+	/**
+	 * Pay the cost of testing a point. This is called every time a point is
+	 * tested and should not return until the test is meant to have finished.
+	 * If the calling thread is interrupted this should return early with the
+	 * thread's interrupted status set.
+	 * @param x the X coordinate of the point being tested.
+	 * @param y the Y coordinate of the point being tested.
+	 * @param z the Z coordinate of the point being tested.
+	 */
+	void charge(int x, int y, int z);
+
+	/**
+	 * Pay the cost of testing a batch of points at once. This is called
+	 * instead of {@link #charge(int, int, int)} when points are tested as a
+	 * batch, and like it should not return until the tests are meant to have
+	 * finished. Models that emulate simulations that can share work between
+	 * the points of a batch should override this to charge less than the
+	 * points would cost one at a time, which is what it charges by default.
+	 * @param batch the points being tested.
+	 * @see org.realitygrid.examples.paramsearch.Domain#evaluateBatch(PointBatch)
+	 */
+	default void chargeBatch(PointBatch batch) {
+		for(int i = 0; i < batch.size(); i++) {
+			if(Thread.currentThread().isInterrupted())
+				return;
+			charge(batch.getX(i), batch.getY(i), batch.getZ(i));
+		}
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.cost;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * This class creates cost models from short text descriptions, such as
+ * those given on a command line. A description is the name of a model
+ * followed by its parameters, separated by colons:
+ * <ul>
+ *   <li>{@code zero}</li>
+ *   <li>{@code fixed:<ms>}</li>
+ *   <li>{@code spin:<ms>}</li>
+ *   <li>{@code lognormal:<median ms>:<sigma>}</li>
+ *   <li>{@code pareto:<minimum ms>:<alpha>}</li>
+ *   <li>{@code location:<minimum ms>:<maximum ms>}</li>
+ *   <li>{@code batch:<setup ms>:<per point ms>}</li>
+ *   <li>{@code process:<workers>:<timeout ms>:<command>}, where the command
+ *   may contain colons and its arguments are separated by spaces.</li>
+ * </ul>
+ * @author Robert Haines
+ */
+public final class CostModels {
+
+	private CostModels() {
+	}
+
+	/**
+	 * Create a cost model from its description.
+	 * @param spec the description of the model.
+	 * @param size the size (side length) of the domain the model is for,
+	 * which some models need.
+	 * @return the cost model.
+	 * @throws IllegalArgumentException if the description is not understood.
+	 * @throws IOException if the model needs to start processes and cannot.
+	 */
+	public static CostModel parse(String spec, int size) throws IOException {
+		if(spec.startsWith("process:")) {
+			// the command may itself contain colons
+			String[] parts = spec.split(":", 4);
+			if(parts.length == 4)
+				return new ProcessCost(Arrays.asList(parts[3].trim().split("\\s+")),
+						Integer.parseInt(parts[1]), Long.parseLong(parts[2]));
+		}
+
+		String[] parts = spec.split(":");
+		String model = parts[0];
+
+		if(model.equals("zero") && parts.length == 1)
+			return new ZeroCost();
+		else if(model.equals("fixed") && parts.length == 2)
+			return new FixedCost(Double.parseDouble(parts[1]));
+		else if(model.equals("spin") && parts.length == 2)
+			return new SpinCost(Double.parseDouble(parts[1]));
+		else if(model.equals("lognormal") && parts.length == 3)
+			return new LogNormalCost(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+		else if(model.equals("pareto") && parts.length == 3)
+			return new ParetoCost(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+		else if(model.equals("location") && parts.length == 3)
+			return new LocationCost(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]), size);
+		else if(model.equals("batch") && parts.length == 3)
+			return new BatchCost(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+
+		throw new IllegalArgumentException("Unknown cost model: " + spec);
+	}
+}
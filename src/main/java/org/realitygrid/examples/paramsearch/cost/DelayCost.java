@@ -0,0 +1,127 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.cost;
+
+import java.util.concurrent.locks.LockSupport;
+
+import org.realitygrid.examples.paramsearch.PointBatch;
+
+/**
+ * This is the base-class of cost models that make each test take a certain
+ * amount of time. Sub-classes decide how long each test should take and by
+ * default the time is spent sleeping. A batch of tests is paid for with a
+ * single pause, as long as the tests would take one at a time unless a
+ * sub-class says otherwise.
+ * @author Robert Haines
+ */
+public abstract class DelayCost implements CostModel {
+
+	private static final long NANOS_PER_MILLI = 1000000L;
+
+	@Override
+	public void charge(int x, int y, int z) {
+		long nanos = getDelay(x, y, z);
+		if(nanos > 0)
+			pause(nanos);
+	}
+
+	@Override
+	public void chargeBatch(PointBatch batch) {
+		long nanos = getBatchDelay(batch);
+		if(nanos > 0)
+			pause(nanos);
+	}
+
+	/**
+	 * Get how long a test of the specified point should take.
+	 * @param x the X coordinate of the point being tested.
+	 * @param y the Y coordinate of the point being tested.
+	 * @param z the Z coordinate of the point being tested.
+	 * @return the time the test should take, in nanoseconds.
+	 */
+	protected abstract long getDelay(int x, int y, int z);
+
+	/**
+	 * Get how long a test of a batch of points should take. By default this
+	 * is the sum of the time each test would take.
+	 * @param batch the points being tested.
+	 * @return the time the tests should take, in nanoseconds.
+	 */
+	protected long getBatchDelay(PointBatch batch) {
+		long result = 0;
+		for(int i = 0; i < batch.size(); i++)
+			result += getDelay(batch.getX(i), batch.getY(i), batch.getZ(i));
+
+		return result;
+	}
+
+	/**
+	 * Spend the specified amount of time. By default this parks the thread
+	 * until the time is up, parking again if it is woken early. Unlike
+	 * {@link Thread#sleep(long, int)}, which rounds up to whole
+	 * milliseconds, this keeps delays of well under a millisecond close to
+	 * what they should be. If the thread is interrupted this returns at once
+	 * with its interrupted status still set.
+	 * @param nanos the time to spend, in nanoseconds.
+	 */
+	protected void pause(long nanos) {
+		long deadline = System.nanoTime() + nanos;
+		for(long left = nanos; left > 0; left = deadline - System.nanoTime()) {
+			LockSupport.parkNanos(left);
+			if(Thread.currentThread().isInterrupted())
+				return;
+		}
+	}
+
+	/**
+	 * Convert a time in milliseconds to nanoseconds.
+	 * @param millis the time in milliseconds.
+	 * @return the time in nanoseconds.
+	 */
+	protected static long toNanos(double millis) {
+		return (long) (millis * NANOS_PER_MILLI);
+	}
+}
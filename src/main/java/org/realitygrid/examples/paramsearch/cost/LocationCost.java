@@ -0,0 +1,95 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.cost;
+
+/**
+ * The LocationCost model makes the time a test takes depend on where the
+ * point is. Tests at the origin take the minimum time and the time rises
+ * linearly to the maximum at the far corner of the domain, in the way that a
+ * simulation might take longer as its parameters ask for more resolution or
+ * more particles.
+ * @author Robert Haines
+ */
+public final class LocationCost extends DelayCost {
+
+	private final double minimum;
+	private final double maximum;
+	private final int size;
+
+	/**
+	 * Create a LocationCost model.
+	 * @param minimum the test time at the origin, in milliseconds.
+	 * @param maximum the test time at the far corner, in milliseconds.
+	 * @param size the size (side length) of the domain.
+	 */
+	public LocationCost(double minimum, double maximum, int size) {
+		if(minimum < 0.0 || maximum < minimum || size < 1)
+			throw new IllegalArgumentException("Bad location cost parameters: minimum="
+					+ minimum + ", maximum=" + maximum + ", size=" + size);
+
+		this.minimum = minimum;
+		this.maximum = maximum;
+		this.size = size;
+	}
+
+	@Override
+	protected long getDelay(int x, int y, int z) {
+		double far = 3.0 * Math.max(size - 1, 1);
+		double f = (clamp(x) + clamp(y) + clamp(z)) / far;
+
+		return toNanos(minimum + (f * (maximum - minimum)));
+	}
+
+	private int clamp(int c) {
+		return Math.max(0, Math.min(c, size - 1));
+	}
+
+	@Override
+	public String toString() {
+		return "LocationCost [minimum=" + minimum + ", maximum=" + maximum
+		+ ", size=" + size + "]";
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.cost;
+
+import java.util.Random;
+
+/**
+ * The LogNormalCost model draws the time each test takes from a log-normal
+ * distribution. Most tests take roughly the median time but some take
+ * considerably longer, which is typical of simulations whose run time depends
+ * on how quickly they converge.
+ * @author Robert Haines
+ */
+public final class LogNormalCost extends DelayCost {
+
+	private final double median;
+	private final double sigma;
+	private final Random random;
+
+	/**
+	 * Create a LogNormalCost model.
+	 * @param median the median test time, in milliseconds.
+	 * @param sigma the standard deviation of the logarithm of the test time.
+	 * @param random the source of random numbers to use.
+	 */
+	public LogNormalCost(double median, double sigma, Random random) {
+		if(median <= 0.0 || sigma < 0.0)
+			throw new IllegalArgumentException("Bad log-normal parameters: median="
+					+ median + ", sigma=" + sigma);
+
+		this.median = median;
+		this.sigma = sigma;
+		this.random = random;
+	}
+
+	/**
+	 * Create a LogNormalCost model with its own source of random numbers.
+	 * @param median the median test time, in milliseconds.
+	 * @param sigma the standard deviation of the logarithm of the test time.
+	 */
+	public LogNormalCost(double median, double sigma) {
+		this(median, sigma, new Random());
+	}
+
+	@Override
+	protected long getDelay(int x, int y, int z) {
+		return toNanos(median * Math.exp(sigma * random.nextGaussian()));
+	}
+
+	@Override
+	public String toString() {
+		return "LogNormalCost [median=" + median + ", sigma=" + sigma + "]";
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.cost;
+
+import java.util.Random;
+
+/**
+ * The ParetoCost model draws the time each test takes from a Pareto
+ * distribution. This is heavy-tailed: no test is quicker than the minimum
+ * time but a few take very much longer than the rest. The smaller the shape
+ * parameter the heavier the tail; at or below one the mean test time is
+ * infinite.
+ * @author Robert Haines
+ */
+public final class ParetoCost extends DelayCost {
+
+	private final double minimum;
+	private final double alpha;
+	private final Random random;
+
+	/**
+	 * Create a ParetoCost model.
+	 * @param minimum the minimum test time, in milliseconds.
+	 * @param alpha the shape parameter of the distribution.
+	 * @param random the source of random numbers to use.
+	 */
+	public ParetoCost(double minimum, double alpha, Random random) {
+		if(minimum <= 0.0 || alpha <= 0.0)
+			throw new IllegalArgumentException("Bad Pareto parameters: minimum="
+					+ minimum + ", alpha=" + alpha);
+
+		this.minimum = minimum;
+		this.alpha = alpha;
+		this.random = random;
+	}
+
+	/**
+	 * Create a ParetoCost model with its own source of random numbers.
+	 * @param minimum the minimum test time, in milliseconds.
+	 * @param alpha the shape parameter of the distribution.
+	 */
+	public ParetoCost(double minimum, double alpha) {
+		this(minimum, alpha, new Random());
+	}
+
+	@Override
+	protected long getDelay(int x, int y, int z) {
+		// 1 - nextDouble() is in (0, 1] so the power is always finite
+		return toNanos(minimum / Math.pow(1.0 - random.nextDouble(), 1.0 / alpha));
+	}
+
+	@Override
+	public String toString() {
+		return "ParetoCost [minimum=" + minimum + ", alpha=" + alpha + "]";
+	}
+}
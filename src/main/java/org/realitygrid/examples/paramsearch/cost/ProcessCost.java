@@ -0,0 +1,331 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.cost;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The ProcessCost model tests each point by running it through a real
+ * program, such as a simulation, so a test takes as long as the program
+ * takes to deal with the point.
+ * <p/>The program is run as a pool of long-lived worker processes, so that
+ * the cost of starting it is only paid once for each worker rather than for
+ * each test. A worker is sent a point as a line of text on its standard
+ * input, holding the three coordinates separated by spaces, and must answer
+ * with a single line on its standard output once it has dealt with the
+ * point. What the answer says is ignored. Anything the program writes to
+ * its standard error is passed through to ours. A worker should exit when
+ * its standard input is closed.
+ * <p/>A worker that exits or breaks its pipe before answering has crashed:
+ * it is replaced with a new worker and the test is tried again, once, before
+ * a {@link ProcessCostException} is raised. A worker that takes longer than
+ * the timeout to answer is killed and replaced, and the test is abandoned as
+ * if it had finished. A test whose thread is interrupted while waiting for
+ * its answer is abandoned in the same way.
+ * <p/>This model may be used by many threads at once; up to one test per
+ * worker is in progress at any time and other tests wait for a worker to
+ * become free. Call {@link #close()} to stop the workers when the model is
+ * no longer needed; tests in progress are then abandoned, and no worker is
+ * started to replace one that stops.
+ * @author Robert Haines
+ */
+public final class ProcessCost implements CostModel, Closeable {
+
+	private static final int ATTEMPTS = 2;
+
+	// placed in a worker's queue of answers when its output ends
+	private static final String END = new String("END");
+
+	private final List<String> command;
+	private final long timeout;
+	private final List<Slot> slots;
+	private final BlockingQueue<Slot> idle;
+	private volatile boolean closed;
+
+	private final AtomicLong tests;
+	private final AtomicLong starts;
+	private final AtomicLong crashes;
+	private final AtomicLong timeouts;
+
+	/**
+	 * Create a ProcessCost model and start its workers.
+	 * @param command the program to run and its arguments.
+	 * @param workers the number of worker processes.
+	 * @param timeout the longest a test may take before it is abandoned, in
+	 * milliseconds.
+	 * @throws IOException if the workers cannot be started.
+	 */
+	public ProcessCost(List<String> command, int workers, long timeout) throws IOException {
+		if(command.isEmpty() || workers < 1 || timeout < 1)
+			throw new IllegalArgumentException("Bad process cost parameters: command="
+					+ command + ", workers=" + workers + ", timeout=" + timeout);
+
+		this.command = Collections.unmodifiableList(new ArrayList<String>(command));
+		this.timeout = timeout;
+		tests = new AtomicLong();
+		starts = new AtomicLong();
+		crashes = new AtomicLong();
+		timeouts = new AtomicLong();
+
+		slots = new ArrayList<Slot>(workers);
+		idle = new LinkedBlockingQueue<Slot>();
+		try {
+			for(int i = 0; i < workers; i++) {
+				Slot s = new Slot();
+				s.worker = start();
+				slots.add(s);
+				idle.add(s);
+			}
+		} catch(IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+	@Override
+	public void charge(int x, int y, int z) {
+		if(closed)
+			throw new IllegalStateException("ProcessCost has been closed.");
+
+		Slot slot;
+		try {
+			slot = idle.take();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+
+		try {
+			tests.incrementAndGet();
+			for(int attempt = 1; ; attempt++) {
+				if(slot.worker == null) {
+					Worker w = start();
+					slot.worker = w;
+
+					// close() may have stopped the workers while this one
+					// was starting, and would never stop it
+					if(closed) {
+						w.destroy();
+						slot.worker = null;
+						return;
+					}
+				}
+
+				int result = slot.worker.test(x, y, z, timeout);
+				if(result == Worker.ANSWERED)
+					return;
+
+				slot.worker.destroy();
+				slot.worker = null;
+				if(result == Worker.TIMED_OUT) {
+					timeouts.incrementAndGet();
+					return;
+				}
+				if(result == Worker.INTERRUPTED) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+
+				// a worker stopped by close() has not crashed, and must not
+				// be replaced
+				if(closed)
+					return;
+
+				crashes.incrementAndGet();
+				if(attempt == ATTEMPTS)
+					throw new ProcessCostException("Worker crashed testing (" + x + ", " + y
+							+ ", " + z + ") " + ATTEMPTS + " times.");
+			}
+		} catch(IOException e) {
+			throw new ProcessCostException("Cannot start worker: " + command, e);
+		} finally {
+			idle.add(slot);
+		}
+	}
+
+	private Worker start() throws IOException {
+		starts.incrementAndGet();
+		return new Worker(command);
+	}
+
+	/**
+	 * Stop all the workers. Tests in progress are abandoned.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		for(Slot s : slots) {
+			Worker w = s.worker;
+			if(w != null)
+				w.destroy();
+		}
+	}
+
+	/**
+	 * Get the number of points that have been tested.
+	 * @return the number of tests.
+	 */
+	public long getTests() {
+		return tests.get();
+	}
+
+	/**
+	 * Get the number of worker processes that have been started, including
+	 * those started to replace others.
+	 * @return the number of workers started.
+	 */
+	public long getStarts() {
+		return starts.get();
+	}
+
+	/**
+	 * Get the number of times a worker has crashed.
+	 * @return the number of crashes.
+	 */
+	public long getCrashes() {
+		return crashes.get();
+	}
+
+	/**
+	 * Get the number of tests that were abandoned because they took too
+	 * long.
+	 * @return the number of timeouts.
+	 */
+	public long getTimeouts() {
+		return timeouts.get();
+	}
+
+	@Override
+	public String toString() {
+		return "ProcessCost [command=" + command + ", workers=" + slots.size()
+		+ ", timeout=" + timeout + ", tests=" + getTests() + ", starts=" + getStarts()
+		+ ", crashes=" + getCrashes() + ", timeouts=" + getTimeouts() + "]";
+	}
+
+	/*
+	 * A place in the pool, which holds a worker unless its last one failed.
+	 */
+	private static final class Slot {
+		volatile Worker worker;
+	}
+
+	/*
+	 * A worker process and a thread that reads its answers.
+	 */
+	private static final class Worker {
+		static final int ANSWERED = 0;
+		static final int CRASHED = 1;
+		static final int TIMED_OUT = 2;
+		static final int INTERRUPTED = 3;
+
+		private final Process process;
+		private final Writer in;
+		private final BlockingQueue<String> answers;
+
+		Worker(List<String> command) throws IOException {
+			ProcessBuilder pb = new ProcessBuilder(command);
+			pb.redirectError(Redirect.INHERIT);
+			process = pb.start();
+			in = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8);
+			answers = new LinkedBlockingQueue<String>();
+
+			final BufferedReader out = new BufferedReader(
+					new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+			Thread reader = new Thread("process-cost-reader") {
+				public void run() {
+					try {
+						String line;
+						while((line = out.readLine()) != null)
+							answers.add(line);
+					} catch(IOException e) {
+						// the process has gone
+					} finally {
+						answers.add(END);
+					}
+				}
+			};
+			reader.setDaemon(true);
+			reader.start();
+		}
+
+		int test(int x, int y, int z, long timeout) {
+			try {
+				in.write(x + " " + y + " " + z + "\n");
+				in.flush();
+			} catch(IOException e) {
+				return CRASHED;
+			}
+
+			try {
+				String answer = answers.poll(timeout, TimeUnit.MILLISECONDS);
+				if(answer == null)
+					return TIMED_OUT;
+
+				return (answer == END) ? CRASHED : ANSWERED;
+			} catch(InterruptedException e) {
+				return INTERRUPTED;
+			}
+		}
+
+		void destroy() {
+			process.destroyForcibly();
+		}
+	}
+}
@@ -46,9 +46,13 @@
 package org.realitygrid.examples.paramsearch.crawlers;
 
 import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.Evaluation;
+import org.realitygrid.examples.paramsearch.EvaluationCache;
 import org.realitygrid.examples.paramsearch.Point3D;
+import org.realitygrid.examples.paramsearch.PointBatch;
 import org.realitygrid.examples.paramsearch.Vector3D;
-import org.realitygrid.examples.paramsearch.ui.MainWindow;
+import org.realitygrid.examples.paramsearch.VisitedSet;
+import org.realitygrid.examples.paramsearch.ui.PointView;
 
 /**
  * This is the base-class of the set of crawlers. A crawler implements a search
@@ -60,10 +64,13 @@ import org.realitygrid.examples.paramsearch.ui.MainWindow;
  */
 public abstract class AbstractCrawler {
 
-	private MainWindow view;
+	private PointView view;
 	private Domain domain;
 	private boolean interactive;
 	private String name;
+	private EvaluationCache evaluationCache;
+	private volatile VisitedSet visited;
+	private volatile int visitedGeneration;
 
 	/**
 	 * Create a crawler with the specified name, domain and interactive status.
@@ -76,6 +83,9 @@ public abstract class AbstractCrawler {
 		name = s;
 		domain = d;
 		interactive = b;
+		evaluationCache = null;
+		visited = null;
+		visitedGeneration = 0;
 	}
 
 	/**
@@ -107,11 +117,86 @@ public abstract class AbstractCrawler {
 	 * Register a viewer GUI with this crawler. If the crawler has a GUI then
 	 * it can be observed searching for the targets.
 	 * @param view the viewing GUI to attach to this crawler.
+	 * @see org.realitygrid.examples.paramsearch.ui.MainWindow
 	 */
-	public final void setView(MainWindow view) {
+	public final void setView(PointView view) {
 		this.view = view;
 	}
 
+	/**
+	 * Set a cache to remember the results of testing points, so that
+	 * testing a point again does not cost another evaluation. By default
+	 * there is no cache.
+	 * <p/>The cache learns that a target has been found from the results of
+	 * this crawler's own tests, so that no more is asked of the domain for
+	 * each test than for a test without a cache. It is checked against the
+	 * domain when it is set and each time the crawler is {@link #run()}, so
+	 * results from before the domain was reset are never used, but a target
+	 * found by another crawler searching the same domain is only noticed
+	 * when this crawler next tests a point that is not in the cache.
+	 * @param cache the cache to use, or null to stop caching results.
+	 * @see #testPoint(int, int, int)
+	 */
+	public final void setEvaluationCache(EvaluationCache cache) {
+		this.evaluationCache = cache;
+		if(cache != null) {
+			int found = domain.getNumFound();
+			synchronized(cache) {
+				cache.validate(found);
+			}
+		}
+	}
+
+	/**
+	 * Get the cache that remembers the results of testing points.
+	 * @return the cache, or null if results are not cached.
+	 */
+	public final EvaluationCache getEvaluationCache() {
+		return evaluationCache;
+	}
+
+	/**
+	 * Mark a point as visited, to find out whether it has already been
+	 * tested. Crawlers that might test a point more than once can use this
+	 * to skip it instead. Points are only remembered until the current target
+	 * is found, as a point tested against one target may yet find the next.
+	 * <p/>This may be called from several threads at once; exactly one of
+	 * them will be told that a point had not been visited. The set of visited
+	 * points is only created the first time this is called.
+	 * @param x the X coordinate of the point.
+	 * @param y the Y coordinate of the point.
+	 * @param z the Z coordinate of the point.
+	 * @return true if the point has not been visited since the current
+	 * target became current.
+	 * @see VisitedSet
+	 */
+	protected final boolean visit(int x, int y, int z) {
+		return getVisitedSet().visit(x, y, z);
+	}
+
+	/**
+	 * Get the set of points visited by this crawler since the current target
+	 * became current.
+	 * @return the set of visited points.
+	 * @see #visit(int, int, int)
+	 */
+	protected final VisitedSet getVisitedSet() {
+		VisitedSet v = visited;
+		int found = domain.getNumFound();
+		if(v == null || found != visitedGeneration) {
+			synchronized(this) {
+				if(visited == null)
+					visited = VisitedSet.create(domain.getSize());
+				else if(found != visitedGeneration)
+					visited.clear();
+				visitedGeneration = found;
+				v = visited;
+			}
+		}
+
+		return v;
+	}
+
 	/**
 	 * Get the interactive status of this crawler.
 	 * @return whether this crawler is interactive or not.
@@ -129,6 +214,14 @@ public abstract class AbstractCrawler {
 	public final void run() {
 		int found = 0;
 
+		EvaluationCache cache = evaluationCache;
+		if(cache != null) {
+			int numFound = domain.getNumFound();
+			synchronized(cache) {
+				cache.validate(numFound);
+			}
+		}
+
 		do {
 			Point3D result = search();
 			if(result != null) {
@@ -141,25 +234,157 @@ public abstract class AbstractCrawler {
 
 	/**
 	 * Test a point against the current target in the domain.
+	 * <p/>This is an adapter for {@link #testPoint(int, int, int)}, which
+	 * should be preferred as it does not need a point or vector to be
+	 * created.
 	 * @param p the point to test
 	 * @return the zero vector if the point is found or a hint towards
 	 * finding it if not.
 	 */
 	protected final Vector3D testPoint(Point3D p) {
-		Point3D test = domain.isWithinError(p);
-		if(test != null) {
-			updateView(test, true);
-			return Vector3D.ZERO;
+		return Evaluation.toVector3D(testPoint(p.getIntX(), p.getIntY(), p.getIntZ()));
+	}
+
+	/**
+	 * Test a point against the current target in the domain. The result is
+	 * packed into an int; see {@link Evaluation} for the methods that
+	 * examine it.
+	 * <p/>If an {@link EvaluationCache} has been set and the point has
+	 * already been tested against the current target the earlier result is
+	 * returned without testing the point again. This may be called from
+	 * several threads at once: the cache is locked while it is used, and a
+	 * result is only kept if no target was found while its test was made.
+	 * <p/>However a point is tested, only one request is made of the domain
+	 * (see {@link Domain#evaluate(int, int, int, int[])}), which matters
+	 * when each request is a round trip to a remote domain.
+	 * @param x the X coordinate of the point to test.
+	 * @param y the Y coordinate of the point to test.
+	 * @param z the Z coordinate of the point to test.
+	 * @return {@link Evaluation#FOUND} if the point is found or a hint
+	 * towards finding it if not.
+	 * @see Evaluation
+	 * @see org.realitygrid.examples.paramsearch.Cursor3D
+	 */
+	protected final int testPoint(int x, int y, int z) {
+		EvaluationCache cache = evaluationCache;
+		if(cache == null && this.view == null)
+			return domain.evaluate(x, y, z);
+
+		int result;
+		if(cache != null) {
+			synchronized(cache) {
+				result = cache.get(x, y, z);
+			}
+			if(result != EvaluationCache.MISS)
+				return result;
 		}
-		else {
-			updateView(p, false);
-			return domain.search(p).unitComponents();
+
+		int[] outcome = new int[4];
+		long start = System.nanoTime();
+		result = evaluate(x, y, z, outcome);
+		long time = System.nanoTime() - start;
+
+		if(cache != null) {
+			synchronized(cache) {
+				cache.addTestTime(time);
+
+				// a result tested against an earlier target than the cache
+				// holds results for, because another thread found a target
+				// while it was being tested, is not kept
+				int found = outcome[0];
+				if(found > cache.getGeneration())
+					cache.validate(found);
+				if(found == cache.getGeneration())
+					cache.put(x, y, z, result);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Probe a point for a hint towards the current target. A probe is much
+	 * cheaper than a test but can never find the target, so a crawler can
+	 * probe its way to where a test is likely to find it and only then test.
+	 * Probes are not shown in the view.
+	 * @param x the X coordinate of the point to probe.
+	 * @param y the Y coordinate of the point to probe.
+	 * @param z the Z coordinate of the point to probe.
+	 * @return a hint towards the current target.
+	 * @see Domain#probe(int, int, int)
+	 * @see Evaluation
+	 */
+	protected final int probePoint(int x, int y, int z) {
+		return domain.probe(x, y, z);
+	}
+
+	/**
+	 * Test a batch of points, such as a whole slab of a grid, in one go. The
+	 * batch costs less than testing its points one at a time if the domain's
+	 * {@link org.realitygrid.examples.paramsearch.cost.CostModel} says so.
+	 * The points are tested in order, so those after one that finds a target
+	 * are tested against the next target. Results are never taken from the
+	 * {@link EvaluationCache}, but a batch that finds a target moves the
+	 * cache on to the next one. Each point is shown in the view as it would
+	 * be by {@link #testPoint(int, int, int)}.
+	 * @param batch the points to test.
+	 * @return the result of testing each point, in the same order as the
+	 * points.
+	 * @see Domain#evaluateBatch(PointBatch)
+	 * @see #testPoint(int, int, int)
+	 */
+	protected final int[] testPoints(PointBatch batch) {
+		int[] results = new int[batch.size()];
+		PointBatch targets = (this.view == null) ? null : new PointBatch();
+		if(domain.evaluateBatch(batch, results, targets) > 0)
+			targetFound();
+
+		// as with testPoint, a point that finds a target is shown where the
+		// target is
+		if(this.view != null) {
+			int t = 0;
+			for(int i = 0; i < results.length; i++) {
+				if(Evaluation.isFound(results[i]))
+					updateView(targets.get(t++), true);
+				else
+					updateView(batch.get(i), false);
+			}
+		}
+
+		return results;
+	}
+
+	private int evaluate(int x, int y, int z, int[] outcome) {
+		int result = domain.evaluate(x, y, z, outcome);
+		if(this.view != null) {
+			if(Evaluation.isFound(result))
+				updateView(new Point3D(outcome[1], outcome[2], outcome[3]), true);
+			else
+				updateView(new Point3D(x, y, z), false);
+		}
+
+		return result;
+	}
+
+	// tell the cache, if there is one, that a target has been found other
+	// than by testPoint
+	private void targetFound() {
+		EvaluationCache cache = evaluationCache;
+		if(cache != null) {
+			int found = domain.getNumFound();
+			synchronized(cache) {
+				if(found > cache.getGeneration())
+					cache.validate(found);
+			}
 		}
 	}
 
 	private final void updateView(Point3D p, boolean found) {
 		if(this.view != null) {
-			view.showPoint(p, found);
+			// points may be tested by several threads at once
+			synchronized(view) {
+				view.showPoint(p, found);
+			}
 		}
 	}
 
@@ -173,6 +398,7 @@ public abstract class AbstractCrawler {
 	 * been found, although "interactive" crawlers may need to return null in
 	 * some instances.
 	 * @return the found target point or null if no target could be found.
+	 * @see #testPoint(int, int, int)
 	 * @see #testPoint(Point3D)
 	 * @see InteractiveCrawler
 	 */
@@ -0,0 +1,223 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.crawlers;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.realitygrid.examples.paramsearch.Cursor3D;
+import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.Evaluation;
+import org.realitygrid.examples.paramsearch.Point3D;
+import org.realitygrid.examples.paramsearch.VirtualThreads;
+
+/**
+ * The ConcurrentSweepCrawler tests every point of the domain in the same
+ * order as the ImprovedSimpleCrawler, but keeps many tests in progress at
+ * once. Each test is run as its own task and a {@link Semaphore} limits how
+ * many are in progress; by default the tasks are run on virtual threads
+ * (see {@link VirtualThreads}), so that a test waiting for its cost to be
+ * paid holds on to very little memory and thousands of tests can be in
+ * progress at once.
+ * <p/>Once a target is found no more tests are started, and the search
+ * returns when those in progress have finished. As the tests after the
+ * target may have been made against it rather than the next target, the
+ * next search starts again just after it. If more than one target is found
+ * at once the others are returned by the next searches.
+ * @author Robert Haines
+ * @see ImprovedSimpleCrawler
+ */
+public final class ConcurrentSweepCrawler extends AbstractCrawler {
+
+	/**
+	 * The number of tests kept in progress at once if none is given.
+	 */
+	public static final int DEFAULT_CONCURRENCY = 100;
+
+	private final int concurrency;
+	private final Executor executor;
+	private final Semaphore permits;
+	private final Cursor3D test;
+	private final Queue<Point3D> pending;
+	private final AtomicReference<Throwable> failure;
+
+	/**
+	 * Create a ConcurrentSweepCrawler with the specified domain that keeps
+	 * {@link #DEFAULT_CONCURRENCY} tests in progress at once.
+	 * @param d the domain to be searched.
+	 */
+	public ConcurrentSweepCrawler(Domain d) {
+		this(d, DEFAULT_CONCURRENCY);
+	}
+
+	/**
+	 * Create a ConcurrentSweepCrawler with the specified domain and number
+	 * of tests to keep in progress at once, each on its own virtual thread.
+	 * @param d the domain to be searched.
+	 * @param concurrency the most tests to keep in progress at once.
+	 */
+	public ConcurrentSweepCrawler(Domain d, int concurrency) {
+		this(d, concurrency, VirtualThreads.newExecutor());
+	}
+
+	/**
+	 * Create a ConcurrentSweepCrawler with the specified domain, number of
+	 * tests to keep in progress at once and executor to run them with. The
+	 * executor must be able to run as many tasks at once as the concurrency
+	 * for them all to be in progress.
+	 * @param d the domain to be searched.
+	 * @param concurrency the most tests to keep in progress at once.
+	 * @param executor the executor to run each test with.
+	 */
+	public ConcurrentSweepCrawler(Domain d, int concurrency, Executor executor) {
+		super("Concurrent Sweep Crawler", d);
+
+		if(concurrency < 1)
+			throw new IllegalArgumentException("Concurrency must be positive: " + concurrency);
+		if(executor == null)
+			throw new NullPointerException("executor");
+
+		this.concurrency = concurrency;
+		this.executor = executor;
+		permits = new Semaphore(concurrency);
+		test = new Cursor3D(d.getSize());
+		pending = new ConcurrentLinkedQueue<Point3D>();
+		failure = new AtomicReference<Throwable>();
+	}
+
+	/**
+	 * Get the most tests this crawler keeps in progress at once.
+	 * @return the number of tests.
+	 */
+	public int getConcurrency() {
+		return concurrency;
+	}
+
+	@Override
+	public Point3D search() {
+		if(pending.isEmpty())
+			sweep();
+
+		return pending.poll();
+	}
+
+	private void sweep() {
+		final AtomicBoolean found = new AtomicBoolean();
+
+		try {
+			for(; test.isInside() && !found.get(); test.next()) {
+				permits.acquireUninterruptibly();
+				if(found.get()) {
+					permits.release();
+					break;
+				}
+
+				final int x = test.getX();
+				final int y = test.getY();
+				final int z = test.getZ();
+				try {
+					executor.execute(new Runnable() {
+						public void run() {
+							try {
+								if(Evaluation.isFound(testPoint(x, y, z))) {
+									pending.add(new Point3D(x, y, z));
+									found.set(true);
+								}
+							} catch (Throwable t) {
+								failure.compareAndSet(null, t);
+								found.set(true);
+							} finally {
+								permits.release();
+							}
+						}
+					});
+				} catch (RejectedExecutionException e) {
+					permits.release();
+					throw e;
+				}
+			}
+		} finally {
+			// wait for the tests still in progress
+			permits.acquireUninterruptibly(concurrency);
+			permits.release(concurrency);
+		}
+
+		Throwable t = failure.getAndSet(null);
+		if(t != null) {
+			if(t instanceof Error)
+				throw (Error) t;
+			throw (RuntimeException) t;
+		}
+
+		if(pending.isEmpty()) {
+			test.reset();
+			return;
+		}
+
+		// carry on from just after the first target found in sweep order
+		Point3D first = null;
+		for(Point3D p : pending) {
+			if(first == null || before(p, first))
+				first = p;
+		}
+		test.set(first.getIntX(), first.getIntY(), first.getIntZ());
+		test.next();
+	}
+
+	private static boolean before(Point3D a, Point3D b) {
+		if(a.getIntX() != b.getIntX())
+			return a.getIntX() < b.getIntX();
+		if(a.getIntY() != b.getIntY())
+			return a.getIntY() < b.getIntY();
+
+		return a.getIntZ() < b.getIntZ();
+	}
+}
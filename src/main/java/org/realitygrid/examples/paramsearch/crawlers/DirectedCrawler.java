@@ -46,8 +46,8 @@
 package org.realitygrid.examples.paramsearch.crawlers;
 
 import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.Evaluation;
 import org.realitygrid.examples.paramsearch.Point3D;
-import org.realitygrid.examples.paramsearch.Vector3D;
 
 /**
  * The DirectedCrawler starts at the origin but each test directs towards the
@@ -88,20 +88,20 @@ public class DirectedCrawler extends AbstractCrawler {
 
 	@Override
 	public Point3D search() {
-		Vector3D next;
+		int next;
 
 		do {
-			next = testPoint(start);
-			if(next.equals(Vector3D.ZERO)) {
+			next = testPoint(start.getIntX(), start.getIntY(), start.getIntZ());
+			if(Evaluation.isFound(next)) {
 				return start;
 			}
 
-			if(next.getX() != 0.0)
-				start = new Point3D(start.getX() + next.getX().intValue(), start.getY(), start.getZ());
-			else if(next.getY() != 0.0)
-				start = new Point3D(start.getX(), start.getY() + next.getY().intValue(), start.getZ());
+			if(Evaluation.getX(next) != 0)
+				start = Point3D.of(start.getIntX() + Evaluation.getX(next), start.getIntY(), start.getIntZ());
+			else if(Evaluation.getY(next) != 0)
+				start = Point3D.of(start.getIntX(), start.getIntY() + Evaluation.getY(next), start.getIntZ());
 			else
-				start = new Point3D(start.getX(), start.getY(), start.getZ() + next.getZ().intValue());
+				start = Point3D.of(start.getIntX(), start.getIntY(), start.getIntZ() + Evaluation.getZ(next));
 		}
 		while(true);
 	}
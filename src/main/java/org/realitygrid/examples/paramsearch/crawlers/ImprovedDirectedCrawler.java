@@ -46,8 +46,8 @@
 package org.realitygrid.examples.paramsearch.crawlers;
 
 import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.Evaluation;
 import org.realitygrid.examples.paramsearch.Point3D;
-import org.realitygrid.examples.paramsearch.Vector3D;
 
 /**
  * The ImproveDirectedCrawler works like the DirectedCrawler, but it can
@@ -69,15 +69,17 @@ public final class ImprovedDirectedCrawler extends DirectedCrawler {
 
 	@Override
 	public Point3D search() {
-		Vector3D next;
+		int next;
 
 		do {
-			next = testPoint(start);
-			if(next.equals(Vector3D.ZERO)) {
+			next = testPoint(start.getIntX(), start.getIntY(), start.getIntZ());
+			if(Evaluation.isFound(next)) {
 				return start;
 			}
 
-			start = start.moveBy(next);
+			start = Point3D.of(start.getIntX() + Evaluation.getX(next),
+					start.getIntY() + Evaluation.getY(next),
+					start.getIntZ() + Evaluation.getZ(next));
 		}
 		while(true);
 	}
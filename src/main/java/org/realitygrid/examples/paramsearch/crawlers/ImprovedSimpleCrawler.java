@@ -45,9 +45,10 @@
 
 package org.realitygrid.examples.paramsearch.crawlers;
 
+import org.realitygrid.examples.paramsearch.Cursor3D;
 import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.Evaluation;
 import org.realitygrid.examples.paramsearch.Point3D;
-import org.realitygrid.examples.paramsearch.Vector3D;
 
 /**
  * The ImprovedSimpleCrawler search strategy has slightly more knowledge of the
@@ -60,9 +61,7 @@ import org.realitygrid.examples.paramsearch.Vector3D;
  */
 public final class ImprovedSimpleCrawler extends SimpleCrawler {
 
-	private int xLocation;
-	private int yLocation;
-	private int zLocation;
+	private Cursor3D test;
 
 	/**
 	 * Create an ImprovedSimpleCrawler to search the provided domain.
@@ -71,40 +70,20 @@ public final class ImprovedSimpleCrawler extends SimpleCrawler {
 	public ImprovedSimpleCrawler(Domain d) {
 		super("Improved Simple Crawler", d);
 
-		xLocation = 0;
-		yLocation = 0;
-		zLocation = 0;
+		test = new Cursor3D(d.getSize());
 	}
 
 	@Override
 	public Point3D search() {
-		int size = getDomainSize();
-		Point3D test;
-		boolean start = true;
-
-		for(int i = 0; i < size; i++) {
-			if(start) i = xLocation;
-			for(int j = 0; j < size; j++) {
-				if(start) j = yLocation;
-				for(int k = 0; k < size; k++) {
-					if(start) {
-						k = zLocation;
-						start = false;
-					}
-					test = new Point3D(i, j, k);
-					if(testPoint(test).equals(Vector3D.ZERO)) {
-						xLocation = i;
-						yLocation = j;
-						zLocation = k + 1;
-						return test;
-					}
-				}
+		for(; test.isInside(); test.next()) {
+			if(Evaluation.isFound(testPoint(test.getX(), test.getY(), test.getZ()))) {
+				Point3D found = test.toPoint3D();
+				test.next();
+				return found;
 			}
 		}
 
-		xLocation = 0;
-		yLocation = 0;
-		zLocation = 0;
+		test.reset();
 		return null;
 	}
 }
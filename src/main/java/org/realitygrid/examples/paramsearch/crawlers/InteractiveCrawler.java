@@ -50,8 +50,8 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import javax.swing.JPanel;
 
 import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.Evaluation;
 import org.realitygrid.examples.paramsearch.Point3D;
-import org.realitygrid.examples.paramsearch.Vector3D;
 
 /**
  * The InteractiveCrawler is the base class of any crawler that is to be
@@ -105,8 +105,8 @@ public abstract class InteractiveCrawler extends AbstractCrawler {
 			}
 			else {
 				System.out.print("Testing " + p + "...");
-				Vector3D next = testPoint(p);
-				boolean result = next.equals(Vector3D.ZERO);
+				int next = testPoint(p.getIntX(), p.getIntY(), p.getIntZ());
+				boolean result = Evaluation.isFound(next);
 				System.out.println(result ? "  Yes!" : "  Try again.");
 				if(result)
 					return p;
@@ -0,0 +1,153 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.crawlers;
+
+import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.Evaluation;
+import org.realitygrid.examples.paramsearch.Point3D;
+
+/**
+ * The LatticeCrawler makes use of the domain's tolerance. A target is found
+ * by testing any point within the tolerance of it along each axis, so the
+ * points tested need be no closer together than twice the tolerance plus
+ * one: this crawler only tests the points of a lattice with that spacing,
+ * which still finds every target. With the usual tolerance of 10 that is
+ * one point in every 9261.
+ * <p/>If the domain does not know its tolerance (see
+ * {@link Domain#getError()}) this crawler refines a lattice instead: it
+ * starts with a very coarse one and halves the spacing each time round,
+ * only testing the points it has not tested already, until, in the worst
+ * case, it has tested every point of the domain once.
+ * <p/>Each search starts again at the first point of the lattice, so
+ * targets are found whichever order they must be found in.
+ * @author Robert Haines
+ * @see SimpleCrawler
+ */
+public final class LatticeCrawler extends AbstractCrawler {
+
+	private final int size;
+	private final int[] lattice;
+
+	/**
+	 * Create a LatticeCrawler to search the provided domain.
+	 * @param d the domain to search.
+	 */
+	public LatticeCrawler(Domain d) {
+		super("Lattice Crawler", d);
+
+		size = d.getSize();
+		int error = d.getError();
+		lattice = (error < 0) ? null : lattice(size, error);
+	}
+
+	/**
+	 * Get the spacing of the points tested by this crawler.
+	 * @return the spacing, or 0 if the domain does not know its tolerance
+	 * and the lattice is refined instead.
+	 */
+	public int getStride() {
+		return (lattice == null) ? 0 : (lattice.length > 1) ? lattice[1] - lattice[0]
+				: size;
+	}
+
+	@Override
+	public Point3D search() {
+		return (lattice == null) ? refine() : sweep();
+	}
+
+	private Point3D sweep() {
+		for(int x : lattice) {
+			for(int y : lattice) {
+				for(int z : lattice) {
+					if(Evaluation.isFound(testPoint(x, y, z)))
+						return new Point3D(x, y, z);
+				}
+			}
+		}
+
+		return null;
+	}
+
+	private Point3D refine() {
+		int stride = Integer.highestOneBit(Math.max(1, size - 1));
+		for(boolean first = true; stride > 0; stride >>= 1, first = false) {
+			int coarse = stride << 1;
+			for(int x = 0; x < size; x += stride) {
+				for(int y = 0; y < size; y += stride) {
+					for(int z = 0; z < size; z += stride) {
+						// points on the coarser lattice have been tested already
+						if(!first && x % coarse == 0 && y % coarse == 0 && z % coarse == 0)
+							continue;
+
+						if(Evaluation.isFound(testPoint(x, y, z)))
+							return new Point3D(x, y, z);
+					}
+				}
+			}
+		}
+
+		return null;
+	}
+
+	/*
+	 * The positions along each axis of a lattice that has a point within
+	 * error of every point in [0, size).
+	 */
+	private static int[] lattice(int size, int error) {
+		int stride = (2 * error) + 1;
+		int first = Math.min(error, size - 1);
+		int count = ((size - 1 - first) / stride) + 1;
+		int last = first + ((count - 1) * stride);
+		if(last + error < size - 1)
+			count++;
+
+		int[] axis = new int[count];
+		for(int i = 0; i < count; i++)
+			axis[i] = Math.min(first + (i * stride), size - 1);
+
+		return axis;
+	}
+}
@@ -0,0 +1,233 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.crawlers;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.Evaluation;
+import org.realitygrid.examples.paramsearch.Point3D;
+
+/**
+ * The ParallelSweepCrawler tests every point of the domain, like the
+ * SimpleCrawler, but with many threads at once. The domain is split in two
+ * along its longest side, and each half split again, until the pieces are
+ * small enough to be swept by one thread; the pieces are shared out by a
+ * {@link ForkJoinPool}, whose idle threads steal work from busy ones.
+ * <p/>As soon as any thread finds a target the search stops: the pieces
+ * still being swept stop at their next point and those not yet started are
+ * skipped. The next search starts again from the whole domain, but with the
+ * pieces nearest the target just found swept first, as the next target is
+ * likely to be near it. If other threads find more targets before they
+ * notice that the search is over those targets are returned by the next
+ * searches, without sweeping again. If a test fails, for example because
+ * the domain's test budget is spent, the other threads stop too and the
+ * search fails with the same exception. When testing a point takes much
+ * longer than the crawler's own work the search is about as many times
+ * faster than the SimpleCrawler as the pool has threads.
+ * @author Robert Haines
+ * @see SimpleCrawler
+ */
+public final class ParallelSweepCrawler extends AbstractCrawler {
+
+	// the most points in a piece swept by one thread
+	private static final int LEAF = 512;
+
+	private final ForkJoinPool pool;
+	private final int size;
+	private final Queue<Point3D> pending;
+	private Point3D last;
+
+	/**
+	 * Create a ParallelSweepCrawler with the specified domain and a thread
+	 * for each processor.
+	 * @param d the domain to be searched.
+	 */
+	public ParallelSweepCrawler(Domain d) {
+		this(d, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Create a ParallelSweepCrawler with the specified domain and number of
+	 * threads.
+	 * @param d the domain to be searched.
+	 * @param parallelism the number of threads to sweep with.
+	 */
+	public ParallelSweepCrawler(Domain d, int parallelism) {
+		super("Parallel Sweep Crawler", d);
+
+		pool = new ForkJoinPool(parallelism);
+		size = d.getSize();
+		pending = new ConcurrentLinkedQueue<Point3D>();
+		last = new Point3D(0);
+	}
+
+	/**
+	 * Get the number of threads this crawler sweeps with.
+	 * @return the number of threads.
+	 */
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	@Override
+	public Point3D search() {
+		if(pending.isEmpty())
+			pool.invoke(new Sweep(new AtomicBoolean(), last, 0, 0, 0, size, size, size));
+
+		Point3D result = pending.poll();
+		if(result != null)
+			last = result;
+
+		return result;
+	}
+
+	/*
+	 * Sweep a box of the domain, [x0, x1) by [y0, y1) by [z0, z1), splitting
+	 * it if it is too big and stopping if a target is found.
+	 */
+	private final class Sweep extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final AtomicBoolean found;
+		private final Point3D focus;
+		private final int x0, y0, z0, x1, y1, z1;
+
+		Sweep(AtomicBoolean found, Point3D focus,
+				int x0, int y0, int z0, int x1, int y1, int z1) {
+			this.found = found;
+			this.focus = focus;
+			this.x0 = x0;
+			this.y0 = y0;
+			this.z0 = z0;
+			this.x1 = x1;
+			this.y1 = y1;
+			this.z1 = z1;
+		}
+
+		@Override
+		protected void compute() {
+			if(found.get())
+				return;
+
+			int dx = x1 - x0;
+			int dy = y1 - y0;
+			int dz = z1 - z0;
+			if((long) dx * dy * dz <= LEAF) {
+				sweep();
+				return;
+			}
+
+			// split the longest side in two
+			Sweep low, high;
+			boolean nearHigh;
+			if(dx >= dy && dx >= dz) {
+				int mid = x0 + (dx >>> 1);
+				low = new Sweep(found, focus, x0, y0, z0, mid, y1, z1);
+				high = new Sweep(found, focus, mid, y0, z0, x1, y1, z1);
+				nearHigh = focus.getIntX() >= mid;
+			}
+			else if(dy >= dz) {
+				int mid = y0 + (dy >>> 1);
+				low = new Sweep(found, focus, x0, y0, z0, x1, mid, z1);
+				high = new Sweep(found, focus, x0, mid, z0, x1, y1, z1);
+				nearHigh = focus.getIntY() >= mid;
+			}
+			else {
+				int mid = z0 + (dz >>> 1);
+				low = new Sweep(found, focus, x0, y0, z0, x1, y1, mid);
+				high = new Sweep(found, focus, x0, y0, mid, x1, y1, z1);
+				nearHigh = focus.getIntZ() >= mid;
+			}
+
+			// sweep the half nearer the last target found here, and leave the
+			// other half for another thread to steal
+			Sweep near = nearHigh ? high : low;
+			Sweep far = nearHigh ? low : high;
+			far.fork();
+			try {
+				near.compute();
+			} catch (RuntimeException e) {
+				// stop the other half too, so no test is still being made
+				// once the search has failed
+				found.set(true);
+				far.quietlyJoin();
+				throw e;
+			}
+			far.join();
+		}
+
+		private void sweep() {
+			for(int x = x0; x < x1; x++) {
+				for(int y = y0; y < y1; y++) {
+					for(int z = z0; z < z1; z++) {
+						if(found.get())
+							return;
+
+						int result;
+						try {
+							result = testPoint(x, y, z);
+						} catch (RuntimeException e) {
+							found.set(true);
+							throw e;
+						}
+
+						if(Evaluation.isFound(result)) {
+							pending.add(new Point3D(x, y, z));
+							found.set(true);
+							return;
+						}
+					}
+				}
+			}
+		}
+	}
+}
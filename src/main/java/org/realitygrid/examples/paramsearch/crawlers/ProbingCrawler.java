@@ -0,0 +1,89 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.crawlers;
+
+import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.Evaluation;
+import org.realitygrid.examples.paramsearch.Point3D;
+
+/**
+ * The ProbingCrawler moves like the ImprovedDirectedCrawler, but finds its
+ * way with cheap probes rather than full tests. It only pays for a full
+ * test where the probes stop pointing anywhere, which on a plain domain is
+ * the target itself, so it makes one full test per target.
+ * @author Robert Haines
+ * @see ImprovedDirectedCrawler
+ * @see Domain#probe(int, int, int)
+ */
+public final class ProbingCrawler extends DirectedCrawler {
+
+	/**
+	 * Create a ProbingCrawler with the specified domain.
+	 * @param d the domain to be searched.
+	 */
+	public ProbingCrawler(Domain d) {
+		super("Probing Crawler", d);
+	}
+
+	@Override
+	public Point3D search() {
+		int next;
+
+		do {
+			next = probePoint(start.getIntX(), start.getIntY(), start.getIntZ());
+			if(next == Evaluation.hint(0, 0, 0)) {
+				next = testPoint(start.getIntX(), start.getIntY(), start.getIntZ());
+				if(Evaluation.isFound(next))
+					return start;
+			}
+
+			start = Point3D.of(start.getIntX() + Evaluation.getX(next),
+					start.getIntY() + Evaluation.getY(next),
+					start.getIntZ() + Evaluation.getZ(next));
+		}
+		while(true);
+	}
+}
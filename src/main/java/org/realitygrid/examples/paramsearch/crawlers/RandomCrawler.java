@@ -48,12 +48,13 @@ package org.realitygrid.examples.paramsearch.crawlers;
 import java.util.Random;
 
 import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.Evaluation;
 import org.realitygrid.examples.paramsearch.Point3D;
-import org.realitygrid.examples.paramsearch.Vector3D;
 
 /**
  * The RandomCrawler simply chooses random points in 3D space and tests them
- * against the current target. It is a truly abysmal search strategy.
+ * against the current target. It is a truly abysmal search strategy, although
+ * it does at least never test the same point twice for the same target.
  * @author Robert Haines
  * @see Domain
  */
@@ -75,18 +76,17 @@ public final class RandomCrawler extends AbstractCrawler {
 	@Override
 	public Point3D search() {
 		int x, y, z;
-		Point3D test;
-		Vector3D next;
 
 		do {
-			x = random.nextInt(size);
-			y = random.nextInt(size);
-			z = random.nextInt(size);
-			test = new Point3D(x, y, z);
-			next = testPoint(test);
+			do {
+				x = random.nextInt(size);
+				y = random.nextInt(size);
+				z = random.nextInt(size);
+			}
+			while(!visit(x, y, z));
 		}
-		while(!next.equals(Vector3D.ZERO));
+		while(!Evaluation.isFound(testPoint(x, y, z)));
 
-		return test;
+		return Point3D.of(x, y, z);
 	}
 }
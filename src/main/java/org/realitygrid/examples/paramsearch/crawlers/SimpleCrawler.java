@@ -45,9 +45,10 @@
 
 package org.realitygrid.examples.paramsearch.crawlers;
 
+import org.realitygrid.examples.paramsearch.Cursor3D;
 import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.Evaluation;
 import org.realitygrid.examples.paramsearch.Point3D;
-import org.realitygrid.examples.paramsearch.Vector3D;
 
 /**
  * The SimpleCrawler search strategy is to start at the origin and work its way
@@ -77,17 +78,11 @@ public class SimpleCrawler extends AbstractCrawler {
 
 	@Override
 	public Point3D search() {
-		int size = getDomainSize();
-		Point3D test;
+		Cursor3D test = new Cursor3D(getDomainSize());
 
-		for(int i = 0; i < size; i++) {
-			for(int j = 0; j < size; j++) {
-				for(int k = 0; k < size; k++) {
-					test = new Point3D(i, j, k);
-					if(testPoint(test).equals(Vector3D.ZERO))
-						return test;
-				}
-			}
+		for(; test.isInside(); test.next()) {
+			if(Evaluation.isFound(testPoint(test.getX(), test.getY(), test.getZ())))
+				return test.toPoint3D();
 		}
 
 		return null;
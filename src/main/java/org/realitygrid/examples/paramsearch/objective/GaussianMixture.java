@@ -0,0 +1,188 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.objective;
+
+import java.util.Random;
+
+import org.realitygrid.examples.paramsearch.Vector3D;
+
+/**
+ * A Gaussian mixture is a landscape of several smooth pits of different
+ * depths and widths on an otherwise flat plain. The other pits are placed
+ * at random, but always in the same places for the same seed, and may
+ * overlap each other, but the pit at the origin is deeper than all of them
+ * together so that nowhere else can go as low: it holds the global
+ * minimum. The tails of the other pits pull the bottom of it a little
+ * way off the origin, so the minimum is found when the mixture is made. A
+ * search that only looks downhill finds whichever pit it starts nearest,
+ * or none at all if it starts out on the plain. The region of interest is
+ * [-5, 5] on each axis.
+ * @author Robert Haines
+ */
+public final class GaussianMixture implements Objective {
+
+	private static final double HALF_WIDTH = 5.0;
+	private static final double MIN_SEPARATION = 4.0;
+
+	private final double[] cx;
+	private final double[] cy;
+	private final double[] cz;
+	private final double[] depth;
+	private final double[] scale;
+	private final Vector3D minimum;
+
+	/**
+	 * Create a mixture of the specified number of pits.
+	 * @param seed the seed from which the pits are placed.
+	 * @param pits the number of pits, at least one.
+	 */
+	public GaussianMixture(long seed, int pits) {
+		if(pits < 1)
+			throw new IllegalArgumentException("A mixture needs at least one pit: " + pits);
+
+		cx = new double[pits];
+		cy = new double[pits];
+		cz = new double[pits];
+		depth = new double[pits];
+		scale = new double[pits];
+
+		Random random = new Random(seed);
+		for(int i = 1; i < pits; i++) {
+			double x, y, z;
+			do {
+				x = HALF_WIDTH * ((2 * random.nextDouble()) - 1);
+				y = HALF_WIDTH * ((2 * random.nextDouble()) - 1);
+				z = HALF_WIDTH * ((2 * random.nextDouble()) - 1);
+			}
+			while((x * x) + (y * y) + (z * z) < MIN_SEPARATION * MIN_SEPARATION);
+
+			cx[i] = x;
+			cy[i] = y;
+			cz[i] = z;
+			depth[i] = 0.3 + (0.5 * random.nextDouble());
+
+			// store 1 / (2 * sigma^2) for a sigma between 0.5 and 1.5
+			double sigma = 0.5 + random.nextDouble();
+			scale[i] = 1.0 / (2 * sigma * sigma);
+		}
+
+		// the global minimum, deeper by a whole unit than all the other pits
+		// together
+		for(int i = 1; i < pits; i++)
+			depth[0] += depth[i];
+		depth[0] += 1.0;
+		scale[0] = 0.5;
+		minimum = bottom();
+	}
+
+	/*
+	 * Find the bottom of the pit at the origin. Near the origin that pit is
+	 * much more steeply curved than the tails of the others, so stepping
+	 * down the slope by the inverse of its curvature closes in on the
+	 * bottom quickly.
+	 */
+	private Vector3D bottom() {
+		double curvature = 2 * scale[0] * depth[0];
+		double x = 0.0, y = 0.0, z = 0.0;
+		for(int step = 0; step < 100; step++) {
+			double gx = 0.0, gy = 0.0, gz = 0.0;
+			for(int i = 0; i < depth.length; i++) {
+				double dx = x - cx[i];
+				double dy = y - cy[i];
+				double dz = z - cz[i];
+				double g = 2 * scale[i] * depth[i]
+						* Math.exp(-scale[i] * ((dx * dx) + (dy * dy) + (dz * dz)));
+				gx += g * dx;
+				gy += g * dy;
+				gz += g * dz;
+			}
+
+			x -= gx / curvature;
+			y -= gy / curvature;
+			z -= gz / curvature;
+			if(Math.abs(gx) + Math.abs(gy) + Math.abs(gz) < 1e-12 * curvature)
+				break;
+		}
+
+		return new Vector3D(x, y, z);
+	}
+
+	/**
+	 * Get the number of pits in this mixture.
+	 * @return the number of pits.
+	 */
+	public int getPits() {
+		return depth.length;
+	}
+
+	@Override
+	public double value(double x, double y, double z) {
+		double v = 0.0;
+		for(int i = 0; i < depth.length; i++) {
+			double dx = x - cx[i];
+			double dy = y - cy[i];
+			double dz = z - cz[i];
+			v -= depth[i] * Math.exp(-scale[i] * ((dx * dx) + (dy * dy) + (dz * dz)));
+		}
+
+		return v;
+	}
+
+	@Override
+	public Vector3D getMinimum() {
+		return minimum;
+	}
+
+	@Override
+	public double getWidth() {
+		return 2 * HALF_WIDTH;
+	}
+
+	@Override
+	public String toString() {
+		return "GaussianMixture [pits=" + depth.length + "]";
+	}
+}
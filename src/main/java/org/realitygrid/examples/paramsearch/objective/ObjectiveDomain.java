@@ -0,0 +1,148 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.objective;
+
+import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.Evaluation;
+import org.realitygrid.examples.paramsearch.Vector3D;
+
+/**
+ * An ObjectiveDomain is a {@link Domain} whose hints follow the slope of
+ * an analytic landscape rather than point straight at the target. Around
+ * each target the domain is covered by a copy of an {@link Objective},
+ * moved so that its global minimum lies on the target and scaled so that
+ * the side length of the domain spans its region of interest. The hint
+ * given for a point is a step, along each axis, to whichever neighbouring
+ * point is lower than both the point and its other neighbour on that axis,
+ * or no step if neither is.
+ * <p/>Everything else is as for any other domain: the targets, found in
+ * order by testing within their halo, are in the same places as those of a
+ * plain domain with the same name, size and number of targets, and testing
+ * a point costs the same. Any crawler can search an objective domain, and
+ * crawlers can be compared on how many tests they need on landscapes more
+ * like those of real simulations. On a landscape with local minima, such as
+ * {@link Rastrigin}, a crawler that only follows the hints can be led to a
+ * point that is lower than all of its neighbours but not within a target's
+ * halo, where the hint is to stay put; such crawlers may never finish.
+ * @author Robert Haines
+ * @see Objectives
+ */
+public class ObjectiveDomain extends Domain {
+
+	private final Objective objective;
+	private final double unit;
+	private final double mx;
+	private final double my;
+	private final double mz;
+
+	/**
+	 * Create a named domain of the specified size and with the required
+	 * number of targets, with hints from the landscape of an objective.
+	 * @param name the name of the domain.
+	 * @param size the size (side length) of the domain.
+	 * @param numTargets the number of targets to embed in the domain.
+	 * @param objective the objective that shapes the landscape around each
+	 * target.
+	 */
+	public ObjectiveDomain(String name, int size, int numTargets, Objective objective) {
+		super(name, size, numTargets);
+		this.objective = objective;
+
+		unit = objective.getWidth() / size;
+		Vector3D minimum = objective.getMinimum();
+		mx = minimum.getDoubleX();
+		my = minimum.getDoubleY();
+		mz = minimum.getDoubleZ();
+	}
+
+	/**
+	 * Get the objective that shapes the landscape of this domain.
+	 * @return the objective.
+	 */
+	public Objective getObjective() {
+		return objective;
+	}
+
+	/**
+	 * Get the height of the landscape at a point, as seen from a target.
+	 * @param x the X coordinate of the point.
+	 * @param y the Y coordinate of the point.
+	 * @param z the Z coordinate of the point.
+	 * @param tx the X coordinate of the target.
+	 * @param ty the Y coordinate of the target.
+	 * @param tz the Z coordinate of the target.
+	 * @return the value of the objective at the point.
+	 */
+	public double getValue(int x, int y, int z, int tx, int ty, int tz) {
+		return objective.value(mx + ((x - tx) * unit), my + ((y - ty) * unit), mz + ((z - tz) * unit));
+	}
+
+	@Override
+	protected int getDirection(int x, int y, int z, int tx, int ty, int tz) {
+		double here = getValue(x, y, z, tx, ty, tz);
+
+		int dx = step(here, getValue(x + 1, y, z, tx, ty, tz), getValue(x - 1, y, z, tx, ty, tz));
+		int dy = step(here, getValue(x, y + 1, z, tx, ty, tz), getValue(x, y - 1, z, tx, ty, tz));
+		int dz = step(here, getValue(x, y, z + 1, tx, ty, tz), getValue(x, y, z - 1, tx, ty, tz));
+
+		return Evaluation.hint(dx, dy, dz);
+	}
+
+	// the step towards the lowest of a point and its two neighbours
+	private static int step(double here, double up, double down) {
+		if(up < here && up <= down)
+			return 1;
+		if(down < here && down < up)
+			return -1;
+
+		return 0;
+	}
+
+	@Override
+	public String toString() {
+		return super.toString() + "\nObjective: " + objective;
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.objective;
+
+/**
+ * This class creates objectives from short text descriptions, such as
+ * those given on a command line. A description is the name of an objective
+ * followed by its parameters, separated by colons:
+ * <ul>
+ *   <li>{@code rastrigin}</li>
+ *   <li>{@code rosenbrock}</li>
+ *   <li>{@code gaussian:<pits>} or {@code gaussian:<pits>:<seed>}</li>
+ * </ul>
+ * @author Robert Haines
+ */
+public final class Objectives {
+
+	private static final long MIXTURE_SEED = 17;
+
+	private Objectives() {
+	}
+
+	/**
+	 * Create an objective from its description.
+	 * @param spec the description of the objective.
+	 * @return the objective.
+	 * @throws IllegalArgumentException if the description is not understood.
+	 */
+	public static Objective parse(String spec) {
+		String[] parts = spec.split(":");
+		String objective = parts[0];
+
+		if(objective.equals("rastrigin") && parts.length == 1)
+			return new Rastrigin();
+		else if(objective.equals("rosenbrock") && parts.length == 1)
+			return new Rosenbrock();
+		else if(objective.equals("gaussian") && parts.length == 2)
+			return new GaussianMixture(MIXTURE_SEED, Integer.parseInt(parts[1]));
+		else if(objective.equals("gaussian") && parts.length == 3)
+			return new GaussianMixture(Long.parseLong(parts[2]), Integer.parseInt(parts[1]));
+
+		throw new IllegalArgumentException("Unknown objective: " + spec);
+	}
+}
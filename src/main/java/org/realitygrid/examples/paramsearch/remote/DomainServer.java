@@ -0,0 +1,506 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.remote;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.Point3D;
+import org.realitygrid.examples.paramsearch.PointBatch;
+import org.realitygrid.examples.paramsearch.Vector3D;
+import org.realitygrid.examples.paramsearch.cost.CostModels;
+
+/**
+ * This class serves a {@link Domain} over the network, so that crawlers
+ * can search it from another host through a {@link RemoteDomain}. It
+ * speaks the binary protocol described in {@link Protocol}.
+ * <p/>All connections are handled by a single thread using non-blocking
+ * I/O. Requests that test points, and so pay the domain's cost, are handed
+ * to the domain's executor (see {@link Domain#getExecutor()}) so that a
+ * slow test holds up neither other clients nor other requests from the
+ * same client; the rest are answered straight away. Each client may have
+ * any number of requests outstanding and their responses are sent as they
+ * are ready.
+ * <p/>This can also be run as a program:
+ * <p/>{@code Usage: java DomainServer [OPTIONS] <port>}
+ * <p/>{@code Where OPTIONS can be one of:}<br/>
+ * {@code   -b		serve the standard benchmark target set.}<br/>
+ * {@code   -s <size>	the size of the domain (default 300).}<br/>
+ * {@code   -n <number>	the number of targets (default 5).}<br/>
+ * {@code   -e <model>	set the cost of testing a point, as for Runner.}<br/>
+ * {@code   -a		let the targets be found in any order.}
+ * @author Robert Haines
+ * @see RemoteDomain
+ */
+public final class DomainServer implements Closeable {
+
+	private static final int DOMAIN_SIZE = 300;
+	private static final int NUM_TARGETS = 5;
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final Domain domain;
+	private final byte[] name;
+	private final Selector selector;
+	private final ServerSocketChannel server;
+	private final Queue<Connection> writable;
+	private final Thread thread;
+	private volatile boolean closed;
+
+	/**
+	 * Create a server for a domain, listening on the specified address. The
+	 * server does not accept connections until it is started.
+	 * @param domain the domain to serve.
+	 * @param address the address to listen on. A port of zero picks any
+	 * free port; see {@link #getAddress()}.
+	 * @throws IOException if the address cannot be listened on.
+	 */
+	public DomainServer(Domain domain, InetSocketAddress address) throws IOException {
+		this.domain = domain;
+		name = domain.getName().getBytes(StandardCharsets.UTF_8);
+		writable = new ConcurrentLinkedQueue<Connection>();
+
+		selector = Selector.open();
+		server = ServerSocketChannel.open();
+		try {
+			server.bind(address);
+			server.configureBlocking(false);
+			server.register(selector, SelectionKey.OP_ACCEPT);
+		} catch(IOException e) {
+			server.close();
+			selector.close();
+			throw e;
+		}
+
+		thread = new Thread("domain-server") {
+			public void run() {
+				serve();
+			}
+		};
+		thread.setDaemon(true);
+	}
+
+	/**
+	 * Start accepting connections.
+	 */
+	public void start() {
+		thread.start();
+	}
+
+	/**
+	 * Get the address the server is listening on.
+	 * @return the address.
+	 */
+	public InetSocketAddress getAddress() {
+		try {
+			return (InetSocketAddress) server.getLocalAddress();
+		} catch(IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Stop the server and close all its connections. Tests in progress are
+	 * finished but their results are not sent.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		selector.wakeup();
+		if(thread.isAlive() && Thread.currentThread() != thread) {
+			try {
+				thread.join();
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		else if(!thread.isAlive())
+			shutdown();
+	}
+
+	private void serve() {
+		try {
+			while(!closed) {
+				selector.select();
+
+				Connection c;
+				while((c = writable.poll()) != null)
+					c.enableWrite();
+
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while(keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					if(!key.isValid())
+						continue;
+
+					try {
+						if(key.isAcceptable())
+							accept();
+						else {
+							c = (Connection) key.attachment();
+							if(key.isReadable())
+								c.read();
+							if(key.isValid() && key.isWritable())
+								c.write();
+						}
+					} catch(IOException e) {
+						if(key.attachment() != null)
+							((Connection) key.attachment()).close();
+					}
+				}
+			}
+		} catch(IOException e) {
+			System.err.println("Domain server stopped: " + e.getMessage());
+		} finally {
+			shutdown();
+		}
+	}
+
+	private void shutdown() {
+		if(!selector.isOpen())
+			return;
+
+		for(SelectionKey key : selector.keys()) {
+			try {
+				key.channel().close();
+			} catch(IOException e) {
+				// closing anyway
+			}
+		}
+		try {
+			selector.close();
+			server.close();
+		} catch(IOException e) {
+			// closing anyway
+		}
+	}
+
+	private void accept() throws IOException {
+		SocketChannel channel = server.accept();
+		if(channel == null)
+			return;
+
+		channel.configureBlocking(false);
+		channel.setOption(StandardSocketOptions.TCP_NODELAY, Boolean.TRUE);
+		Connection c = new Connection(channel);
+		c.key = channel.register(selector, SelectionKey.OP_READ, c);
+	}
+
+	// answer a request; the frame holds the request number, operation and
+	// arguments
+	private ByteBuffer handle(ByteBuffer request) {
+		int id = request.getInt();
+		byte op = request.get();
+
+		try {
+			switch(op) {
+			case Protocol.HELLO: {
+				ByteBuffer r = Protocol.frame(id, Protocol.OK, 20 + name.length);
+				r.putInt(Protocol.VERSION).putInt(domain.getSize()).putInt(domain.getNumTargets())
+						.putInt(domain.getError());
+				Protocol.putString(r, name);
+				return r;
+			}
+			case Protocol.EVALUATE: {
+				int[] outcome = new int[4];
+				int result = domain.evaluate(request.getInt(), request.getInt(), request.getInt(),
+						outcome);
+				ByteBuffer r = Protocol.frame(id, Protocol.OK, 20).putInt(result);
+				for(int o : outcome)
+					r.putInt(o);
+				return r;
+			}
+			case Protocol.BATCH: {
+				int n = request.getInt();
+				if(n < 0 || (long) n * 12 != request.remaining())
+					throw new IllegalArgumentException("Bad batch of " + n + " points.");
+
+				PointBatch batch = new PointBatch(n);
+				for(int i = 0; i < n; i++)
+					batch.append(request.getInt(), request.getInt(), request.getInt());
+				int[] results = new int[n];
+				PointBatch targets = new PointBatch();
+				int found = domain.evaluateBatch(batch, results, targets);
+
+				ByteBuffer r = Protocol.frame(id, Protocol.OK, 4 + (4 * n) + (12 * found));
+				r.putInt(found);
+				r.asIntBuffer().put(results);
+				r.position(r.position() + (4 * n));
+				for(int i = 0; i < found; i++)
+					r.putInt(targets.getX(i)).putInt(targets.getY(i)).putInt(targets.getZ(i));
+				return r;
+			}
+			case Protocol.DIRECTION: {
+				int hint = domain.getDirection(request.getInt(), request.getInt(), request.getInt());
+				return Protocol.frame(id, Protocol.OK, 4).putInt(hint);
+			}
+			case Protocol.PROBE: {
+				int hint = domain.probe(request.getInt(), request.getInt(), request.getInt());
+				return Protocol.frame(id, Protocol.OK, 4).putInt(hint);
+			}
+			case Protocol.WITHIN:
+				return point(id, domain.isWithinError(request.getInt(), request.getInt(), request.getInt()));
+			case Protocol.HINT:
+				return point(id, domain.getHint());
+			case Protocol.SEARCH: {
+				Vector3D v = domain.search(new Point3D(request.getInt(), request.getInt(), request.getInt()));
+				return Protocol.frame(id, Protocol.OK, 24).putDouble(v.getDoubleX())
+						.putDouble(v.getDoubleY()).putDouble(v.getDoubleZ());
+			}
+			case Protocol.NUM_FOUND:
+				return Protocol.frame(id, Protocol.OK, 4).putInt(domain.getNumFound());
+			case Protocol.RESET:
+				domain.reset();
+				return Protocol.frame(id, Protocol.OK, 0);
+			default:
+				throw new IllegalArgumentException("Unknown operation: " + op);
+			}
+		} catch(RuntimeException e) {
+			return error(id, e);
+		}
+	}
+
+	private static ByteBuffer point(int id, Point3D p) {
+		ByteBuffer r = Protocol.frame(id, Protocol.OK, 13);
+		if(p == null)
+			return r.put((byte) 0).putInt(0).putInt(0).putInt(0);
+
+		return r.put((byte) 1).putInt(p.getIntX()).putInt(p.getIntY()).putInt(p.getIntZ());
+	}
+
+	private static ByteBuffer error(int id, Exception e) {
+		String message = e.getClass().getSimpleName() + ": " + e.getMessage();
+		byte[] utf8 = message.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer r = Protocol.frame(id, Protocol.ERROR, 4 + utf8.length);
+		Protocol.putString(r, utf8);
+
+		return r;
+	}
+
+	private static boolean isCostly(byte op) {
+		return op == Protocol.EVALUATE || op == Protocol.BATCH || op == Protocol.WITHIN
+				|| op == Protocol.PROBE;
+	}
+
+	/*
+	 * A client connection: its channel, the bytes read from it that are not
+	 * yet a whole frame, and the responses waiting to be sent.
+	 */
+	private final class Connection {
+		private final SocketChannel channel;
+		private final Queue<ByteBuffer> responses;
+		private ByteBuffer in;
+		SelectionKey key;
+
+		Connection(SocketChannel channel) {
+			this.channel = channel;
+			responses = new ConcurrentLinkedQueue<ByteBuffer>();
+			in = ByteBuffer.allocate(BUFFER_SIZE);
+		}
+
+		void read() throws IOException {
+			if(channel.read(in) < 0) {
+				close();
+				return;
+			}
+
+			in.flip();
+			while(in.remaining() >= 4) {
+				int length = in.getInt(in.position());
+				if(length < Protocol.HEADER - 4 || length > Protocol.MAX_FRAME) {
+					close();
+					return;
+				}
+				if(in.remaining() < 4 + length)
+					break;
+
+				ByteBuffer request = ByteBuffer.allocate(length);
+				in.getInt();
+				int limit = in.limit();
+				in.limit(in.position() + length);
+				request.put(in);
+				in.limit(limit);
+				request.flip();
+				dispatch(request);
+			}
+			in.compact();
+
+			// make room for a frame bigger than the buffer
+			if(!in.hasRemaining()) {
+				ByteBuffer bigger = ByteBuffer.allocate(in.capacity() * 2);
+				in.flip();
+				bigger.put(in);
+				in = bigger;
+			}
+		}
+
+		private void dispatch(final ByteBuffer request) {
+			if(!isCostly(request.get(4))) {
+				send(handle(request));
+				return;
+			}
+
+			try {
+				domain.getExecutor().execute(new Runnable() {
+					public void run() {
+						send(handle(request));
+						writable.add(Connection.this);
+						selector.wakeup();
+					}
+				});
+			} catch(RejectedExecutionException e) {
+				send(error(request.getInt(0), e));
+			}
+		}
+
+		private void send(ByteBuffer response) {
+			response.flip();
+			responses.add(response);
+			if(Thread.currentThread() == thread)
+				enableWrite();
+		}
+
+		void enableWrite() {
+			if(key.isValid())
+				key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+		}
+
+		void write() throws IOException {
+			ByteBuffer b;
+			while((b = responses.peek()) != null) {
+				channel.write(b);
+				if(b.hasRemaining())
+					return;
+				responses.poll();
+			}
+			key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+
+			// a response may have been added since the queue was found empty
+			if(!responses.isEmpty())
+				enableWrite();
+		}
+
+		void close() {
+			key.cancel();
+			try {
+				channel.close();
+			} catch(IOException e) {
+				// closing anyway
+			}
+		}
+	}
+
+	public static void main(String[] args) {
+		String name = "Remote" + System.getProperty("user.name");
+		int size = DOMAIN_SIZE;
+		int numTargets = NUM_TARGETS;
+		String cost = null;
+		boolean anyOrder = false;
+		int port = 0;
+
+		try {
+			if(args.length < 1)
+				throw new IllegalArgumentException();
+
+			for(int i = 0; i < args.length - 1; i++) {
+				if(args[i].equals("-b"))
+					name = "Benchmark";
+				else if(args[i].equals("-s") && i < args.length - 2)
+					size = Integer.parseInt(args[++i]);
+				else if(args[i].equals("-n") && i < args.length - 2)
+					numTargets = Integer.parseInt(args[++i]);
+				else if(args[i].equals("-e") && i < args.length - 2)
+					cost = args[++i];
+				else if(args[i].equals("-a"))
+					anyOrder = true;
+				else
+					throw new IllegalArgumentException();
+			}
+			port = Integer.parseInt(args[args.length - 1]);
+		} catch(IllegalArgumentException e) {
+			usage();
+			System.exit(1);
+		}
+
+		try {
+			Domain domain = new Domain(name, size, numTargets);
+			if(cost != null)
+				domain.setCostModel(CostModels.parse(cost, size));
+			domain.setAnyOrder(anyOrder);
+
+			DomainServer server = new DomainServer(domain, new InetSocketAddress(port));
+			System.out.println("Serving domain " + name + " on " + server.getAddress());
+			server.thread.setDaemon(false);
+			server.start();
+		} catch(Exception e) {
+			System.err.println("Cannot start server: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	private static void usage() {
+		System.err.println("Usage: java DomainServer [OPTIONS] <port>");
+		System.err.println("\nWhere OPTIONS can be one of:");
+		System.err.println("  -b\t\tserve the standard benchmark target set.");
+		System.err.println("  -s <size>\tthe size of the domain (default " + DOMAIN_SIZE + ").");
+		System.err.println("  -n <number>\tthe number of targets (default " + NUM_TARGETS + ").");
+		System.err.println("  -e <model>\tset the cost of testing a point, as for Runner.");
+		System.err.println("  -a\t\tlet the targets be found in any order.");
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.remote;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The constants of the binary protocol spoken between a
+ * {@link DomainServer} and a {@link RemoteDomain}, and a few helpers for it.
+ * <p/>Every message is a frame: a four byte length, which counts the bytes
+ * after it, a four byte request number, a one byte operation (in requests)
+ * or status (in responses), then the operation's arguments or results. All
+ * numbers are big-endian ints unless stated otherwise. A response carries
+ * the number of the request it answers; responses may come back in a
+ * different order from their requests, so a client may have many requests
+ * outstanding at once.
+ * <p/>The operations, with their arguments and results, are:
+ * <ul>
+ *   <li>HELLO: none; version, size, number of targets, tolerance (or -1
+ *   if it is not known), name length, name (UTF-8).</li>
+ *   <li>EVALUATE: x, y, z; result (see
+ *   {@link org.realitygrid.examples.paramsearch.Evaluation}), number of
+ *   targets found, then the x, y, z of the target found, or zeros. See
+ *   {@link org.realitygrid.examples.paramsearch.Domain#evaluate(int, int, int, int[])}.</li>
+ *   <li>BATCH: count, then x, y, z for each point; number of targets found,
+ *   then a result for each point, then the x, y, z of each target found.
+ *   The points are tested in order.</li>
+ *   <li>DIRECTION: x, y, z; hint.</li>
+ *   <li>WITHIN: x, y, z; one byte, 1 if found, then the x, y, z of the
+ *   target found.</li>
+ *   <li>HINT: none; one byte, 1 if there is a current target, then x, y,
+ *   z.</li>
+ *   <li>SEARCH: x, y, z; the x, y, z of the vector, as doubles.</li>
+ *   <li>NUM_FOUND: none; the number of targets found.</li>
+ *   <li>RESET: none; none.</li>
+ *   <li>PROBE: x, y, z; hint.</li>
+ * </ul>
+ * A response with the ERROR status holds a message length and a message
+ * (UTF-8) instead of results.
+ * @author Robert Haines
+ */
+final class Protocol {
+
+	static final int VERSION = 2;
+
+	static final byte HELLO = 0;
+	static final byte EVALUATE = 1;
+	static final byte BATCH = 2;
+	static final byte DIRECTION = 3;
+	static final byte WITHIN = 4;
+	static final byte HINT = 5;
+	static final byte SEARCH = 6;
+	static final byte NUM_FOUND = 7;
+	static final byte RESET = 8;
+	static final byte PROBE = 9;
+
+	static final byte OK = 0;
+	static final byte ERROR = 1;
+
+	// the length, request number and operation or status
+	static final int HEADER = 9;
+
+	// the largest frame either side will accept
+	static final int MAX_FRAME = 1 << 24;
+
+	// the most points that fit in one BATCH frame, and whose results fit in
+	// the response even if every point finds a target
+	static final int MAX_BATCH = (MAX_FRAME - HEADER - 4) / 16;
+
+	private Protocol() {
+	}
+
+	/**
+	 * Create a frame with its header filled in, ready for its body.
+	 */
+	static ByteBuffer frame(int id, byte type, int bodyLength) {
+		ByteBuffer b = ByteBuffer.allocate(HEADER + bodyLength);
+		b.putInt(HEADER - 4 + bodyLength);
+		b.putInt(id);
+		b.put(type);
+
+		return b;
+	}
+
+	static void putString(ByteBuffer b, byte[] utf8) {
+		b.putInt(utf8.length);
+		b.put(utf8);
+	}
+
+	static String getString(ByteBuffer b) {
+		byte[] utf8 = new byte[b.getInt()];
+		b.get(utf8);
+
+		return new String(utf8, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,525 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.remote;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.Point3D;
+import org.realitygrid.examples.paramsearch.PointBatch;
+import org.realitygrid.examples.paramsearch.Vector3D;
+import org.realitygrid.examples.paramsearch.cost.Budget;
+import org.realitygrid.examples.paramsearch.cost.CostModel;
+
+/**
+ * This class is a {@link Domain} that is really a domain elsewhere, served
+ * by a {@link DomainServer}. Each test of a point is sent to the server, so
+ * any crawler can search a remote domain without being changed.
+ * <p/>A remote domain has a single connection to its server, over which
+ * any number of requests may be outstanding at once: requests from
+ * different threads, and those made with
+ * {@link #evaluateAsync(int, int, int)}, do not wait for each other's
+ * responses. A single thread reads all the responses and completes the
+ * requests they answer.
+ * <p/>The cost of testing or probing a point is paid, and counted against
+ * its budget, on the server, so the cost models and budgets of a remote
+ * domain can be neither got nor set here, and nor can the domain be
+ * saved. Whether its targets may be found in any order is also decided on
+ * the server. Cancelling an asynchronous test does not stop it on the
+ * server. If the connection fails, the request that finds out, and all
+ * those outstanding, fail with an {@link UncheckedIOException}; errors on
+ * the server are raised as {@link IllegalStateException}s.
+ * @author Robert Haines
+ * @see DomainServer
+ */
+public class RemoteDomain extends Domain implements Closeable {
+
+	private static final Function<ByteBuffer, Integer> INT = new Function<ByteBuffer, Integer>() {
+		public Integer apply(ByteBuffer b) {
+			return b.getInt();
+		}
+	};
+
+	private final SocketChannel channel;
+	private final InetSocketAddress address;
+	private final int numTargets;
+	private final int error;
+	private final Map<Integer, CompletableFuture<ByteBuffer>> pending;
+	private final AtomicInteger nextId;
+	private final Object writeLock;
+	private volatile IOException failure;
+
+	private RemoteDomain(SocketChannel channel, InetSocketAddress address, String name,
+			int size, int numTargets, int error) {
+		super(name, size);
+		this.channel = channel;
+		this.address = address;
+		this.numTargets = numTargets;
+		this.error = error;
+		pending = new ConcurrentHashMap<Integer, CompletableFuture<ByteBuffer>>();
+		nextId = new AtomicInteger(1);
+		writeLock = new Object();
+		failure = null;
+
+		Thread reader = new Thread("remote-domain-reader") {
+			public void run() {
+				readResponses();
+			}
+		};
+		reader.setDaemon(true);
+		reader.start();
+	}
+
+	/**
+	 * Connect to a domain served by a {@link DomainServer}.
+	 * @param address the address of the server.
+	 * @return the remote domain.
+	 * @throws IOException if the server cannot be reached or does not speak
+	 * the same protocol.
+	 */
+	public static RemoteDomain connect(InetSocketAddress address) throws IOException {
+		SocketChannel channel = SocketChannel.open(address);
+		try {
+			channel.setOption(StandardSocketOptions.TCP_NODELAY, Boolean.TRUE);
+
+			ByteBuffer hello = Protocol.frame(0, Protocol.HELLO, 0);
+			hello.flip();
+			while(hello.hasRemaining())
+				channel.write(hello);
+
+			ByteBuffer r = readFrame(channel);
+			r.getInt();
+			if(r.get() != Protocol.OK || r.getInt() != Protocol.VERSION)
+				throw new IOException("Server at " + address + " does not speak version "
+						+ Protocol.VERSION + " of the protocol.");
+			int size = r.getInt();
+			int numTargets = r.getInt();
+			int error = r.getInt();
+			String name = Protocol.getString(r);
+
+			return new RemoteDomain(channel, address, name, size, numTargets, error);
+		} catch(IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Connect to a domain served by a {@link DomainServer}.
+	 * @param host the host name of the server.
+	 * @param port the port of the server.
+	 * @return the remote domain.
+	 * @throws IOException if the server cannot be reached or does not speak
+	 * the same protocol.
+	 */
+	public static RemoteDomain connect(String host, int port) throws IOException {
+		return connect(new InetSocketAddress(host, port));
+	}
+
+	/**
+	 * Get the address of the server.
+	 * @return the address of the server.
+	 */
+	public InetSocketAddress getAddress() {
+		return address;
+	}
+
+	/**
+	 * Close the connection to the server. Requests still outstanding fail.
+	 */
+	@Override
+	public void close() {
+		fail(new IOException("Connection closed."));
+	}
+
+	@Override
+	public int getNumTargets() {
+		return numTargets;
+	}
+
+	/**
+	 * The tolerance of a remote domain is that of the domain its server
+	 * serves, which the server gives when it is connected to.
+	 * @return the tolerance, or -1 if the server does not know it.
+	 */
+	@Override
+	public int getError() {
+		return error;
+	}
+
+	@Override
+	public int getNumFound() {
+		return await(request(Protocol.frame(id(), Protocol.NUM_FOUND, 0)).thenApply(INT));
+	}
+
+	@Override
+	public void reset() {
+		await(request(Protocol.frame(id(), Protocol.RESET, 0)));
+	}
+
+	@Override
+	public Vector3D search(Point3D location) {
+		if(location == null)
+			return null;
+
+		ByteBuffer r = await(request(point(Protocol.SEARCH,
+				location.getIntX(), location.getIntY(), location.getIntZ())));
+
+		return new Vector3D(r.getDouble(), r.getDouble(), r.getDouble());
+	}
+
+	@Override
+	public int getDirection(int x, int y, int z) {
+		return await(request(point(Protocol.DIRECTION, x, y, z)).thenApply(INT));
+	}
+
+	@Override
+	public Point3D isWithinError(int x, int y, int z) {
+		return getPoint(await(request(point(Protocol.WITHIN, x, y, z))));
+	}
+
+	@Override
+	public int evaluate(int x, int y, int z) {
+		return await(evaluateAsync(x, y, z));
+	}
+
+	@Override
+	public int evaluate(int x, int y, int z, int[] outcome) {
+		if(outcome.length < 4)
+			throw new IllegalArgumentException("Outcome array too short: " + outcome.length);
+
+		ByteBuffer r = await(request(point(Protocol.EVALUATE, x, y, z)));
+		int result = r.getInt();
+		for(int i = 0; i < 4; i++)
+			outcome[i] = r.getInt();
+
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p/>Cancelling the returned future does not stop the test on the
+	 * server.
+	 */
+	@Override
+	public CompletableFuture<Integer> evaluateAsync(int x, int y, int z) {
+		return request(point(Protocol.EVALUATE, x, y, z)).thenApply(INT);
+	}
+
+	@Override
+	public int probe(int x, int y, int z) {
+		return await(request(point(Protocol.PROBE, x, y, z)).thenApply(INT));
+	}
+
+	@Override
+	public int evaluateBatch(PointBatch batch, int[] results, PointBatch found) {
+		int n = batch.size();
+		if(results.length < n)
+			throw new IllegalArgumentException("Results array too short for batch: "
+					+ results.length + " < " + n);
+
+		// batches too big for one frame are sent in parts, one at a time so
+		// that their points are still tested in order
+		int count = 0;
+		for(int from = 0; from < n; from += Protocol.MAX_BATCH) {
+			int to = Math.min(n, from + Protocol.MAX_BATCH);
+			ByteBuffer f = Protocol.frame(id(), Protocol.BATCH, 4 + (12 * (to - from)));
+			f.putInt(to - from);
+			for(int i = from; i < to; i++)
+				f.putInt(batch.getX(i)).putInt(batch.getY(i)).putInt(batch.getZ(i));
+
+			ByteBuffer r = await(request(f));
+			int targets = r.getInt();
+			r.asIntBuffer().get(results, from, to - from);
+			r.position(r.position() + (4 * (to - from)));
+			for(int i = 0; i < targets; i++) {
+				int x = r.getInt();
+				int y = r.getInt();
+				int z = r.getInt();
+				if(found != null)
+					found.append(x, y, z);
+			}
+			count += targets;
+		}
+
+		return count;
+	}
+
+	@Override
+	public Point3D getHint() {
+		return getPoint(await(request(Protocol.frame(id(), Protocol.HINT, 0))));
+	}
+
+	/**
+	 * The cost model of a remote domain is on the server.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public CostModel getCostModel() {
+		throw new UnsupportedOperationException("The cost model of a remote domain is on its server.");
+	}
+
+	/**
+	 * The cost model of a remote domain is on the server.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public void setCostModel(CostModel costModel) {
+		throw new UnsupportedOperationException("The cost model of a remote domain is on its server.");
+	}
+
+	/**
+	 * The cost model of a remote domain is on the server.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public CostModel getProbeCostModel() {
+		throw new UnsupportedOperationException("The cost model of a remote domain is on its server.");
+	}
+
+	/**
+	 * The cost model of a remote domain is on the server.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public void setProbeCostModel(CostModel probeCostModel) {
+		throw new UnsupportedOperationException("The cost model of a remote domain is on its server.");
+	}
+
+	/**
+	 * The budgets of a remote domain are on the server.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public Budget getTestBudget() {
+		throw new UnsupportedOperationException("The budgets of a remote domain are on its server.");
+	}
+
+	/**
+	 * The budgets of a remote domain are on the server.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public void setTestBudget(Budget testBudget) {
+		throw new UnsupportedOperationException("The budgets of a remote domain are on its server.");
+	}
+
+	/**
+	 * The budgets of a remote domain are on the server.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public Budget getProbeBudget() {
+		throw new UnsupportedOperationException("The budgets of a remote domain are on its server.");
+	}
+
+	/**
+	 * The budgets of a remote domain are on the server.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public void setProbeBudget(Budget probeBudget) {
+		throw new UnsupportedOperationException("The budgets of a remote domain are on its server.");
+	}
+
+	/**
+	 * The order in which the targets of a remote domain must be found is
+	 * set on the server.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public boolean isAnyOrder() {
+		throw new UnsupportedOperationException("The targets of a remote domain are on its server.");
+	}
+
+	/**
+	 * The order in which the targets of a remote domain must be found is
+	 * set on the server.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public void setAnyOrder(boolean anyOrder) {
+		throw new UnsupportedOperationException("The targets of a remote domain are on its server.");
+	}
+
+	/**
+	 * The targets of a remote domain are on the server.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public void save(File file) {
+		throw new UnsupportedOperationException("The targets of a remote domain are on its server.");
+	}
+
+	@Override
+	public String toString() {
+		return "RemoteDomain [name=" + getName() + ", size=" + getSize()
+		+ ", targets=" + numTargets + ", server=" + address + "]";
+	}
+
+	private int id() {
+		return nextId.getAndIncrement();
+	}
+
+	private ByteBuffer point(byte op, int x, int y, int z) {
+		return Protocol.frame(id(), op, 12).putInt(x).putInt(y).putInt(z);
+	}
+
+	private static Point3D getPoint(ByteBuffer r) {
+		if(r.get() == 0)
+			return null;
+
+		return Point3D.of(r.getInt(), r.getInt(), r.getInt());
+	}
+
+	// send a request frame and return a future for the body of its response
+	private CompletableFuture<ByteBuffer> request(ByteBuffer frame) {
+		CompletableFuture<ByteBuffer> result = new CompletableFuture<ByteBuffer>();
+		int id = frame.getInt(4);
+		pending.put(id, result);
+
+		IOException f = failure;
+		if(f != null) {
+			pending.remove(id);
+			result.completeExceptionally(new UncheckedIOException(f));
+			return result;
+		}
+
+		frame.flip();
+		try {
+			synchronized(writeLock) {
+				while(frame.hasRemaining())
+					channel.write(frame);
+			}
+		} catch(IOException e) {
+			fail(e);
+		}
+
+		return result;
+	}
+
+	private static <T> T await(CompletableFuture<T> f) {
+		try {
+			return f.join();
+		} catch(CompletionException e) {
+			if(e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw e;
+		}
+	}
+
+	private void readResponses() {
+		try {
+			while(true) {
+				ByteBuffer r = readFrame(channel);
+				int id = r.getInt();
+				byte status = r.get();
+				CompletableFuture<ByteBuffer> f = pending.remove(id);
+				if(f == null)
+					continue;
+
+				if(status == Protocol.OK)
+					f.complete(r);
+				else
+					f.completeExceptionally(new IllegalStateException("Server error: "
+							+ Protocol.getString(r)));
+			}
+		} catch(IOException e) {
+			fail(e);
+		}
+	}
+
+	// fail all outstanding and future requests and close the connection
+	private synchronized void fail(IOException e) {
+		if(failure == null)
+			failure = e;
+		try {
+			channel.close();
+		} catch(IOException ignored) {
+			// closing anyway
+		}
+
+		for(Integer id : pending.keySet()) {
+			CompletableFuture<ByteBuffer> f = pending.remove(id);
+			if(f != null)
+				f.completeExceptionally(new UncheckedIOException(failure));
+		}
+	}
+
+	private static ByteBuffer readFrame(SocketChannel channel) throws IOException {
+		ByteBuffer length = ByteBuffer.allocate(4);
+		readFully(channel, length);
+		int n = length.getInt(0);
+		if(n < Protocol.HEADER - 4 || n > Protocol.MAX_FRAME)
+			throw new IOException("Bad frame length: " + n);
+
+		ByteBuffer frame = ByteBuffer.allocate(n);
+		readFully(channel, frame);
+		frame.flip();
+
+		return frame;
+	}
+
+	private static void readFully(SocketChannel channel, ByteBuffer b) throws IOException {
+		while(b.hasRemaining())
+			if(channel.read(b) < 0)
+				throw new EOFException("Connection closed by server.");
+	}
+}
@@ -45,13 +45,25 @@
 
 package org.realitygrid.examples.paramsearch.runner;
 
+import java.io.Closeable;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 
 import javax.swing.JFrame;
 
 import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.EvaluationCache;
+import org.realitygrid.examples.paramsearch.Point3D;
+import org.realitygrid.examples.paramsearch.Point3DCache;
+import org.realitygrid.examples.paramsearch.cost.Budget;
+import org.realitygrid.examples.paramsearch.cost.BudgetExhaustedException;
+import org.realitygrid.examples.paramsearch.cost.CostModel;
+import org.realitygrid.examples.paramsearch.cost.CostModels;
 import org.realitygrid.examples.paramsearch.crawlers.AbstractCrawler;
+import org.realitygrid.examples.paramsearch.objective.Objective;
+import org.realitygrid.examples.paramsearch.objective.ObjectiveDomain;
+import org.realitygrid.examples.paramsearch.objective.Objectives;
+import org.realitygrid.examples.paramsearch.remote.RemoteDomain;
 import org.realitygrid.examples.paramsearch.ui.MainWindow;
 
 /**
@@ -69,6 +81,7 @@ public final class Runner {
 	private MainWindow window;
 	private Domain domain;
 	private String crawlerName;
+	private long testLimit = Budget.UNLIMITED;
 
 	/**
 	 * This is the standard entry point for this example. It creates a Runner
@@ -77,14 +90,36 @@ public final class Runner {
 	 * <p/>{@code Usage: java Runner [OPTIONS] <Crawler>}
 	 * <p/>{@code Where OPTIONS can be one of:}<br/>
 	 * {@code   -b		benchmark the crawler with a standard target set.}<br/>
-	 * {@code   -c		console only, no user interface (implies -b).}
+	 * {@code   -c		console only, no user interface (implies -b).}<br/>
+	 * {@code   -p <size>	share points through a cache of the given size.}<br/>
+	 * {@code   -m <size>	remember up to the given number of test results.}<br/>
+	 * {@code   -a		let the targets be found in any order.}<br/>
+	 * {@code   -e <model>	set the cost of testing a point, one of:}<br/>
+	 * {@code 		zero, fixed:<ms>, spin:<ms>, lognormal:<median ms>:<sigma>,}<br/>
+	 * {@code 		pareto:<minimum ms>:<alpha>, location:<minimum ms>:<maximum ms>}<br/>
+	 * {@code 		batch:<setup ms>:<per point ms>}<br/>
+	 * {@code 		or process:<workers>:<timeout ms>:<command>.}<br/>
+	 * {@code   -q <model>	set the cost of probing a point, as for -e.}<br/>
+	 * {@code   -t <tests>	stop each run after the given number of tests.}<br/>
+	 * {@code   -r <host:port>	search a domain served by a DomainServer.}<br/>
+	 * {@code   -o <objective>	give hints from a landscape, one of:}<br/>
+	 * {@code 		rastrigin, rosenbrock or gaussian:<pits>[:<seed>].}<br/>
+	 * {@code 		Crawlers that follow hints can get stuck in a local}<br/>
+	 * {@code 		minimum and never finish, so use -t with them.}
 	 * @param args The command line arguments with which to configure the run.
 	 */
 	public static void main(String[] args) {
 		Runner runner;
 		boolean benchmark = false;
 		boolean noView = false;
+		boolean anyOrder = false;
 		String classname ="";
+		CostModel costModel = null;
+		CostModel probeCostModel = null;
+		EvaluationCache evaluationCache = null;
+		RemoteDomain remote = null;
+		Objective objective = null;
+		long testLimit = Budget.UNLIMITED;
 		double duration = 0.0;
 
 		if(args.length  < 1) {
@@ -93,30 +128,81 @@ public final class Runner {
 		}
 
 		try {
-			if(args.length > 1) {
-				if(args[0].equals("-b")) {
-					benchmark = true;
-					noView = true;
-				}
-				else if(args[0].equals("-c"))
-					noView = true;
-				else {
-					usage();
-					System.exit(1);
+			try {
+				for(int i = 0; i < args.length - 1; i++) {
+					if(args[i].equals("-b")) {
+						benchmark = true;
+						noView = true;
+					}
+					else if(args[i].equals("-c"))
+						noView = true;
+					else if(args[i].equals("-a"))
+						anyOrder = true;
+					else if(args[i].equals("-p") && i < args.length - 2)
+						Point3D.setCache(new Point3DCache(Integer.parseInt(args[++i])));
+					else if(args[i].equals("-m") && i < args.length - 2)
+						evaluationCache = new EvaluationCache(Integer.parseInt(args[++i]));
+					else if(args[i].equals("-e") && i < args.length - 2)
+						costModel = CostModels.parse(args[++i], DOMAIN_SIZE);
+					else if(args[i].equals("-q") && i < args.length - 2)
+						probeCostModel = CostModels.parse(args[++i], DOMAIN_SIZE);
+					else if(args[i].equals("-t") && i < args.length - 2) {
+						testLimit = Long.parseLong(args[++i]);
+						if(testLimit < 1)
+							throw new IllegalArgumentException(args[i]);
+					}
+					else if(args[i].equals("-o") && i < args.length - 2)
+						objective = Objectives.parse(args[++i]);
+					else if(args[i].equals("-r") && i < args.length - 2) {
+						String server = args[++i];
+						int colon = server.lastIndexOf(':');
+						if(colon < 1)
+							throw new IllegalArgumentException(server);
+						remote = RemoteDomain.connect(server.substring(0, colon),
+								Integer.parseInt(server.substring(colon + 1)));
+					}
+					else {
+						usage();
+						System.exit(1);
+					}
 				}
+			} catch (IllegalArgumentException e) {
+				// bad option value
+				usage();
+				System.exit(1);
+			}
+			classname = args[args.length - 1];
 
-				classname = args[1];
+			if(remote != null && (costModel != null || probeCostModel != null || objective != null
+					|| anyOrder || testLimit != Budget.UNLIMITED)) {
+				// the cost, landscape, order and budget of a remote domain are
+				// set on its server
+				usage();
+				System.exit(1);
 			}
-			else
-				classname = args[0];
 
-			runner = new Runner(classname, benchmark);
+			if(remote != null)
+				runner = new Runner(classname, remote);
+			else if(objective != null)
+				runner = new Runner(classname, new ObjectiveDomain(domainName(classname, benchmark),
+						DOMAIN_SIZE, NUM_TARGETS, objective));
+			else
+				runner = new Runner(classname, benchmark);
+			if(costModel != null)
+				runner.setCostModel(costModel);
+			if(probeCostModel != null)
+				runner.domain.setProbeCostModel(probeCostModel);
+			if(anyOrder)
+				runner.domain.setAnyOrder(true);
+			runner.setTestLimit(testLimit);
 			runner.loadClass();
+			if(evaluationCache != null)
+				runner.setEvaluationCache(evaluationCache);
 			if(!noView)
 				runner.createAndShowGUI();
 
 			System.out.println((benchmark ? "Benchmarking" : "Searching") + " class " + classname);
-			System.out.println("Searching for " + NUM_TARGETS + " targets...");
+			System.out.println("Searching for " + runner.domain.getNumTargets() + " targets...");
 			if(benchmark) {
 				double runDuration;
 				for(int i = 1; i <= 5; i++) {
@@ -130,6 +216,25 @@ public final class Runner {
 				duration = runner.run();
 				System.out.println("Completed in " + duration + " seconds");
 			}
+
+			if(Point3D.getCache() != null)
+				System.out.println(Point3D.getCache());
+			if(evaluationCache != null)
+				System.out.println(evaluationCache);
+			if(remote == null) {
+				System.out.println(runner.domain.getTestBudget());
+				System.out.println(runner.domain.getProbeBudget());
+			}
+			if(costModel instanceof Closeable) {
+				System.out.println(costModel);
+				((Closeable) costModel).close();
+			}
+			if(probeCostModel instanceof Closeable) {
+				System.out.println(probeCostModel);
+				((Closeable) probeCostModel).close();
+			}
+			if(remote != null)
+				remote.close();
 		} catch (ClassNotFoundException e) {
 			System.err.println("Cannot find class '" + classname + "' in package. Exiting.");
 			System.exit(1);
@@ -153,13 +258,20 @@ public final class Runner {
 	 */
 	public Runner(String classname, boolean benchmark) {
 		crawlerName = classname;
+		domain = new Domain(domainName(classname, benchmark), DOMAIN_SIZE, NUM_TARGETS);
+	}
 
-		if(benchmark)
-			domain = new Domain("Benchmark", DOMAIN_SIZE, NUM_TARGETS);
-		else {
-			String username = System.getProperty("user.name");
-			domain = new Domain(crawlerName + username, DOMAIN_SIZE, NUM_TARGETS);
-		}
+	/**
+	 * Creates a runner to search the given domain, such as a
+	 * {@link RemoteDomain} or an {@link ObjectiveDomain}.
+	 * 
+	 * @param classname The name of the crawler to be used with this runner. In
+	 * practice this can be anything.
+	 * @param domain The domain to search.
+	 */
+	public Runner(String classname, Domain domain) {
+		crawlerName = classname;
+		this.domain = domain;
 	}
 
 	/**
@@ -172,6 +284,39 @@ public final class Runner {
 		this(classname, false);
 	}
 
+	/**
+	 * Set the cost model of the domain being searched by this runner.
+	 * 
+	 * @param costModel The cost model to use.
+	 * @see org.realitygrid.examples.paramsearch.cost
+	 */
+	public void setCostModel(CostModel costModel) {
+		domain.setCostModel(costModel);
+	}
+
+	/**
+	 * Limit the number of points the crawler may test in each run. A run
+	 * that reaches the limit is stopped, whether or not every target has
+	 * been found.
+	 * 
+	 * @param tests The most tests in a run, or {@link Budget#UNLIMITED}.
+	 * @see Domain#setTestBudget(Budget)
+	 */
+	public void setTestLimit(long tests) {
+		testLimit = tests;
+	}
+
+	/**
+	 * Set a cache to remember the results of testing points for the crawler
+	 * run by this runner. This must be called after the crawler is loaded.
+	 * 
+	 * @param cache The cache to use, or null to stop caching results.
+	 * @see AbstractCrawler#setEvaluationCache(EvaluationCache)
+	 */
+	public void setEvaluationCache(EvaluationCache cache) {
+		crawler.setEvaluationCache(cache);
+	}
+
 	/**
 	 * Get the name of the crawler being used by this runner.
 	 * 
@@ -183,25 +328,41 @@ public final class Runner {
 
 	/**
 	 * Runs the crawler. This simply calls the crawler's run method but
-	 * wraps it with timing code.
+	 * wraps it with timing code. If the run is stopped by the test limit
+	 * the number of targets found is reported.
 	 * 
 	 * @return the time taken, in seconds, by the crawler to complete.
+	 * @see #setTestLimit(long)
 	 */
 	public double run() {
 		domain.reset();
+		if(testLimit != Budget.UNLIMITED)
+			domain.setTestBudget(new Budget("Test", testLimit));
 
 		long startTime = System.currentTimeMillis();
-		crawler.run();
+		try {
+			crawler.run();
+		} catch (BudgetExhaustedException e) {
+			System.out.println("Stopped with " + domain.getNumFound() + " of "
+					+ domain.getNumTargets() + " targets found: " + e.getMessage());
+		}
 		long endTime = System.currentTimeMillis();
 
 		return (endTime - startTime) / 1000.0;
 	}
 
+	private static String domainName(String classname, boolean benchmark) {
+		if(benchmark)
+			return "Benchmark";
+
+		return classname + System.getProperty("user.name");
+	}
+
 	private void loadClass() throws ClassNotFoundException, BadCrawlerException, Exception {
 		Class<?> cls = Class.forName("org.realitygrid.examples.paramsearch.crawlers." + crawlerName);
 		checkSuperclass(cls);
 
-		Constructor<?> cons = cls.getConstructor(new Class[]{domain.getClass()});
+		Constructor<?> cons = cls.getConstructor(new Class[]{Domain.class});
 		crawler = (AbstractCrawler) cons.newInstance(new Object[]{domain});
 	}
 
@@ -233,5 +394,20 @@ public final class Runner {
 		System.err.println("\nWhere OPTIONS can be one of:");
 		System.err.println("  -b\t\tbenchmark the crawler with a standard target set.");
 		System.err.println("  -c\t\tconsole only, no user interface (implies -b).");
+		System.err.println("  -p <size>\tshare points through a cache of the given size.");
+		System.err.println("  -m <size>\tremember up to the given number of test results.");
+		System.err.println("  -a\t\tlet the targets be found in any order.");
+		System.err.println("  -e <model>\tset the cost of testing a point, one of:");
+		System.err.println("\t\tzero, fixed:<ms>, spin:<ms>, lognormal:<median ms>:<sigma>,");
+		System.err.println("\t\tpareto:<minimum ms>:<alpha>, location:<minimum ms>:<maximum ms>");
+		System.err.println("\t\tbatch:<setup ms>:<per point ms>");
+		System.err.println("\t\tor process:<workers>:<timeout ms>:<command>.");
+		System.err.println("  -q <model>\tset the cost of probing a point, as for -e.");
+		System.err.println("  -t <tests>\tstop each run after the given number of tests.");
+		System.err.println("  -r <host:port>\tsearch a domain served by a DomainServer.");
+		System.err.println("  -o <objective>\tgive hints from a landscape, one of:");
+		System.err.println("\t\trastrigin, rosenbrock or gaussian:<pits>[:<seed>].");
+		System.err.println("\t\tCrawlers that follow hints can get stuck in a local");
+		System.err.println("\t\tminimum and never finish, so use -t with them.");
 	}
 }
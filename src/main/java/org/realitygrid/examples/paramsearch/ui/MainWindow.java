@@ -76,7 +76,7 @@ import org.realitygrid.examples.paramsearch.crawlers.AbstractCrawler;
  * @see Domain
  * @see org.realitygrid.examples.paramsearch.crawlers
  */
-public class MainWindow extends JFrame {
+public class MainWindow extends JFrame implements PointView {
 
 	private static final long serialVersionUID = 1L;
 	private static final int PANEL_SIZE = 330;
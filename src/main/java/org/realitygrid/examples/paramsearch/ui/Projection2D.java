@@ -108,8 +108,8 @@ public enum Projection2D {
 	 * @return the resultant 2D point.
 	 */
 	public Point projectPoint(Point3D p) {
-		int x = (this.x.equals("X")) ? p.getX() : p.getZ();
-		int y = (this.y.equals("Y")) ? p.getY() : p.getZ();
+		int x = (this.x.equals("X")) ? p.getIntX() : p.getIntZ();
+		int y = (this.y.equals("Y")) ? p.getIntY() : p.getIntZ();
 		return new Point(x, y);
 	}
 }
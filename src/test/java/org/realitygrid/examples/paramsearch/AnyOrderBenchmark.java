@@ -0,0 +1,125 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import java.util.Random;
+
+import org.realitygrid.examples.paramsearch.cost.FixedCost;
+
+/**
+ * Measure how much faster a team of hunters finds all the targets of a
+ * {@link Domain} in any-order mode than in the usual ordered mode. Each
+ * hunter is a thread that starts at its own random point and follows the
+ * hints until every target has been found. In ordered mode the hunters all
+ * chase the same target; in any-order mode each chases whichever target is
+ * nearest to it. Each test costs a fixed time, so this measures the search
+ * rather than the domain. This is not run as part of the unit tests; run it
+ * by hand with:
+ * <p/>{@code java AnyOrderBenchmark [hunters...]}
+ * <p/>By default it is run for 1, 4 and 16 hunters.
+ * @author Robert Haines
+ */
+public class AnyOrderBenchmark {
+
+	private static final int SIZE = 300;
+	private static final int NUM_TARGETS = 32;
+	private static final double COST = 0.2;
+
+	public static void main(String[] args) throws Exception {
+		int[] counts = { 1, 4, 16 };
+		if(args.length > 0) {
+			counts = new int[args.length];
+			for(int i = 0; i < args.length; i++)
+				counts[i] = Integer.parseInt(args[i]);
+		}
+
+		Domain domain = new Domain("Benchmark", SIZE, NUM_TARGETS);
+		domain.setCostModel(new FixedCost(COST));
+
+		for(int hunters : counts) {
+			double ordered = hunt(domain, hunters, false);
+			double any = hunt(domain, hunters, true);
+			System.out.printf("%2d hunters: ordered %.2fs, any order %.2fs, speed-up %.1fx%n",
+					hunters, ordered, any, ordered / any);
+		}
+	}
+
+	private static double hunt(final Domain domain, int hunters, boolean anyOrder) throws Exception {
+		domain.reset();
+		domain.setAnyOrder(anyOrder);
+
+		final Random random = new Random(hunters);
+		Thread[] threads = new Thread[hunters];
+		for(int i = 0; i < hunters; i++) {
+			final int sx = random.nextInt(SIZE);
+			final int sy = random.nextInt(SIZE);
+			final int sz = random.nextInt(SIZE);
+			threads[i] = new Thread() {
+				public void run() {
+					int x = sx;
+					int y = sy;
+					int z = sz;
+					while(domain.getNumFound() < NUM_TARGETS) {
+						int r = domain.evaluate(x, y, z);
+						if(!Evaluation.isFound(r)) {
+							x += Evaluation.getX(r);
+							y += Evaluation.getY(r);
+							z += Evaluation.getZ(r);
+						}
+					}
+				}
+			};
+		}
+
+		long start = System.nanoTime();
+		for(Thread t : threads)
+			t.start();
+		for(Thread t : threads)
+			t.join();
+
+		return (System.nanoTime() - start) / 1e9;
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+/**
+ * Measure how long it takes to create a {@link Domain}, which is mostly the
+ * time taken to generate, sort and index its targets (see
+ * {@link TargetGenerator}). Each size is run a few times and the best time
+ * reported, so that warming up the JIT does not count. This is not run as
+ * part of the unit tests; run it by hand with:
+ * <p/>{@code java DomainConstructionBenchmark [numTargets...]}
+ * <p/>By default it is run for 10^4, 10^5, 10^6 and 10^7 targets, in a
+ * domain of size 1000, which needs a heap of about 512MB.
+ * @author Robert Haines
+ */
+public class DomainConstructionBenchmark {
+
+	private static final int SIZE = 1000;
+	private static final int RUNS = 5;
+
+	public static void main(String[] args) {
+		int[] counts = { 10000, 100000, 1000000, 10000000 };
+		if(args.length > 0) {
+			counts = new int[args.length];
+			for(int i = 0; i < args.length; i++)
+				counts[i] = Integer.parseInt(args[i]);
+		}
+
+		for(int n : counts) {
+			long best = Long.MAX_VALUE;
+			for(int r = 0; r < RUNS; r++) {
+				long start = System.nanoTime();
+				Domain d = new Domain("Benchmark", SIZE, n);
+				best = Math.min(best, System.nanoTime() - start);
+				if(d.getNumTargets() != n)
+					throw new IllegalStateException("Wrong number of targets: " + d.getNumTargets());
+			}
+
+			System.out.println(String.format("%d targets: %.1f ms, %.1f ns/target", n,
+					best / 1000000.0, (double) best / n));
+		}
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import java.util.Random;
+
+import org.realitygrid.examples.paramsearch.cost.ZeroCost;
+
+/**
+ * Measure how many points a {@link Domain} can test each second when it is
+ * searched by more and more threads at once. The domain has no
+ * {@link org.realitygrid.examples.paramsearch.cost.CostModel cost} so this
+ * measures only the domain itself. Each thread tests random points and,
+ * every so often, a point in the halo of the current target so that targets
+ * are found, and fought over, while the domain is being timed. This is not
+ * run as part of the unit tests; run it by hand with:
+ * <p/>{@code java DomainThroughputBenchmark [threads...]}
+ * <p/>By default it is run for 1, 2, 4 and 8 threads.
+ * @author Robert Haines
+ */
+public class DomainThroughputBenchmark {
+
+	private static final int SIZE = 300;
+	private static final int NUM_TARGETS = 100000;
+	private static final int ERROR = 10;
+	private static final int TESTS = 2000000;
+	private static final int HIT_EVERY = 16;
+
+	public static void main(String[] args) throws Exception {
+		int[] counts = { 1, 2, 4, 8 };
+		if(args.length > 0) {
+			counts = new int[args.length];
+			for(int i = 0; i < args.length; i++)
+				counts[i] = Integer.parseInt(args[i]);
+		}
+
+		Domain domain = new Domain("Benchmark", SIZE, NUM_TARGETS);
+		domain.setCostModel(new ZeroCost());
+
+		// warm up
+		run(domain, 1);
+
+		for(int n : counts)
+			run(domain, n);
+	}
+
+	private static void run(final Domain domain, int threads) throws Exception {
+		domain.reset();
+		final int tests = TESTS / threads;
+		final int[] found = new int[threads];
+		Runnable[] tasks = new Runnable[threads];
+		for(int i = 0; i < threads; i++) {
+			final int n = i;
+			final Random r = new Random(i);
+			tasks[i] = new Runnable() {
+				public void run() {
+					for(int j = 0; j < tests; j++) {
+						int x, y, z;
+						Point3D hint = (j % HIT_EVERY == 0) ? domain.getHint() : null;
+						if(hint != null) {
+							x = hint.getIntX() + ERROR;
+							y = hint.getIntY() + ERROR;
+							z = hint.getIntZ() + ERROR;
+						}
+						else {
+							x = r.nextInt(SIZE);
+							y = r.nextInt(SIZE);
+							z = r.nextInt(SIZE);
+						}
+						if(domain.isWithinError(x, y, z) != null)
+							found[n]++;
+					}
+				}
+			};
+		}
+
+		long start = System.nanoTime();
+		TestTargetIndex.runAll(tasks);
+		long time = System.nanoTime() - start;
+
+		int total = 0;
+		for(int f : found)
+			total += f;
+		System.out.println(String.format("%d threads: %.2f million tests/s, %d targets found",
+				threads, (tests * (double) threads) / (time / 1000.0), total));
+	}
+}
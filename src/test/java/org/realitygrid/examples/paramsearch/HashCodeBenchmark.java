@@ -0,0 +1,141 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import java.util.HashSet;
+
+/**
+ * Measure {@link HashSet} insert and lookup throughput for every point in a
+ * cubic domain, using the current {@link Point3D#hashCode()} and the
+ * additive hash code that {@link Tuple} used previously. This is not run as
+ * part of the unit tests; run it by hand with:
+ * <p/>{@code java HashCodeBenchmark [size]}
+ * <p/>The default size is 100. A size of 300 matches the standard domain but
+ * needs a large heap ({@code -Xmx4g}).
+ * @author Robert Haines
+ */
+public class HashCodeBenchmark {
+
+	public static void main(String[] args) {
+		int size = (args.length > 0) ? Integer.parseInt(args[0]) : 100;
+
+		for(int run = 1; run <= 3; run++) {
+			System.out.println("Run " + run + ", " + size + "^3 points:");
+			report("  additive hash", size, true);
+			report("  mixed hash   ", size, false);
+		}
+	}
+
+	private static void report(String name, int size, boolean additive) {
+		HashSet<Object> set = new HashSet<Object>();
+		long points = (long) size * size * size;
+
+		long start = System.nanoTime();
+		for(int i = 0; i < size; i++)
+			for(int j = 0; j < size; j++)
+				for(int k = 0; k < size; k++)
+					set.add(key(i, j, k, additive));
+		long inserted = System.nanoTime();
+
+		int hits = 0;
+		for(int i = 0; i < size; i++)
+			for(int j = 0; j < size; j++)
+				for(int k = 0; k < size; k++)
+					if(set.contains(key(i, j, k, additive)))
+						hits++;
+		long looked = System.nanoTime();
+
+		int distinct = distinctHashes(set);
+		System.out.println(name + ": insert " + rate(points, inserted - start)
+				+ " Mops/s, lookup " + rate(points, looked - inserted)
+				+ " Mops/s, " + hits + " hits, " + distinct + " distinct hash codes");
+	}
+
+	private static Object key(int x, int y, int z, boolean additive) {
+		Point3D p = new Point3D(x, y, z);
+		return additive ? new AdditiveKey(p) : p;
+	}
+
+	private static int distinctHashes(HashSet<Object> set) {
+		HashSet<Integer> hashes = new HashSet<Integer>();
+		for(Object o : set)
+			hashes.add(o.hashCode());
+
+		return hashes.size();
+	}
+
+	private static String rate(long ops, long nanos) {
+		return String.format("%.2f", (ops * 1000.0) / nanos);
+	}
+
+	/**
+	 * Wraps a point to give it the hash code used by {@link Tuple} before it
+	 * was changed to mix its components.
+	 */
+	private static final class AdditiveKey implements Comparable<AdditiveKey> {
+		private final Point3D p;
+
+		AdditiveKey(Point3D p) {
+			this.p = p;
+		}
+
+		@Override
+		public int hashCode() {
+			return 1 + (31 * (p.getIntX() + 1)) + (31 * (p.getIntY() + 1))
+					+ (31 * (p.getIntZ() + 1));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return (obj instanceof AdditiveKey) && p.equals(((AdditiveKey) obj).p);
+		}
+
+		@Override
+		public int compareTo(AdditiveKey o) {
+			return p.compareTo(o.p);
+		}
+	}
+}
@@ -0,0 +1,174 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compare the cost of the two questions a {@link Domain} asks of its targets
+ * when they are answered by {@link TargetIndex} and by scanning a list of
+ * targets, as the domain used to. The questions are "which is the first
+ * target not yet found?" and "is there a target not yet found near this
+ * point?". Half of the targets are marked as found before timing. This is not
+ * run as part of the unit tests; run it by hand with:
+ * <p/>{@code java TargetIndexBenchmark [numTargets...]}
+ * <p/>By default it is run for 10^5, 10^6 and 10^7 targets, which needs a
+ * heap of about 2GB.
+ * @author Robert Haines
+ */
+public class TargetIndexBenchmark {
+
+	private static final int SIZE = 1000;
+	private static final int ERROR = 10;
+	private static final int QUERIES = 2000;
+
+	public static void main(String[] args) {
+		int[] counts = { 100000, 1000000, 10000000 };
+		if(args.length > 0) {
+			counts = new int[args.length];
+			for(int i = 0; i < args.length; i++)
+				counts[i] = Integer.parseInt(args[i]);
+		}
+
+		for(int n : counts)
+			run(n);
+	}
+
+	private static void run(int n) {
+		Random random = new Random(17);
+		long[] packed = new long[n];
+		for(int i = 0; i < n; i++)
+			packed[i] = PackedPoints.encode(random.nextInt(SIZE),
+					random.nextInt(SIZE), random.nextInt(SIZE));
+		Arrays.sort(packed);
+
+		long start = System.nanoTime();
+		TargetIndex index = TargetIndex.fromPacked(packed);
+		long opened = System.nanoTime();
+		index.findWithin(0, -1, -1, -1);
+		long built = System.nanoTime();
+
+		ArrayList<ListTarget> list = new ArrayList<ListTarget>(n);
+		for(long p : packed)
+			list.add(new ListTarget(PackedPoints.decode(p)));
+
+		for(int i = 0; i < n / 2; i++) {
+			index.markFound(i);
+			list.get(i).found = true;
+		}
+
+		int[][] points = new int[QUERIES][3];
+		for(int[] p : points)
+			for(int j = 0; j < 3; j++)
+				p[j] = random.nextInt(SIZE);
+
+		System.out.println(n + " targets, index opened in " + millis(opened - start)
+				+ " ms, k-d tree built in " + millis(built - opened) + " ms:");
+
+		// first unfound target
+		long sum = 0;
+		start = System.nanoTime();
+		for(int q = 0; q < QUERIES; q++)
+			sum += index.current();
+		long indexCurrent = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for(int q = 0; q < QUERIES; q++)
+			for(int i = 0; i < n; i++)
+				if(!list.get(i).found) {
+					sum += i;
+					break;
+				}
+		long listCurrent = System.nanoTime() - start;
+		report("  first unfound target", indexCurrent, listCurrent);
+
+		// any unfound target within ERROR
+		start = System.nanoTime();
+		for(int[] p : points)
+			sum += index.findWithin(ERROR, p[0], p[1], p[2]);
+		long indexWithin = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for(int[] p : points)
+			for(int i = 0; i < n; i++) {
+				ListTarget t = list.get(i);
+				if(!t.found && t.location.isWithin(ERROR, p[0], p[1], p[2])) {
+					sum += i;
+					break;
+				}
+			}
+		long listWithin = System.nanoTime() - start;
+		report("  unfound target within " + ERROR, indexWithin, listWithin);
+
+		// stop the JIT from throwing the work away
+		if(sum == 42)
+			System.out.println();
+	}
+
+	private static void report(String name, long index, long list) {
+		System.out.println(name + ": index " + micros(index) + " us/query, list scan "
+				+ micros(list) + " us/query");
+	}
+
+	private static String millis(long nanos) {
+		return String.format("%.1f", nanos / 1000000.0);
+	}
+
+	private static String micros(long nanos) {
+		return String.format("%.3f", nanos / (1000.0 * QUERIES));
+	}
+
+	private static final class ListTarget {
+		final Point3D location;
+		boolean found;
+
+		ListTarget(Point3D location) {
+			this.location = location;
+		}
+	}
+}
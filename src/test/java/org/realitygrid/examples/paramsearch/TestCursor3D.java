@@ -0,0 +1,106 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestCursor3D {
+
+	private Cursor3D cursor;
+
+	@Before
+	public void setUp() throws Exception {
+		cursor = new Cursor3D(3);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		cursor = null;
+	}
+
+	@Test
+	public void testNext() {
+		assertTrue(cursor.isInside());
+		assertEquals(Point3D.ORIGIN, cursor.toPoint3D());
+
+		cursor.next();
+		assertEquals(new Point3D(0, 0, 1), cursor.toPoint3D());
+
+		cursor.set(0, 2, 2);
+		assertTrue(cursor.next());
+		assertEquals(new Point3D(1, 0, 0), cursor.toPoint3D());
+
+		cursor.set(2, 2, 2);
+		assertFalse(cursor.next());
+		assertFalse(cursor.isInside());
+	}
+
+	@Test
+	public void testSweepOrder() {
+		Point3D last = null;
+		int count = 0;
+
+		for(cursor.reset(); cursor.isInside(); cursor.next()) {
+			Point3D p = cursor.toPoint3D();
+			if(last != null)
+				assertTrue(last.compareTo(p) < 0);
+			last = p;
+			count++;
+		}
+
+		assertEquals(27, count);
+		assertEquals(new Point3D(2, 2, 2), last);
+	}
+
+	@Test
+	public void testEmpty() {
+		assertFalse(new Cursor3D(0).isInside());
+	}
+}
@@ -0,0 +1,454 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.realitygrid.examples.paramsearch.cost.Budget;
+import org.realitygrid.examples.paramsearch.cost.BudgetExhaustedException;
+import org.realitygrid.examples.paramsearch.cost.CostModel;
+import org.realitygrid.examples.paramsearch.cost.ZeroCost;
+import org.realitygrid.examples.paramsearch.crawlers.ProbingCrawler;
+
+public class TestDomain {
+
+	private static final int SIZE = 300;
+	private static final int NUM_TARGETS = 500;
+	private static final int ERROR = 10;
+	private static final int THREADS = 8;
+
+	private Domain domain;
+	private List<Point3D> expected;
+
+	@Before
+	public void setUp() throws Exception {
+		domain = new Domain("Test", SIZE, NUM_TARGETS);
+		domain.setCostModel(new ZeroCost());
+
+		// find the targets one at a time to see what order they come in
+		expected = new ArrayList<Point3D>();
+		Point3D hint;
+		while((hint = domain.getHint()) != null)
+			expected.add(domain.isWithinError(hint.getIntX() + ERROR,
+					hint.getIntY() + ERROR, hint.getIntZ() + ERROR));
+		domain.reset();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		domain = null;
+		expected = null;
+	}
+
+	@Test
+	public void testTargets() {
+		// the same targets every time, all distinct, and in order
+		assertEquals(NUM_TARGETS, expected.size());
+		for(int i = 1; i < NUM_TARGETS; i++)
+			assertTrue(expected.get(i - 1).compareTo(expected.get(i)) < 0);
+
+		Domain same = new Domain("Test", SIZE, NUM_TARGETS);
+		same.setCostModel(new ZeroCost());
+		for(Point3D p : expected)
+			assertEquals(p, same.isWithinError(p));
+	}
+
+	@Test
+	public void testConcurrentIsWithinError() throws Exception {
+		final List<List<Point3D>> found = new ArrayList<List<Point3D>>();
+		Runnable[] tasks = new Runnable[THREADS];
+		for(int i = 0; i < THREADS; i++) {
+			final Random r = new Random(i);
+			final List<Point3D> mine = new ArrayList<Point3D>();
+			found.add(mine);
+			tasks[i] = new Runnable() {
+				public void run() {
+					Point3D hint;
+					while((hint = domain.getHint()) != null) {
+						// anywhere in the halo of what this thread thinks is
+						// the current target, which may already be found
+						Point3D p = domain.isWithinError(hint.getIntX() + r.nextInt(2 * ERROR + 1),
+								hint.getIntY() + r.nextInt(2 * ERROR + 1),
+								hint.getIntZ() + r.nextInt(2 * ERROR + 1));
+						if(p != null)
+							mine.add(p);
+					}
+				}
+			};
+		}
+		TestTargetIndex.runAll(tasks);
+
+		// every target found exactly once, and each thread found its
+		// targets in order
+		List<Point3D> all = new ArrayList<Point3D>();
+		for(List<Point3D> mine : found) {
+			for(int i = 1; i < mine.size(); i++)
+				assertTrue(mine.get(i - 1).compareTo(mine.get(i)) <= 0);
+			all.addAll(mine);
+		}
+		Collections.sort(all);
+		assertEquals(expected, all);
+		assertNull(domain.getHint());
+	}
+
+	@Test
+	public void testConcurrentSearch() throws Exception {
+		Runnable[] tasks = new Runnable[THREADS];
+		for(int i = 0; i < THREADS; i++) {
+			tasks[i] = new Runnable() {
+				public void run() {
+					Point3D hint;
+					while((hint = domain.getHint()) != null)
+						domain.search(Point3D.of(hint.getIntX() + ERROR,
+								hint.getIntY() + ERROR, hint.getIntZ() + ERROR));
+				}
+			};
+		}
+		TestTargetIndex.runAll(tasks);
+
+		assertNull(domain.getHint());
+		assertTrue(domain.toString().endsWith(NUM_TARGETS + "\\" + NUM_TARGETS));
+	}
+
+	@Test
+	public void testEvaluate() {
+		Point3D hint = domain.getHint();
+		int x = hint.getIntX() + ERROR;
+		int y = hint.getIntY() + ERROR;
+		int z = hint.getIntZ() + ERROR;
+
+		assertEquals(Evaluation.hint(1, 1, 1), domain.evaluate(x - 20, y - 20, z - 20));
+		assertEquals(0, domain.getNumFound());
+		assertEquals(Evaluation.FOUND, domain.evaluate(x, y, z));
+		assertEquals(1, domain.getNumFound());
+	}
+
+	@Test
+	public void testEvaluateBatch() throws Exception {
+		File file = File.createTempFile("batch", ".targets");
+		file.deleteOnExit();
+		TargetFile.write(file, "Batch", SIZE, new long[] {
+				PackedPoints.encode(50, 50, 50),
+				PackedPoints.encode(100, 100, 100),
+				PackedPoints.encode(200, 200, 200) });
+		domain = Domain.load(file);
+
+		final int[] charges = new int[2];
+		domain.setCostModel(new CostModel() {
+			public void charge(int x, int y, int z) {
+				charges[0]++;
+			}
+
+			public void chargeBatch(PointBatch batch) {
+				charges[1]++;
+			}
+		});
+
+		// a miss, the first two targets, then a point tested against the
+		// third target
+		PointBatch batch = new PointBatch();
+		batch.append(30, 50, 50);
+		batch.append(60, 50, 40);
+		batch.append(100, 100, 100);
+		batch.append(100, 100, 100);
+
+		int[] results = domain.evaluateBatch(batch);
+		assertArrayEquals(new int[] { Evaluation.hint(1, 0, 0), Evaluation.FOUND,
+				Evaluation.FOUND, Evaluation.hint(1, 1, 1) }, results);
+		assertEquals(2, domain.getNumFound());
+		assertEquals(0, charges[0]);
+		assertEquals(1, charges[1]);
+
+		assertEquals(0, domain.evaluateBatch(batch.subBatch(0, 1), new int[1]));
+		assertEquals(2, charges[1]);
+
+		// the targets found, not the points that found them
+		domain.reset();
+		PointBatch found = new PointBatch();
+		assertEquals(2, domain.evaluateBatch(batch, new int[4], found));
+		assertEquals(2, found.size());
+		assertEquals(Point3D.of(50, 50, 50), found.get(0));
+		assertEquals(Point3D.of(100, 100, 100), found.get(1));
+	}
+
+	@Test
+	public void testEvaluateAsync() throws Exception {
+		Point3D hint = domain.getHint();
+		List<CompletableFuture<Integer>> misses = new ArrayList<CompletableFuture<Integer>>();
+		for(int i = 0; i < 100; i++)
+			misses.add(domain.evaluateAsync(hint.getIntX() - 1, hint.getIntY() - 1, i));
+		CompletableFuture<Integer> hit = domain.evaluateAsync(Point3D.of(hint.getIntX() + ERROR,
+				hint.getIntY() + ERROR, hint.getIntZ() + ERROR));
+
+		for(CompletableFuture<Integer> f : misses)
+			assertFalse(Evaluation.isFound(f.get()));
+		assertEquals(Evaluation.FOUND, hit.get().intValue());
+		assertEquals(1, domain.getNumFound());
+	}
+
+	@Test
+	public void testEvaluateAsyncCancel() throws Exception {
+		final AtomicInteger charges = new AtomicInteger();
+		domain.setCostModel(new CostModel() {
+			public void charge(int x, int y, int z) {
+				charges.incrementAndGet();
+			}
+		});
+
+		// hold up the only thread until the test has been cancelled
+		final CountDownLatch latch = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		domain.setExecutor(executor);
+		executor.execute(new Runnable() {
+			public void run() {
+				try {
+					latch.await();
+				} catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+
+		Point3D hint = domain.getHint();
+		CompletableFuture<Integer> f = domain.evaluateAsync(hint.getIntX() + ERROR,
+				hint.getIntY() + ERROR, hint.getIntZ() + ERROR);
+		assertTrue(f.cancel(false));
+		latch.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+		assertTrue(f.isCancelled());
+		assertEquals(0, charges.get());
+		assertEquals(0, domain.getNumFound());
+	}
+
+	@Test
+	public void testEvaluateAsyncRejected() throws Exception {
+		domain.setExecutor(new Executor() {
+			public void execute(Runnable command) {
+				throw new RejectedExecutionException();
+			}
+		});
+
+		CompletableFuture<Integer> f = domain.evaluateAsync(0, 0, 0);
+		assertTrue(f.isCompletedExceptionally());
+		try {
+			f.get();
+			fail();
+		} catch(ExecutionException e) {
+			assertTrue(e.getCause() instanceof RejectedExecutionException);
+		}
+	}
+
+	@Test
+	public void testProbe() {
+		// setting up tested every target
+		assertEquals(NUM_TARGETS, domain.getTestBudget().getSpent());
+		domain.getTestBudget().reset();
+
+		final AtomicInteger probes = new AtomicInteger();
+		domain.setProbeCostModel(new CostModel() {
+			public void charge(int x, int y, int z) {
+				probes.incrementAndGet();
+			}
+		});
+
+		// a probe gives the same hint as a test but never finds the target
+		Point3D t = expected.get(0);
+		int x = t.getIntX();
+		int y = t.getIntY();
+		int z = t.getIntZ();
+		assertEquals(Evaluation.hint(0, 0, 0), domain.probe(x, y, z));
+		assertEquals(Evaluation.hint(1, -1, 0), domain.probe(x - 1, y + 1, z));
+		assertEquals(0, domain.getNumFound());
+		assertEquals(2, probes.get());
+		assertEquals(2, domain.getProbeBudget().getSpent());
+		assertEquals(0, domain.getTestBudget().getSpent());
+
+		assertEquals(Evaluation.FOUND, domain.evaluate(x, y, z));
+		assertEquals(1, domain.getTestBudget().getSpent());
+		assertEquals(2, probes.get());
+	}
+
+	@Test
+	public void testBudgets() {
+		domain.setTestBudget(new Budget("Test", 3));
+		domain.setProbeBudget(new Budget("Probe", 1));
+
+		domain.evaluate(0, 0, 0);
+		domain.isWithinError(0, 0, 0);
+		domain.probe(0, 0, 0);
+		try {
+			domain.probe(0, 0, 0);
+			fail("Probe budget overspent.");
+		} catch(BudgetExhaustedException e) {
+			// expected
+		}
+
+		PointBatch batch = new PointBatch();
+		batch.append(0, 0, 0);
+		batch.append(1, 1, 1);
+		try {
+			domain.evaluateBatch(batch);
+			fail("Test budget overspent.");
+		} catch(BudgetExhaustedException e) {
+			assertEquals(2, domain.getTestBudget().getSpent());
+		}
+
+		domain.evaluate(0, 0, 0);
+		try {
+			domain.evaluateAsync(0, 0, 0).get();
+			fail("Test budget overspent.");
+		} catch(Exception e) {
+			assertTrue(e.getCause() instanceof BudgetExhaustedException);
+		}
+	}
+
+	@Test
+	public void testProbingCrawler() {
+		Domain small = new Domain("Test", SIZE, 5);
+		small.setCostModel(new ZeroCost());
+		new ProbingCrawler(small).run();
+
+		// one full test per target
+		assertEquals(5, small.getNumFound());
+		assertEquals(5, small.getTestBudget().getSpent());
+		assertTrue(small.getProbeBudget().getSpent() > 5);
+	}
+
+	@Test
+	public void testAnyOrder() {
+		domain.setAnyOrder(true);
+		assertTrue(domain.isAnyOrder());
+
+		// a late target can be found first; pick targets with no others near
+		// them so that they are the only ones that can be found
+		Point3D last = isolated(NUM_TARGETS - 1);
+		assertEquals(last, domain.isWithinError(last.getIntX() - ERROR, last.getIntY(), last.getIntZ()));
+		assertEquals(1, domain.getNumFound());
+		assertEquals(expected.get(0), domain.getHint().moveBy(new Vector3D(ERROR)));
+
+		// hints lead to the nearest target not yet found
+		Point3D next = isolated(expected.indexOf(last) - 1);
+		int x = next.getIntX() + 1;
+		int y = next.getIntY();
+		int z = next.getIntZ() - 1;
+		assertEquals(Evaluation.hint(-1, 0, 1), domain.getDirection(x, y, z));
+		assertEquals(Evaluation.FOUND, domain.evaluate(x, y, z));
+
+		// and once found it is not found again
+		assertNull(domain.isWithinError(last));
+		assertNull(domain.isWithinError(next));
+		assertEquals(2, domain.getNumFound());
+	}
+
+	// the target nearest to, but not after, the i-th with no others near it
+	private Point3D isolated(int i) {
+		while(true) {
+			Point3D t = expected.get(i--);
+			boolean alone = true;
+			for(Point3D p : expected)
+				if(p != t && p.isWithin(3 * ERROR, t.getIntX(), t.getIntY(), t.getIntZ()))
+					alone = false;
+			if(alone)
+				return t;
+		}
+	}
+
+	@Test
+	public void testConcurrentAnyOrder() throws Exception {
+		domain.setAnyOrder(true);
+
+		// each thread follows the hints from its own corner of the domain
+		final AtomicInteger finds = new AtomicInteger();
+		Runnable[] tasks = new Runnable[THREADS];
+		for(int i = 0; i < THREADS; i++) {
+			final int cx = ((i & 1) == 0) ? 0 : SIZE - 1;
+			final int cy = ((i & 2) == 0) ? 0 : SIZE - 1;
+			final int cz = ((i & 4) == 0) ? 0 : SIZE - 1;
+			tasks[i] = new Runnable() {
+				public void run() {
+					int x = cx;
+					int y = cy;
+					int z = cz;
+					while(domain.getNumFound() < NUM_TARGETS) {
+						int r = domain.evaluate(x, y, z);
+						if(Evaluation.isFound(r))
+							finds.incrementAndGet();
+						else {
+							x += Evaluation.getX(r);
+							y += Evaluation.getY(r);
+							z += Evaluation.getZ(r);
+						}
+					}
+				}
+			};
+		}
+		TestTargetIndex.runAll(tasks);
+
+		assertEquals(NUM_TARGETS, finds.get());
+		assertEquals(NUM_TARGETS, domain.getNumFound());
+		assertNull(domain.getHint());
+	}
+}
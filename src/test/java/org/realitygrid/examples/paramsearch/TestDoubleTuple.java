@@ -0,0 +1,128 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestDoubleTuple {
+
+	private static final double EPSILON = 0.000001;
+
+	private DoubleTuple dTuple00;
+	private DoubleTuple dTuple01;
+	private DoubleTuple dTuple02;
+	private DoubleTuple dTuple03;
+
+	@Before
+	public void setUp() throws Exception {
+		dTuple00 = new DoubleTuple(0.0, 0.0, 0.0, 0.0, 0.0);
+		dTuple01 = new DoubleTuple(3.0, 4.0);
+		dTuple02 = new DoubleTuple(1.0, 2.0, 3.0, 4.0, 5.0);
+		dTuple03 = new DoubleTuple(-1.5, 2.0, 0.5, 4.0, 1.0);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		dTuple00 = null;
+		dTuple01 = null;
+		dTuple02 = null;
+		dTuple03 = null;
+	}
+
+	@Test
+	public void testHashCode() {
+		assertEquals(new Tuple<Double>(3.0, 4.0).hashCode(), dTuple01.hashCode());
+		assertEquals(new Tuple<Integer>(3, 4).hashCode(), dTuple01.hashCode());
+	}
+
+	@Test
+	public void testGetLength() {
+		assertEquals(5, dTuple00.getLength());
+		assertEquals(2, dTuple01.getLength());
+	}
+
+	@Test
+	public void testDistance() {
+		assertEquals(5.0, dTuple00.distance(dTuple01), EPSILON);
+		assertEquals(dTuple00.distance(dTuple01), dTuple01.distance(dTuple00), EPSILON);
+		assertEquals(new Tuple<Double>(1.0, 2.0, 3.0, 4.0).distance(
+				new Tuple<Double>(-1.5, 2.0, 0.5, 4.0)),
+				new DoubleTuple(1.0, 2.0, 3.0, 4.0).distance(
+						new DoubleTuple(-1.5, 2.0, 0.5, 4.0)), EPSILON);
+		assertEquals(dTuple02.distance(dTuple03),
+				dTuple02.distance((Tuple<Double>) dTuple03), EPSILON);
+	}
+
+	@Test
+	public void testChebyshevDistance() {
+		assertEquals(4.0, dTuple00.chebyshevDistance(dTuple01), EPSILON);
+		assertEquals(4.0, dTuple02.chebyshevDistance(dTuple03), EPSILON);
+	}
+
+	@Test
+	public void testDot() {
+		assertEquals(11.0, dTuple01.dot(dTuple02), EPSILON);
+		assertEquals(25.0, dTuple02.dot(dTuple03), EPSILON);
+	}
+
+	@Test
+	public void testAdd() {
+		assertEquals(new DoubleTuple(4.0, 6.0, 3.0, 4.0, 5.0), dTuple01.add(dTuple02));
+		assertEquals(dTuple01.add(dTuple02), dTuple02.add(dTuple01));
+	}
+
+	@Test
+	public void testEqualsObject() {
+		assertTrue(dTuple01.equals(new Tuple<Integer>(3, 4)));
+		assertTrue(new Tuple<Integer>(3, 4).equals(dTuple01));
+		assertTrue(dTuple01.equals(new IntTuple(3, 4)));
+		assertFalse(dTuple01.equals(new DoubleTuple(3.0, 4.0, 0.0)));
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class TestEvaluation {
+
+	@Test
+	public void testHint() {
+		int r = Evaluation.hint(-30, 0, 7);
+		assertFalse(Evaluation.isFound(r));
+		assertEquals(-1, Evaluation.getX(r));
+		assertEquals(0, Evaluation.getY(r));
+		assertEquals(1, Evaluation.getZ(r));
+	}
+
+	@Test
+	public void testFound() {
+		assertTrue(Evaluation.isFound(Evaluation.FOUND));
+		assertEquals(0, Evaluation.getX(Evaluation.FOUND));
+		assertSame(Vector3D.ZERO, Evaluation.toVector3D(Evaluation.FOUND));
+	}
+
+	@Test
+	public void testToVector3D() {
+		Point3D p = new Point3D(150, 20, 299);
+		Point3D[] targets = { new Point3D(10, 20, 300), new Point3D(151, 0, 0),
+				new Point3D(150, 20, 299), new Point3D(0, 300, 299) };
+
+		for(Point3D t : targets) {
+			Vector3D expected = p.getVectorTo(t).unitComponents();
+			int r = Evaluation.hint(t.getIntX() - p.getIntX(),
+					t.getIntY() - p.getIntY(), t.getIntZ() - p.getIntZ());
+			assertEquals(expected, Evaluation.toVector3D(r));
+			assertSame(Evaluation.toVector3D(r), Evaluation.toVector3D(r));
+		}
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestEvaluationCache {
+
+	private static final double EPSILON = 0.000001;
+
+	private EvaluationCache cache;
+
+	@Before
+	public void setUp() throws Exception {
+		cache = new EvaluationCache(100);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		cache = null;
+	}
+
+	@Test
+	public void testGetPut() {
+		int hint = Evaluation.hint(1, -1, 0);
+		assertEquals(EvaluationCache.MISS, cache.get(3, 4, 12));
+		cache.put(3, 4, 12, hint);
+		assertEquals(hint, cache.get(3, 4, 12));
+		assertEquals(EvaluationCache.MISS, cache.get(12, 4, 3));
+		assertEquals(1, cache.size());
+		assertEquals(1, cache.getHits());
+		assertEquals(2, cache.getMisses());
+
+		// results that found a target, or cannot be packed, are not kept
+		cache.put(5, 5, 5, Evaluation.FOUND);
+		assertEquals(EvaluationCache.MISS, cache.get(5, 5, 5));
+		cache.put(Integer.MAX_VALUE, 0, 0, hint);
+		assertEquals(EvaluationCache.MISS, cache.get(Integer.MAX_VALUE, 0, 0));
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testValidate() {
+		cache.put(1, 2, 3, Evaluation.hint(1, 1, 1));
+		assertFalse(cache.validate(0));
+		assertEquals(0, cache.getGeneration());
+		assertEquals(1, cache.size());
+		assertTrue(cache.validate(1));
+		assertEquals(1, cache.getGeneration());
+		assertEquals(0, cache.size());
+		assertEquals(EvaluationCache.MISS, cache.get(1, 2, 3));
+		assertFalse(cache.validate(1));
+	}
+
+	@Test
+	public void testClock() {
+		EvaluationCache small = new EvaluationCache(3);
+		small.put(0, 0, 0, 0);
+		small.put(1, 1, 1, 1);
+		small.put(2, 2, 2, 2);
+
+		// only the entry that has not been used since the hand passed goes
+		small.get(0, 0, 0);
+		small.get(2, 2, 2);
+		small.put(3, 3, 3, 3);
+		assertEquals(1, small.getEvictions());
+		assertEquals(EvaluationCache.MISS, small.get(1, 1, 1));
+		assertEquals(0, small.get(0, 0, 0));
+		assertEquals(2, small.get(2, 2, 2));
+		assertEquals(3, small.get(3, 3, 3));
+	}
+
+	@Test
+	public void testManyEvictions() {
+		Random random = new Random(17);
+		Map<Long, Integer> last = new HashMap<Long, Integer>();
+		for(int n = 0; n < 20000; n++) {
+			int x = random.nextInt(20);
+			int y = random.nextInt(20);
+			int z = random.nextInt(20);
+			int result = random.nextInt(Evaluation.FOUND);
+			if(random.nextBoolean())
+				cache.get(x, y, z);
+			cache.put(x, y, z, result);
+			last.put(PackedPoints.encode(x, y, z), result);
+		}
+
+		// every result held must be the latest one for its point, and all
+		// of them must still be reachable through the hash table
+		int held = 0;
+		for(Map.Entry<Long, Integer> e : last.entrySet()) {
+			long p = e.getKey();
+			int result = cache.get(PackedPoints.getX(p), PackedPoints.getY(p), PackedPoints.getZ(p));
+			if(result != EvaluationCache.MISS) {
+				assertEquals(e.getValue().intValue(), result);
+				held++;
+			}
+		}
+		assertEquals(cache.getCapacity(), cache.size());
+		assertEquals(cache.size(), held);
+	}
+
+	@Test
+	public void testSavedTime() {
+		assertEquals(0.0, cache.getSavedTime(), EPSILON);
+		cache.addTestTime(1000000000L);
+		cache.addTestTime(3000000000L);
+		cache.put(1, 1, 1, 0);
+		cache.get(1, 1, 1);
+		cache.get(1, 1, 1);
+		assertEquals(4.0, cache.getSavedTime(), EPSILON);
+
+		cache.resetStatistics();
+		assertEquals(0, cache.getHits());
+		assertEquals(0.0, cache.getSavedTime(), EPSILON);
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestIntTuple {
+
+	private static final double EPSILON = 0.000001;
+
+	private IntTuple iTuple00;
+	private IntTuple iTuple01;
+	private IntTuple iTuple02;
+
+	@Before
+	public void setUp() throws Exception {
+		iTuple00 = new IntTuple(0, 0, 0, 0, 0, 0);
+		iTuple01 = new IntTuple(3, 4, 0, 0, 0, 12);
+		iTuple02 = new IntTuple(-1, 2, 7);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		iTuple00 = null;
+		iTuple01 = null;
+		iTuple02 = null;
+	}
+
+	@Test
+	public void testHashCode() {
+		assertEquals(new Tuple<Integer>(-1, 2, 7).hashCode(), iTuple02.hashCode());
+		assertEquals(new Point3D(-1, 2, 7).hashCode(), iTuple02.hashCode());
+	}
+
+	@Test
+	public void testDistance() {
+		assertEquals(13.0, iTuple00.distance(iTuple01), EPSILON);
+		assertEquals(iTuple01.distance(iTuple02), iTuple02.distance(iTuple01), EPSILON);
+		assertEquals(new DoubleTuple(iTuple01).distance(new DoubleTuple(iTuple02)),
+				iTuple01.distance(iTuple02), EPSILON);
+	}
+
+	@Test
+	public void testChebyshevDistance() {
+		assertEquals(12, iTuple00.chebyshevDistance(iTuple01));
+		assertEquals(12, iTuple01.chebyshevDistance(iTuple02));
+	}
+
+	@Test
+	public void testDot() {
+		assertEquals(5, iTuple01.dot(iTuple02));
+		assertEquals(0, iTuple00.dot(iTuple01));
+	}
+
+	@Test
+	public void testAdd() {
+		assertEquals(new IntTuple(2, 6, 7, 0, 0, 12), iTuple01.add(iTuple02));
+	}
+
+	@Test
+	public void testEqualsObject() {
+		assertTrue(iTuple02.equals(new Point3D(-1, 2, 7)));
+		assertTrue(new Point3D(-1, 2, 7).equals(iTuple02));
+		assertTrue(iTuple02.equals(new DoubleTuple(-1.0, 2.0, 7.0)));
+		assertFalse(iTuple02.equals(iTuple01));
+	}
+}
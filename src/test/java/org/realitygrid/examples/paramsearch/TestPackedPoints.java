@@ -0,0 +1,131 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestPackedPoints {
+
+	private static final double EPSILON = 0.000001;
+
+	private Point3D p00;
+	private Point3D p01;
+	private Point3D p02;
+	private long l00;
+	private long l01;
+	private long l02;
+
+	@Before
+	public void setUp() throws Exception {
+		p00 = Point3D.ORIGIN;
+		p01 = new Point3D(3, 4, 0);
+		p02 = new Point3D(-3, 4, 12);
+		l00 = p00.toPacked();
+		l01 = p01.toPacked();
+		l02 = p02.toPacked();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		p00 = null;
+		p01 = null;
+		p02 = null;
+	}
+
+	@Test
+	public void testEncodeDecode() {
+		assertEquals(p00, Point3D.fromPacked(l00));
+		assertEquals(p01, Point3D.fromPacked(l01));
+		assertEquals(p02, PackedPoints.decode(l02));
+		assertEquals(-3, PackedPoints.getX(l02));
+		assertEquals(4, PackedPoints.getY(l02));
+		assertEquals(12, PackedPoints.getZ(l02));
+
+		long min = PackedPoints.encode(PackedPoints.MIN_COORDINATE,
+				PackedPoints.MIN_COORDINATE, PackedPoints.MIN_COORDINATE);
+		long max = PackedPoints.encode(PackedPoints.MAX_COORDINATE,
+				PackedPoints.MAX_COORDINATE, PackedPoints.MAX_COORDINATE);
+		assertEquals(PackedPoints.MIN_COORDINATE, PackedPoints.getY(min));
+		assertEquals(PackedPoints.MAX_COORDINATE, PackedPoints.getZ(max));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEncodeOutOfRange() {
+		PackedPoints.encode(0, PackedPoints.MAX_COORDINATE + 1, 0);
+	}
+
+	@Test
+	public void testMoveBy() {
+		assertEquals(l01, PackedPoints.moveBy(l00, 3, 4, 0));
+		assertEquals(p02, PackedPoints.decode(PackedPoints.moveBy(l01, -6, 0, 12)));
+	}
+
+	@Test
+	public void testDistance() {
+		assertEquals(5.0, PackedPoints.distance(l00, l01), EPSILON);
+		assertEquals(p00.distance(p02), PackedPoints.distance(l00, l02), EPSILON);
+		assertEquals(12, PackedPoints.chebyshevDistance(l00, l02));
+		assertTrue(PackedPoints.isWithin(4, l00, l01));
+		assertFalse(PackedPoints.isWithin(3, l00, l01));
+		assertEquals(p00.isWithin(12, p02), PackedPoints.isWithin(12, l00, l02));
+	}
+
+	@Test
+	public void testCompare() {
+		Point3D[] points = { p00, p01, p02, new Point3D(200, 250, 299),
+				new Point3D(200, 251, 0), new Point3D(-200, 0, 0) };
+		for(Point3D a : points) {
+			for(Point3D b : points) {
+				assertEquals(Integer.signum(a.compareTo(b)),
+						PackedPoints.compare(a.toPacked(), b.toPacked()));
+			}
+		}
+	}
+}
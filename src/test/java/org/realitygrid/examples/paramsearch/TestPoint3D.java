@@ -104,4 +104,22 @@ public class TestPoint3D {
 		assertEquals(p00, p00.moveBy(v00));
 		assertEquals(p01, p00.moveBy(v01));
 	}
+
+	@Test
+	public void testCompareTo() {
+		assertEquals(0, new Point3D(200, 250, 299).compareTo(new Point3D(200, 250, 299)));
+		assertTrue(new Point3D(200, 250, 298).compareTo(new Point3D(200, 250, 299)) < 0);
+		assertTrue(new Point3D(200, 251, 0).compareTo(new Point3D(200, 250, 299)) > 0);
+	}
+
+	@Test
+	public void testEqualsTuple() {
+		Tuple<Integer> t = new Tuple<Integer>(3, 4, 0);
+		assertEquals(p01, new Point3D(3, 4, 0));
+		assertTrue(p01.equals(t));
+		assertTrue(t.equals(p01));
+		assertEquals(t.hashCode(), p01.hashCode());
+		assertTrue(p01.equals(v01));
+		assertEquals(v01.hashCode(), p01.hashCode());
+	}
 }
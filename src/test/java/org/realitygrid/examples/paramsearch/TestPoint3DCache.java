@@ -0,0 +1,109 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestPoint3DCache {
+
+	private static final double EPSILON = 0.000001;
+
+	private Point3DCache cache;
+
+	@Before
+	public void setUp() throws Exception {
+		cache = new Point3DCache(1000);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		Point3D.setCache(null);
+		cache = null;
+	}
+
+	@Test
+	public void testGetCapacity() {
+		assertEquals(1024, cache.getCapacity());
+		assertEquals(1, new Point3DCache(1).getCapacity());
+	}
+
+	@Test
+	public void testGet() {
+		Point3D p = cache.get(3, 4, 12);
+		assertEquals(new Point3D(3, 4, 12), p);
+		assertSame(p, cache.get(3, 4, 12));
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		assertEquals(0.5, cache.getHitRate(), EPSILON);
+
+		cache.resetStatistics();
+		assertEquals(0, cache.getHits());
+		assertEquals(0, cache.getMisses());
+	}
+
+	@Test
+	public void testEviction() {
+		Point3DCache small = new Point3DCache(1);
+		Point3D p = small.get(1, 2, 3);
+		Point3D q = small.get(3, 2, 1);
+		assertEquals(new Point3D(3, 2, 1), q);
+		assertNotSame(p, small.get(1, 2, 3));
+		assertEquals(0, small.getHits());
+	}
+
+	@Test
+	public void testOf() {
+		assertNotSame(Point3D.of(1, 2, 3), Point3D.of(1, 2, 3));
+
+		Point3D.setCache(cache);
+		assertSame(Point3D.of(1, 2, 3), Point3D.of(1, 2, 3));
+		assertSame(cache, Point3D.getCache());
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import static org.junit.Assert.*;
+
+import java.util.Iterator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestPointBatch {
+
+	private PointBatch batch;
+
+	@Before
+	public void setUp() throws Exception {
+		batch = new PointBatch(2);
+		for(int i = 0; i < 10; i++)
+			batch.append(i, i * 2, i * 3);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		batch = null;
+	}
+
+	@Test
+	public void testAppend() {
+		assertEquals(10, batch.size());
+		assertEquals(9, batch.getX(9));
+		assertEquals(18, batch.getY(9));
+		assertEquals(27, batch.getZ(9));
+
+		batch.append(new Point3D(3, 4, 0));
+		assertEquals(new Point3D(3, 4, 0), batch.get(10));
+
+		PointBatch other = new PointBatch();
+		other.append(batch.subBatch(8, 11));
+		assertEquals(3, other.size());
+		assertEquals(new Point3D(8, 16, 24), other.get(0));
+	}
+
+	@Test
+	public void testClear() {
+		batch.clear();
+		assertTrue(batch.isEmpty());
+		batch.append(1, 2, 3);
+		assertEquals(new Point3D(1, 2, 3), batch.get(0));
+	}
+
+	@Test
+	public void testSubBatch() {
+		PointBatch view = batch.subBatch(3, 6);
+		assertEquals(3, view.size());
+		assertEquals(new Point3D(3, 6, 9), view.get(0));
+		assertEquals(new Point3D(5, 10, 15), view.get(2));
+		assertEquals(3, view.getOffset());
+		assertSame(batch.getXArray(), view.getXArray());
+
+		PointBatch inner = view.subBatch(1, 2);
+		assertEquals(new Point3D(4, 8, 12), inner.get(0));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testSubBatchBounds() {
+		batch.subBatch(3, 6).get(3);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testSubBatchAppend() {
+		batch.subBatch(3, 6).append(0, 0, 0);
+	}
+
+	@Test
+	public void testIterator() {
+		Iterator<Point3D> iter = batch.subBatch(7, 10).iterator();
+		assertEquals(new Point3D(7, 14, 21), iter.next());
+		assertEquals(new Point3D(8, 16, 24), iter.next());
+		assertEquals(new Point3D(9, 18, 27), iter.next());
+		assertFalse(iter.hasNext());
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestTargetFile {
+
+	private File file;
+	private Domain domain;
+
+	@Before
+	public void setUp() throws Exception {
+		file = File.createTempFile("targets", ".pstg");
+		domain = new Domain("Benchmark", 300, 5);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		file.delete();
+		file = null;
+		domain = null;
+	}
+
+	@Test
+	public void testSaveLoad() throws IOException {
+		domain.save(file);
+		Domain loaded = Domain.load(file);
+
+		assertEquals(domain.getName(), loaded.getName());
+		assertEquals(domain.getSize(), loaded.getSize());
+		assertEquals(domain.getNumTargets(), loaded.getNumTargets());
+		assertEquals(domain.getHint(), loaded.getHint());
+		assertEquals(domain.toString(), loaded.toString());
+	}
+
+	@Test
+	public void testWrite() throws IOException {
+		long[] targets = { new Point3D(5, 6, 7).toPacked(), new Point3D(1, 2, 3).toPacked() };
+		TargetFile.write(file, "Dömain", 10, targets);
+		Domain loaded = Domain.load(file);
+
+		assertEquals("Dömain", loaded.getName());
+		assertEquals(2, loaded.getNumTargets());
+		// the targets are sorted when written
+		assertEquals(new Point3D(1, 2, 3).toPacked(), targets[1]);
+		assertEquals(new Point3D(1 - 10, 2 - 10, 3 - 10), loaded.getHint());
+		assertEquals(new Vector3D(1, 2, 3), loaded.search(Point3D.ORIGIN));
+	}
+
+	@Test(expected = IOException.class)
+	public void testLoadBadFile() throws IOException {
+		FileOutputStream out = new FileOutputStream(file);
+		out.write("This is not a target file".getBytes());
+		out.close();
+
+		Domain.load(file);
+	}
+
+	@Test(expected = IOException.class)
+	public void testLoadTruncatedFile() throws IOException {
+		domain.save(file);
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		raf.setLength(file.length() - 4);
+		raf.close();
+
+		Domain.load(file);
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+public class TestTargetGenerator {
+
+	private static final int SIZE = 300;
+	private static final int ERROR = 10;
+
+	@Test
+	public void testDeterministic() {
+		long[] a = new TargetGenerator(17, SIZE, ERROR).generate(100000);
+		long[] b = new TargetGenerator(17, SIZE, ERROR).generate(100000);
+		long[] c = new TargetGenerator(18, SIZE, ERROR).generate(100000);
+		assertArrayEquals(a, b);
+		assertFalse(Arrays.equals(a, c));
+	}
+
+	@Test
+	public void testSplittable() {
+		// the targets do not depend on how the sequence is split up: the
+		// same rule followed one target at a time gives the same targets
+		TargetGenerator g = new TargetGenerator(17, SIZE, ERROR);
+		int n = 200000;
+		TreeSet<Long> expected = new TreeSet<Long>();
+		for(long i = 0; expected.size() < n; i++)
+			expected.add(g.target(i));
+
+		long[] targets = g.generate(n);
+		int i = 0;
+		for(long t : expected)
+			assertEquals(t, targets[i++]);
+	}
+
+	@Test
+	public void testDistinctAndSpread() {
+		long[] targets = new TargetGenerator(17, SIZE, ERROR).generate(1000000);
+		int[] counts = new int[8];
+		for(int i = 0; i < targets.length; i++) {
+			if(i > 0)
+				assertTrue(targets[i] > targets[i - 1]);
+
+			int x = PackedPoints.getX(targets[i]);
+			int y = PackedPoints.getY(targets[i]);
+			int z = PackedPoints.getZ(targets[i]);
+			assertTrue(x >= ERROR && x < SIZE - ERROR);
+			assertTrue(y >= ERROR && y < SIZE - ERROR);
+			assertTrue(z >= ERROR && z < SIZE - ERROR);
+			counts[(x < SIZE / 2 ? 0 : 4) + (y < SIZE / 2 ? 0 : 2) + (z < SIZE / 2 ? 0 : 1)]++;
+		}
+
+		// each octant should hold about an eighth of the targets
+		for(int c : counts)
+			assertEquals(targets.length / 8, c, targets.length / 200);
+	}
+
+	@Test
+	public void testSmallDomain() {
+		// too small for the margin, so every place is used
+		long[] targets = new TargetGenerator(17, 10, ERROR).generate(1000);
+		assertEquals(1000, targets.length);
+		assertEquals(PackedPoints.encode(0, 0, 0), targets[0]);
+		assertEquals(PackedPoints.encode(9, 9, 9), targets[999]);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTooManyTargets() {
+		new TargetGenerator(17, 10, ERROR).generate(1001);
+	}
+}
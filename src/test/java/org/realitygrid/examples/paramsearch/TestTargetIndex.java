@@ -0,0 +1,276 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestTargetIndex {
+
+	private static final int SIZE = 300;
+	private static final int NUM_TARGETS = 2000;
+	private static final int ERROR = 10;
+	private static final int THREADS = 8;
+
+	private Random random;
+	private long[] packed;
+	private TargetIndex index;
+
+	@Before
+	public void setUp() throws Exception {
+		random = new Random(17);
+		packed = new long[NUM_TARGETS];
+		for(int i = 0; i < NUM_TARGETS; i++)
+			packed[i] = PackedPoints.encode(random.nextInt(SIZE),
+					random.nextInt(SIZE), random.nextInt(SIZE));
+		Arrays.sort(packed);
+		index = TargetIndex.fromPacked(packed);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		random = null;
+		packed = null;
+		index = null;
+	}
+
+	@Test
+	public void testOrder() {
+		assertEquals(NUM_TARGETS, index.size());
+		for(int i = 1; i < NUM_TARGETS; i++)
+			assertTrue(index.getLocation(i - 1).compareTo(index.getLocation(i)) <= 0);
+	}
+
+	@Test
+	public void testCurrent() {
+		assertEquals(0, index.current());
+		assertTrue(index.markFound(0));
+		assertFalse(index.markFound(0));
+		assertEquals(1, index.current());
+		index.markFound(2);
+		assertEquals(1, index.current());
+		index.markFound(1);
+		assertEquals(3, index.current());
+
+		index.reset();
+		assertEquals(0, index.current());
+		assertFalse(index.isFound(2));
+	}
+
+	@Test
+	public void testFindWithin() {
+		// find a third of the targets so the search has to skip them
+		for(int i = 0; i < NUM_TARGETS; i += 3)
+			index.markFound(i);
+
+		for(int n = 0; n < 5000; n++) {
+			int x = random.nextInt(SIZE);
+			int y = random.nextInt(SIZE);
+			int z = random.nextInt(SIZE);
+			int t = index.findWithin(ERROR, x, y, z);
+
+			if(t < 0) {
+				for(int i = 0; i < NUM_TARGETS; i++)
+					assertFalse(!index.isFound(i) && index.getLocation(i).isWithin(ERROR, x, y, z));
+			}
+			else {
+				assertFalse(index.isFound(t));
+				assertTrue(index.getLocation(t).isWithin(ERROR, x, y, z));
+			}
+		}
+	}
+
+	@Test
+	public void testFindWithinAllFound() {
+		Point3D p = index.getLocation(NUM_TARGETS / 2);
+		assertTrue(index.findWithin(0, p.getIntX(), p.getIntY(), p.getIntZ()) >= 0);
+
+		for(int i = 0; i < NUM_TARGETS; i++)
+			index.markFound(i);
+		assertEquals(-1, index.current());
+		assertEquals(-1, index.findWithin(SIZE, p.getIntX(), p.getIntY(), p.getIntZ()));
+	}
+
+	@Test
+	public void testNearest() {
+		// find a third of the targets so the search has to skip them
+		for(int i = 0; i < NUM_TARGETS; i += 3)
+			index.markFound(i);
+
+		for(int n = 0; n < 2000; n++) {
+			int x = random.nextInt(SIZE);
+			int y = random.nextInt(SIZE);
+			int z = random.nextInt(SIZE);
+			int t = index.nearest(x, y, z);
+			assertFalse(index.isFound(t));
+
+			long best = Long.MAX_VALUE;
+			for(int i = 0; i < NUM_TARGETS; i++)
+				if(!index.isFound(i))
+					best = Math.min(best, distance(index.getLocation(i), x, y, z));
+			assertEquals(best, distance(index.getLocation(t), x, y, z));
+		}
+
+		for(int i = 0; i < NUM_TARGETS; i++)
+			index.markFound(i);
+		assertEquals(-1, index.nearest(0, 0, 0));
+	}
+
+	private static long distance(Point3D p, int x, int y, int z) {
+		long dx = p.getIntX() - x;
+		long dy = p.getIntY() - y;
+		long dz = p.getIntZ() - z;
+
+		return (dx * dx) + (dy * dy) + (dz * dz);
+	}
+
+	@Test
+	public void testConcurrentMarkFound() throws Exception {
+		final AtomicIntegerArray finds = new AtomicIntegerArray(NUM_TARGETS);
+		Runnable[] tasks = new Runnable[THREADS];
+		for(int i = 0; i < THREADS; i++) {
+			final int offset = i * (NUM_TARGETS / THREADS);
+			tasks[i] = new Runnable() {
+				public void run() {
+					for(int n = 0; n < NUM_TARGETS; n++) {
+						int t = (offset + n) % NUM_TARGETS;
+						if(index.markFound(t))
+							finds.incrementAndGet(t);
+					}
+				}
+			};
+		}
+		runAll(tasks);
+
+		for(int t = 0; t < NUM_TARGETS; t++)
+			assertEquals(1, finds.get(t));
+		assertEquals(-1, index.current());
+	}
+
+	@Test
+	public void testConcurrentFindWithin() throws Exception {
+		// half the threads find targets in order while the other half build
+		// the k-d tree and find targets through it
+		final AtomicIntegerArray finds = new AtomicIntegerArray(NUM_TARGETS);
+		Runnable[] tasks = new Runnable[THREADS];
+		for(int i = 0; i < THREADS; i++) {
+			final Random r = new Random(i);
+			tasks[i] = (i % 2 == 0) ? new Runnable() {
+				public void run() {
+					int t;
+					while((t = index.current()) >= 0)
+						if(index.markFound(t))
+							finds.incrementAndGet(t);
+				}
+			} : new Runnable() {
+				public void run() {
+					for(int n = 0; n < NUM_TARGETS; n++) {
+						Point3D p = index.getLocation(r.nextInt(NUM_TARGETS));
+						int t = index.findWithin(0, p.getIntX(), p.getIntY(), p.getIntZ());
+						if(t >= 0 && index.markFound(t))
+							finds.incrementAndGet(t);
+					}
+				}
+			};
+		}
+		runAll(tasks);
+
+		for(int t = 0; t < NUM_TARGETS; t++) {
+			assertEquals(1, finds.get(t));
+			Point3D p = index.getLocation(t);
+			assertEquals(-1, index.findWithin(0, p.getIntX(), p.getIntY(), p.getIntZ()));
+		}
+
+		// the counts in the k-d tree must still be right after a reset
+		index.reset();
+		for(int t = 0; t < NUM_TARGETS; t++) {
+			Point3D p = index.getLocation(t);
+			assertTrue(index.findWithin(0, p.getIntX(), p.getIntY(), p.getIntZ()) >= 0);
+		}
+	}
+
+	// run each task in its own thread, all starting at once, and rethrow
+	// the first failure, if any
+	static void runAll(Runnable[] tasks) throws Exception {
+		final CountDownLatch start = new CountDownLatch(1);
+		final Throwable[] failures = new Throwable[tasks.length];
+		Thread[] threads = new Thread[tasks.length];
+		for(int i = 0; i < tasks.length; i++) {
+			final int n = i;
+			final Runnable task = tasks[i];
+			threads[i] = new Thread() {
+				public void run() {
+					try {
+						start.await();
+						task.run();
+					} catch(Throwable t) {
+						failures[n] = t;
+					}
+				}
+			};
+			threads[i].start();
+		}
+
+		start.countDown();
+		for(Thread t : threads)
+			t.join();
+
+		for(Throwable t : failures) {
+			if(t instanceof Error)
+				throw (Error) t;
+			if(t instanceof Exception)
+				throw (Exception) t;
+		}
+	}
+}
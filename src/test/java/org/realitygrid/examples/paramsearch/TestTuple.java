@@ -86,6 +86,18 @@ public class TestTuple {
 	public void testHashCode() {
 		assertEquals(iTuple00.hashCode(), dTuple00.hashCode());
 		assertFalse(iTuple01.hashCode() == dTuple01.hashCode());
+		assertEquals(iTuple02.hashCode(), dTuple02.hashCode());
+		assertEquals(new Point3D(3, 4, 12).hashCode(), dTuple02.hashCode());
+		assertEquals(new Tuple<Double>(-0.0, 0.0).hashCode(),
+				new Tuple<Double>(0.0, 0.0).hashCode());
+	}
+
+	@Test
+	public void testHashCodePermutations() {
+		int h123 = new Tuple<Integer>(1, 2, 3).hashCode();
+		assertFalse(h123 == new Tuple<Integer>(3, 2, 1).hashCode());
+		assertFalse(h123 == new Tuple<Integer>(2, 2, 2).hashCode());
+		assertFalse(h123 == new Tuple<Integer>(2, 1, 3).hashCode());
 	}
 
 	@Test
@@ -0,0 +1,146 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class TestVisitedSet {
+
+	private static final int SIZE = 300;
+	private static final int THREADS = 8;
+
+	@Test
+	public void testCreate() {
+		assertTrue(VisitedSet.create(SIZE) instanceof DenseVisitedSet);
+		assertTrue(VisitedSet.create(100000) instanceof SparseVisitedSet);
+		assertEquals(SIZE, VisitedSet.create(SIZE).getDomainSize());
+	}
+
+	@Test
+	public void testDense() {
+		check(VisitedSet.dense(SIZE));
+	}
+
+	@Test
+	public void testSparse() {
+		check(VisitedSet.sparse(SIZE));
+	}
+
+	@Test
+	public void testSparseHugeDomain() {
+		VisitedSet v = VisitedSet.sparse(VisitedSet.MAX_SIZE);
+		int max = VisitedSet.MAX_SIZE - 1;
+		assertTrue(v.visit(max, max, max));
+		assertFalse(v.visit(max, max, max));
+		assertTrue(v.visit(0, 0, 0));
+		assertFalse(v.isVisited(max, max, max - 1));
+		assertEquals(2, v.count());
+	}
+
+	@Test
+	public void testSparseChunkGrowth() {
+		// fill most of one chunk so that it has to become a bitmap
+		VisitedSet v = VisitedSet.sparse(SIZE);
+		for(int n = 0; n < 60000; n += 3)
+			assertTrue(v.visit(0, n / SIZE, n % SIZE));
+		for(int n = 0; n < 60000; n++)
+			assertEquals(n % 3 == 0, v.isVisited(0, n / SIZE, n % SIZE));
+		assertEquals(20000, v.count());
+	}
+
+	@Test
+	public void testConcurrentVisit() throws Exception {
+		testConcurrentVisit(VisitedSet.dense(SIZE));
+		testConcurrentVisit(VisitedSet.sparse(SIZE));
+	}
+
+	private void testConcurrentVisit(final VisitedSet v) throws Exception {
+		final AtomicLong firsts = new AtomicLong();
+		Runnable[] tasks = new Runnable[THREADS];
+		for(int i = 0; i < THREADS; i++) {
+			tasks[i] = new Runnable() {
+				public void run() {
+					// every thread visits the same points
+					Random r = new Random(17);
+					for(int n = 0; n < 50000; n++)
+						if(v.visit(r.nextInt(SIZE), r.nextInt(SIZE), r.nextInt(50)))
+							firsts.incrementAndGet();
+				}
+			};
+		}
+		TestTargetIndex.runAll(tasks);
+
+		assertEquals(v.count(), firsts.get());
+	}
+
+	private void check(VisitedSet v) {
+		assertEquals(0, v.count());
+		assertFalse(v.isVisited(1, 2, 3));
+		assertTrue(v.visit(1, 2, 3));
+		assertTrue(v.isVisited(1, 2, 3));
+		assertFalse(v.visit(1, 2, 3));
+		assertFalse(v.isVisited(3, 2, 1));
+		assertTrue(v.visit(SIZE - 1, SIZE - 1, SIZE - 1));
+		assertEquals(2, v.count());
+
+		// points outside the domain are never recorded
+		assertTrue(v.visit(-1, 0, 0));
+		assertTrue(v.visit(-1, 0, 0));
+		assertTrue(v.visit(0, SIZE, 0));
+		assertFalse(v.isVisited(-1, 0, 0));
+		assertEquals(2, v.count());
+
+		v.clear();
+		assertEquals(0, v.count());
+		assertFalse(v.isVisited(1, 2, 3));
+		assertTrue(v.visit(1, 2, 3));
+	}
+}
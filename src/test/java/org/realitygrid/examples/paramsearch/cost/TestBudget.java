@@ -0,0 +1,133 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.cost;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class TestBudget {
+
+	@Test
+	public void testUnlimited() {
+		Budget budget = new Budget("Test");
+		budget.spend(1);
+		budget.spend(10);
+
+		assertEquals(11, budget.getSpent());
+		assertEquals(Budget.UNLIMITED, budget.getLimit());
+		assertEquals(Budget.UNLIMITED, budget.getRemaining());
+
+		budget.reset();
+		assertEquals(0, budget.getSpent());
+	}
+
+	@Test
+	public void testLimit() {
+		Budget budget = new Budget("Test", 10);
+		budget.spend(4);
+		budget.spend(4);
+		assertEquals(2, budget.getRemaining());
+
+		try {
+			budget.spend(3);
+			fail("Budget overspent.");
+		} catch(BudgetExhaustedException e) {
+			// none of a refused spend is taken
+			assertEquals(8, budget.getSpent());
+		}
+
+		budget.spend(2);
+		assertEquals(0, budget.getRemaining());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeLimit() {
+		new Budget("Test", -1);
+	}
+
+	@Test
+	public void testConcurrentSpend() throws Exception {
+		final Budget budget = new Budget("Test", 1000);
+		Thread[] threads = new Thread[8];
+		for(int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread() {
+				public void run() {
+					try {
+						while(true)
+							budget.spend(1);
+					} catch(BudgetExhaustedException e) {
+						// spent
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for(Thread t : threads)
+			t.join();
+
+		assertEquals(1000, budget.getSpent());
+	}
+
+	@Test
+	public void testConcurrentUnlimited() throws Exception {
+		final Budget budget = new Budget("Test");
+		Thread[] threads = new Thread[8];
+		for(int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread() {
+				public void run() {
+					for(int j = 0; j < 10000; j++)
+						budget.spend(1);
+				}
+			};
+			threads[i].start();
+		}
+		for(Thread t : threads)
+			t.join();
+
+		assertEquals(80000, budget.getSpent());
+	}
+}
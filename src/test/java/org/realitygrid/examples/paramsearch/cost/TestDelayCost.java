@@ -0,0 +1,177 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.cost;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+import org.realitygrid.examples.paramsearch.PointBatch;
+
+public class TestDelayCost {
+
+	private static final long MILLI = 1000000L;
+	private static final int SAMPLES = 10001;
+
+	@Test
+	public void testFixedCost() {
+		assertEquals(250 * MILLI, new FixedCost(250).getDelay(1, 2, 3));
+		assertEquals(MILLI / 2, new SpinCost(0.5).getDelay(1, 2, 3));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testFixedCostNegative() {
+		new FixedCost(-1);
+	}
+
+	@Test
+	public void testSpinCost() {
+		long start = System.nanoTime();
+		new SpinCost(5).charge(0, 0, 0);
+		assertTrue(System.nanoTime() - start >= 5 * MILLI);
+	}
+
+	@Test
+	public void testSubMillisecond() {
+		FixedCost cost = new FixedCost(0.25);
+		long[] times = new long[101];
+		long time = 0;
+		for(int i = 0; i < times.length; i++) {
+			long start = System.nanoTime();
+			cost.charge(0, 0, 0);
+			times[i] = System.nanoTime() - start;
+			time += times[i];
+		}
+		Arrays.sort(times);
+
+		// sleeping would take at least a whole millisecond for each charge;
+		// a busy machine may stretch some of them, but not most
+		assertTrue(time >= 25 * MILLI);
+		assertTrue(times[times.length / 2] < MILLI);
+		assertTrue(time < 1000 * MILLI);
+	}
+
+	@Test
+	public void testInterrupted() {
+		Thread.currentThread().interrupt();
+		long start = System.nanoTime();
+		new FixedCost(1000).charge(0, 0, 0);
+
+		// the charge stops early and leaves the thread interrupted
+		assertTrue(Thread.interrupted());
+		assertTrue(System.nanoTime() - start < 500 * MILLI);
+	}
+
+	@Test
+	public void testLogNormalCost() {
+		long[] delays = sample(new LogNormalCost(100, 0.5, new Random(17)));
+
+		// the median of the samples should be close to the median asked for
+		assertEquals(100 * MILLI, delays[SAMPLES / 2], 5 * MILLI);
+		assertTrue(delays[0] > 0);
+	}
+
+	@Test
+	public void testParetoCost() {
+		long[] delays = sample(new ParetoCost(10, 1.5, new Random(17)));
+
+		assertTrue(delays[0] >= 10 * MILLI);
+		// the median of a Pareto distribution is minimum * 2^(1 / alpha)
+		assertEquals(10 * Math.pow(2.0, 1.0 / 1.5) * MILLI, delays[SAMPLES / 2], MILLI);
+		assertTrue(delays[SAMPLES - 1] > 100 * delays[0]);
+	}
+
+	@Test
+	public void testLocationCost() {
+		LocationCost cost = new LocationCost(10, 40, 101);
+		assertEquals(10 * MILLI, cost.getDelay(0, 0, 0));
+		assertEquals(25 * MILLI, cost.getDelay(50, 50, 50));
+		assertEquals(40 * MILLI, cost.getDelay(100, 100, 100));
+		assertEquals(40 * MILLI, cost.getDelay(200, 200, 200));
+	}
+
+	@Test
+	public void testBatchCost() {
+		PointBatch batch = new PointBatch();
+		BatchCost cost = new BatchCost(100, 2);
+		assertEquals(0, cost.getBatchDelay(batch));
+		for(int i = 0; i < 10; i++)
+			batch.append(i, i, i);
+
+		assertEquals(102 * MILLI, cost.getDelay(1, 2, 3));
+		assertEquals(120 * MILLI, cost.getBatchDelay(batch));
+
+		// other models charge a batch what its points would cost singly
+		assertEquals(10 * 250 * MILLI, new FixedCost(250).getBatchDelay(batch));
+	}
+
+	@Test
+	public void testDefaultChargeBatch() {
+		final int[] charges = new int[1];
+		CostModel cost = new CostModel() {
+			public void charge(int x, int y, int z) {
+				charges[0]++;
+			}
+		};
+
+		PointBatch batch = new PointBatch();
+		for(int i = 0; i < 7; i++)
+			batch.append(i, 0, 0);
+		cost.chargeBatch(batch);
+		assertEquals(7, charges[0]);
+	}
+
+	private static long[] sample(DelayCost cost) {
+		long[] delays = new long[SAMPLES];
+		for(int i = 0; i < SAMPLES; i++)
+			delays[i] = cost.getDelay(0, 0, 0);
+
+		Arrays.sort(delays);
+		return delays;
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.cost;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class TestProcessCost {
+
+	private ProcessCost cost;
+
+	@After
+	public void tearDown() throws Exception {
+		if(cost != null)
+			cost.close();
+		cost = null;
+	}
+
+	private static List<String> stub(String... args) {
+		List<String> command = new ArrayList<String>();
+		command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(StubSimulator.class.getName());
+		command.addAll(Arrays.asList(args));
+
+		return command;
+	}
+
+	@Test
+	public void testCharge() throws Exception {
+		cost = new ProcessCost(stub("0"), 2, 10000);
+		for(int i = 0; i < 20; i++)
+			cost.charge(i, i, i);
+
+		assertEquals(20, cost.getTests());
+		assertEquals(2, cost.getStarts());
+		assertEquals(0, cost.getCrashes());
+	}
+
+	@Test
+	public void testConcurrentCharge() throws Exception {
+		cost = new ProcessCost(stub("50"), 2, 10000);
+		cost.charge(0, 0, 0);
+
+		Thread[] threads = new Thread[4];
+		long start = System.nanoTime();
+		for(int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread() {
+				public void run() {
+					cost.charge(1, 2, 3);
+					cost.charge(3, 2, 1);
+				}
+			};
+			threads[i].start();
+		}
+		for(Thread t : threads)
+			t.join();
+
+		// eight tests of 50ms shared between two workers
+		assertTrue(System.nanoTime() - start >= 200 * 1000000L);
+		assertEquals(9, cost.getTests());
+		assertEquals(2, cost.getStarts());
+	}
+
+	@Test
+	public void testCrashRetried() throws Exception {
+		File marker = File.createTempFile("stub", ".marker");
+		assertTrue(marker.delete());
+		marker.deleteOnExit();
+
+		cost = new ProcessCost(stub("0", marker.getPath()), 1, 10000);
+		cost.charge(-1, 0, 0);
+		assertEquals(1, cost.getCrashes());
+		assertEquals(2, cost.getStarts());
+		cost.charge(1, 2, 3);
+		assertEquals(2, cost.getTests());
+	}
+
+	@Test
+	public void testRepeatedCrash() throws Exception {
+		cost = new ProcessCost(stub("0"), 1, 10000);
+		try {
+			cost.charge(-1, 0, 0);
+			fail();
+		} catch(ProcessCostException e) {
+			assertEquals(2, cost.getCrashes());
+		}
+
+		// the pool recovers
+		cost.charge(1, 2, 3);
+		assertEquals(3, cost.getStarts());
+	}
+
+	@Test
+	public void testTimeout() throws Exception {
+		cost = new ProcessCost(stub("0"), 1, 500);
+		long start = System.nanoTime();
+		cost.charge(-2, 0, 0);
+		assertTrue(System.nanoTime() - start >= 500 * 1000000L);
+		assertEquals(1, cost.getTimeouts());
+
+		cost.charge(1, 2, 3);
+		assertEquals(2, cost.getStarts());
+	}
+
+	@Test
+	public void testCloseDuringTest() throws Exception {
+		cost = new ProcessCost(stub("0"), 1, 10000);
+		Thread t = new Thread() {
+			public void run() {
+				cost.charge(-2, 0, 0);
+			}
+		};
+		t.start();
+		Thread.sleep(500);
+
+		// the stopped worker looks like a crash, but is not replaced
+		long start = System.nanoTime();
+		cost.close();
+		t.join(5000);
+		assertFalse(t.isAlive());
+		assertTrue(System.nanoTime() - start < 5000 * 1000000L);
+		assertEquals(1, cost.getStarts());
+		assertEquals(0, cost.getCrashes());
+	}
+
+	@Test(expected = IOException.class)
+	public void testBadCommand() throws Exception {
+		cost = new ProcessCost(Arrays.asList("/no/such/simulator"), 1, 1000);
+	}
+}
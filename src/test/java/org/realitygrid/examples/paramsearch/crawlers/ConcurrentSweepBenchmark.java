@@ -0,0 +1,197 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.crawlers;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.VirtualThreads;
+import org.realitygrid.examples.paramsearch.cost.Budget;
+import org.realitygrid.examples.paramsearch.cost.BudgetExhaustedException;
+import org.realitygrid.examples.paramsearch.cost.FixedCost;
+import org.realitygrid.examples.paramsearch.cost.ZeroCost;
+
+/**
+ * Compare a {@link ConcurrentSweepCrawler} running its tests on virtual
+ * threads with one running them on a fixed pool of platform threads, one
+ * thread for each test in progress. Each test costs a fixed time, and the
+ * crawler sweeps a domain whose targets have all been found until its test
+ * budget runs out, so each run makes the same number of tests for each test
+ * in progress. The throughput, and the most heap, resident memory and
+ * threads seen while the tests are made, are printed. It needs a runtime
+ * with virtual threads (Java 21 or later) and refuses to run on any other.
+ * This is not run as part of the unit tests; run it by hand with:
+ * <p/>{@code java ConcurrentSweepBenchmark [concurrency...]}
+ * <p/>By default it is run for 10, 100 and 1000 tests in progress.
+ * @author Robert Haines
+ */
+public class ConcurrentSweepBenchmark {
+
+	private static final int SIZE = 100;
+	private static final double COST = 10.0;
+	private static final int ROUNDS = 50;
+
+	public static void main(String[] args) throws Exception {
+		int[] counts = { 10, 100, 1000 };
+		if(args.length > 0) {
+			counts = new int[args.length];
+			for(int i = 0; i < args.length; i++)
+				counts[i] = Integer.parseInt(args[i]);
+		}
+
+		if(!VirtualThreads.isSupported()) {
+			System.err.println("This runtime does not have virtual threads. Run this on Java 21 or later.");
+			System.exit(1);
+		}
+
+		for(int concurrency : counts) {
+			run("virtual", concurrency, VirtualThreads.newExecutor());
+			run("platform", concurrency, Executors.newFixedThreadPool(concurrency,
+					new ThreadFactory() {
+						public Thread newThread(Runnable r) {
+							Thread t = new Thread(r);
+							t.setDaemon(true);
+							return t;
+						}
+					}));
+		}
+	}
+
+	private static void run(String mode, int concurrency, ExecutorService executor)
+			throws InterruptedException {
+		Domain domain = new Domain("Benchmark", SIZE, 1);
+		domain.setCostModel(new ZeroCost());
+		domain.isWithinError(domain.getHint());
+		if(domain.getNumFound() != 1)
+			throw new IllegalStateException("Target not found");
+		domain.setCostModel(new FixedCost(COST));
+		domain.setTestBudget(new Budget("tests", (long) concurrency * ROUNDS));
+
+		System.gc();
+		Sampler sampler = new Sampler();
+		sampler.start();
+
+		long start = System.nanoTime();
+		try {
+			new ConcurrentSweepCrawler(domain, concurrency, executor).search();
+		} catch (BudgetExhaustedException e) {
+			// every run ends here
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		sampler.interrupt();
+		sampler.join();
+		executor.shutdownNow();
+
+		System.out.printf("%-8s %4d in progress: %8.0f tests/s, heap %4d MB, rss %4d MB, %4d threads%n",
+				mode, concurrency, domain.getTestBudget().getSpent() / seconds,
+				sampler.heap >> 20, sampler.rss >> 20, sampler.threads);
+	}
+
+	/*
+	 * Keep the most heap and resident memory used, and threads alive, until
+	 * interrupted.
+	 */
+	private static final class Sampler extends Thread {
+
+		private final Runtime runtime = Runtime.getRuntime();
+		private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		volatile long heap;
+		volatile long rss;
+		volatile int threads;
+
+		Sampler() {
+			setDaemon(true);
+			threadBean.resetPeakThreadCount();
+		}
+
+		@Override
+		public void run() {
+			while(!isInterrupted()) {
+				heap = Math.max(heap, runtime.totalMemory() - runtime.freeMemory());
+				rss = Math.max(rss, residentMemory());
+				threads = Math.max(threads, threadBean.getPeakThreadCount());
+				try {
+					Thread.sleep(5);
+				} catch (InterruptedException e) {
+					return;
+				}
+			}
+		}
+
+		// the resident set size on Linux, or 0 elsewhere
+		private static long residentMemory() {
+			BufferedReader in = null;
+			try {
+				in = new BufferedReader(new FileReader("/proc/self/status"));
+				String line;
+				while((line = in.readLine()) != null) {
+					if(line.startsWith("VmRSS:"))
+						return Long.parseLong(line.replaceAll("[^0-9]", "")) << 10;
+				}
+			} catch (IOException e) {
+				// not available
+			} finally {
+				if(in != null) {
+					try {
+						in.close();
+					} catch (IOException e) {
+						// ignore
+					}
+				}
+			}
+
+			return 0;
+		}
+	}
+}
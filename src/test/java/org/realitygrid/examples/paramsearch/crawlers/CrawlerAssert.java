@@ -0,0 +1,94 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.crawlers;
+
+import static org.junit.Assert.*;
+
+import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.EvaluationCache;
+
+/*
+ * Assertions shared by the tests of crawlers that find one target with
+ * each search.
+ */
+final class CrawlerAssert {
+
+	private CrawlerAssert() {
+	}
+
+	// each search finds a target, and once all are found there are no more
+	static void assertFindsAll(Domain domain, AbstractCrawler crawler) {
+		assertFindsAll(domain, crawler, 0);
+	}
+
+	// as above, for a crawler whose searches have already returned some
+	// targets: the domain may have counted more than that, as a crawler
+	// that tests several points at once can find targets ahead of the
+	// searches that return them
+	static void assertFindsAll(Domain domain, AbstractCrawler crawler, int returned) {
+		for(int i = returned; i < domain.getNumTargets(); i++)
+			assertNotNull(crawler.search());
+		assertEquals(domain.getNumTargets(), domain.getNumFound());
+		assertNull(domain.getHint());
+		assertNull(crawler.search());
+	}
+
+	// every result the cache would give is that of testing against the
+	// current target
+	static void assertCacheCurrent(Domain domain, EvaluationCache cache) {
+		cache.validate(domain.getNumFound());
+		int size = domain.getSize();
+		for(int x = 0; x < size; x++) {
+			for(int y = 0; y < size; y++) {
+				for(int z = 0; z < size; z++) {
+					int result = cache.get(x, y, z);
+					if(result != EvaluationCache.MISS)
+						assertEquals(domain.getDirection(x, y, z), result);
+				}
+			}
+		}
+	}
+}
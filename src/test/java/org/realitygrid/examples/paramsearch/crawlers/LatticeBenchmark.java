@@ -0,0 +1,106 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.crawlers;
+
+import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.cost.ZeroCost;
+
+/**
+ * Compare the number of tests the ImprovedSimpleCrawler and the
+ * LatticeCrawler make to find every target of a standard domain, and that
+ * of the LatticeCrawler when the domain does not tell it its tolerance and
+ * it has to refine its lattice. Tests cost nothing, so this counts tests
+ * rather than timing them. This is not run as part of the unit tests; run
+ * it by hand with:
+ * <p/>{@code java LatticeBenchmark}
+ * @author Robert Haines
+ */
+public class LatticeBenchmark {
+
+	private static final int SIZE = 300;
+	private static final int NUM_TARGETS = 5;
+
+	public static void main(String[] args) throws Exception {
+		long simple = 0;
+		for(int i = 0; i < 2; i++) {
+			Domain domain = domain(true);
+			AbstractCrawler crawler = (i == 0) ? new ImprovedSimpleCrawler(domain)
+					: new LatticeCrawler(domain);
+			long tests = run(domain, crawler);
+			if(i == 0)
+				simple = tests;
+			report(crawler.getName(), tests, simple);
+		}
+
+		Domain domain = domain(false);
+		report("Lattice Crawler (refining)", run(domain, new LatticeCrawler(domain)), simple);
+	}
+
+	private static Domain domain(final boolean knowsError) {
+		Domain domain = new Domain("Benchmark", SIZE, NUM_TARGETS) {
+			@Override
+			public int getError() {
+				return knowsError ? super.getError() : -1;
+			}
+		};
+		domain.setCostModel(new ZeroCost());
+
+		return domain;
+	}
+
+	private static long run(Domain domain, AbstractCrawler crawler) {
+		long spent = domain.getTestBudget().getSpent();
+		while(domain.getNumFound() < NUM_TARGETS)
+			crawler.search();
+
+		return domain.getTestBudget().getSpent() - spent;
+	}
+
+	private static void report(String name, long tests, long simple) {
+		System.out.printf("%-28s %10d tests, %8.1fx fewer%n", name, tests,
+				(double) simple / tests);
+	}
+}
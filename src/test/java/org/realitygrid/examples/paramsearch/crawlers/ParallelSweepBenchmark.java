@@ -0,0 +1,127 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.crawlers;
+
+import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.Point3D;
+import org.realitygrid.examples.paramsearch.cost.FixedCost;
+import org.realitygrid.examples.paramsearch.cost.ZeroCost;
+
+/**
+ * Measure how a {@link ParallelSweepCrawler} speeds up as it is given more
+ * threads, when each test takes a fixed time that dominates the crawler's
+ * own work. Two times are measured for each number of threads: that of a
+ * sweep of a whole domain whose targets have all been found already, which
+ * shows how well the work is shared out, and the average time to find all
+ * the targets of a few small domains. The second depends as much on where
+ * the targets are as on the number of threads: more threads sweep the
+ * pieces in a different order and may come across a target much sooner.
+ * This is not run as part of the unit tests; run it by hand with:
+ * <p/>{@code java ParallelSweepBenchmark [threads...]}
+ * <p/>By default it is run for 1, 4 and 16 threads.
+ * @author Robert Haines
+ */
+public class ParallelSweepBenchmark {
+
+	private static final int SWEEP_SIZE = 20;
+	private static final int SIZE = 40;
+	private static final int NUM_TARGETS = 3;
+	private static final double COST = 0.25;
+	private static final int RUNS = 3;
+
+	public static void main(String[] args) throws Exception {
+		int[] counts = { 1, 4, 16 };
+		if(args.length > 0) {
+			counts = new int[args.length];
+			for(int i = 0; i < args.length; i++)
+				counts[i] = Integer.parseInt(args[i]);
+		}
+
+		double sweepBase = 0.0;
+		double findBase = 0.0;
+		for(int threads : counts) {
+			double sweep = sweep(threads);
+			if(sweepBase == 0.0)
+				sweepBase = sweep;
+
+			// the targets are placed differently for each run
+			double find = 0.0;
+			for(int run = 0; run < RUNS; run++)
+				find += find(threads, run);
+			find /= RUNS;
+			if(findBase == 0.0)
+				findBase = find;
+
+			System.out.printf("%2d threads: sweep %.2fs (%.1fx), find all %.2fs (%.1fx)%n",
+					threads, sweep, sweepBase / sweep, find, findBase / find);
+		}
+	}
+
+	private static double sweep(int threads) {
+		Domain domain = new Domain("Benchmark", SWEEP_SIZE, 1);
+		domain.setCostModel(new ZeroCost());
+		Point3D hint = domain.getHint();
+		domain.isWithinError(hint);
+		domain.setCostModel(new FixedCost(COST));
+
+		long start = System.nanoTime();
+		new ParallelSweepCrawler(domain, threads).search();
+
+		return (System.nanoTime() - start) / 1e9;
+	}
+
+	private static double find(int threads, int run) {
+		Domain domain = new Domain("Benchmark" + run, SIZE, NUM_TARGETS);
+		domain.setCostModel(new FixedCost(COST));
+		ParallelSweepCrawler crawler = new ParallelSweepCrawler(domain, threads);
+
+		long start = System.nanoTime();
+		for(int i = 0; i < NUM_TARGETS; i++)
+			crawler.search();
+
+		return (System.nanoTime() - start) / 1e9;
+	}
+}
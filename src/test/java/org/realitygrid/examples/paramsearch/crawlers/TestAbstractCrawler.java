@@ -0,0 +1,161 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.crawlers;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.Evaluation;
+import org.realitygrid.examples.paramsearch.EvaluationCache;
+import org.realitygrid.examples.paramsearch.PackedPoints;
+import org.realitygrid.examples.paramsearch.Point3D;
+import org.realitygrid.examples.paramsearch.PointBatch;
+import org.realitygrid.examples.paramsearch.TargetFile;
+import org.realitygrid.examples.paramsearch.cost.ZeroCost;
+import org.realitygrid.examples.paramsearch.ui.PointView;
+
+public class TestAbstractCrawler {
+
+	private static final int SIZE = 300;
+
+	private Domain domain;
+	private BatchCrawler crawler;
+	private RecordingView view;
+
+	// a crawler that only tests the points it is given
+	private static final class BatchCrawler extends AbstractCrawler {
+
+		BatchCrawler(Domain d) {
+			super("Batch Crawler", d);
+		}
+
+		@Override
+		public Point3D search() {
+			return null;
+		}
+	}
+
+	// a view that remembers what it has been shown
+	private static final class RecordingView implements PointView {
+
+		final List<Point3D> points = new ArrayList<Point3D>();
+		final List<Boolean> found = new ArrayList<Boolean>();
+
+		public void showPoint(Point3D p, boolean f) {
+			points.add(p);
+			found.add(f);
+		}
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		File file = File.createTempFile("crawler", ".targets");
+		file.deleteOnExit();
+		TargetFile.write(file, "Crawler", SIZE, new long[] {
+				PackedPoints.encode(50, 50, 50),
+				PackedPoints.encode(100, 100, 100),
+				PackedPoints.encode(200, 200, 200) });
+		domain = Domain.load(file);
+		domain.setCostModel(new ZeroCost());
+
+		crawler = new BatchCrawler(domain);
+		view = new RecordingView();
+		crawler.setView(view);
+	}
+
+	@Test
+	public void testPoint() {
+		assertEquals(Evaluation.hint(1, 0, 0), crawler.testPoint(30, 50, 50));
+		assertEquals(Evaluation.FOUND, crawler.testPoint(55, 45, 50));
+
+		// a find is shown where the target is
+		assertEquals(Point3D.of(30, 50, 50), view.points.get(0));
+		assertEquals(Point3D.of(50, 50, 50), view.points.get(1));
+		assertEquals(false, view.found.get(0));
+		assertEquals(true, view.found.get(1));
+	}
+
+	@Test
+	public void testPoints() {
+		EvaluationCache cache = new EvaluationCache(1000);
+		crawler.setEvaluationCache(cache);
+		crawler.testPoint(30, 50, 50);
+		assertEquals(0, cache.getGeneration());
+		assertEquals(Evaluation.hint(1, 0, 0), cache.get(30, 50, 50));
+
+		// a miss, the first two targets, then a point tested against the
+		// third target
+		PointBatch batch = new PointBatch();
+		batch.append(30, 50, 50);
+		batch.append(55, 45, 50);
+		batch.append(100, 100, 100);
+		batch.append(30, 50, 50);
+		int[] results = crawler.testPoints(batch);
+		assertArrayEquals(new int[] { Evaluation.hint(1, 0, 0), Evaluation.FOUND,
+				Evaluation.FOUND, Evaluation.hint(1, 1, 1) }, results);
+
+		// the cache has moved on to the third target, so the result it held
+		// for the first is gone
+		assertEquals(2, cache.getGeneration());
+		assertEquals(EvaluationCache.MISS, cache.get(30, 50, 50));
+		assertEquals(Evaluation.hint(1, 1, 1), crawler.testPoint(30, 50, 50));
+
+		// finds are shown where the targets are, as testPoint shows them
+		assertEquals(6, view.points.size());
+		assertEquals(Point3D.of(30, 50, 50), view.points.get(1));
+		assertEquals(Point3D.of(50, 50, 50), view.points.get(2));
+		assertEquals(Point3D.of(100, 100, 100), view.points.get(3));
+		assertEquals(Point3D.of(30, 50, 50), view.points.get(4));
+		assertArrayEquals(new Object[] { false, false, true, true, false, false },
+				view.found.toArray());
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.crawlers;
+
+import static org.junit.Assert.*;
+import static org.realitygrid.examples.paramsearch.crawlers.CrawlerAssert.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.EvaluationCache;
+import org.realitygrid.examples.paramsearch.Point3D;
+import org.realitygrid.examples.paramsearch.cost.Budget;
+import org.realitygrid.examples.paramsearch.cost.BudgetExhaustedException;
+import org.realitygrid.examples.paramsearch.cost.CostModel;
+import org.realitygrid.examples.paramsearch.cost.FixedCost;
+import org.realitygrid.examples.paramsearch.cost.ZeroCost;
+
+public class TestConcurrentSweepCrawler {
+
+	private static final int SIZE = 40;
+	private static final int NUM_TARGETS = 5;
+	private static final int ERROR = 10;
+
+	private static Domain domain() {
+		Domain domain = new Domain("Sweep", SIZE, NUM_TARGETS);
+		domain.setCostModel(new ZeroCost());
+
+		return domain;
+	}
+
+	@Test
+	public void testSearch() {
+		Domain domain = domain();
+
+		assertFindsAll(domain, new ConcurrentSweepCrawler(domain, 1));
+		domain.reset();
+		assertFindsAll(domain, new ConcurrentSweepCrawler(domain, 64));
+	}
+
+	@Test
+	public void testAnyOrder() {
+		Domain domain = domain();
+		domain.setAnyOrder(true);
+
+		assertFindsAll(domain, new ConcurrentSweepCrawler(domain, 64));
+	}
+
+	@Test
+	public void testPlatformPool() {
+		Domain domain = domain();
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+
+		try {
+			assertFindsAll(domain, new ConcurrentSweepCrawler(domain, 16, pool));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testFirstFound() {
+		Domain domain = domain();
+		Point3D first = domain.getHint();
+
+		// one test at a time is made in sweep order
+		Point3D p = new ConcurrentSweepCrawler(domain, 1).search();
+		assertTrue(p.isWithin(ERROR, first.getIntX() + ERROR, first.getIntY() + ERROR,
+				first.getIntZ() + ERROR));
+	}
+
+	@Test
+	public void testConcurrency() {
+		Domain domain = new Domain("Sweep", SIZE, NUM_TARGETS);
+		final CostModel sleep = new FixedCost(1.0);
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger most = new AtomicInteger();
+
+		// count the tests in progress while their cost is paid
+		domain.setCostModel(new CostModel() {
+			public void charge(int x, int y, int z) {
+				int now = running.incrementAndGet();
+				int m;
+				while((m = most.get()) < now && !most.compareAndSet(m, now));
+				try {
+					sleep.charge(x, y, z);
+				} finally {
+					running.decrementAndGet();
+				}
+			}
+		});
+
+		ConcurrentSweepCrawler crawler = new ConcurrentSweepCrawler(domain, 8);
+		assertEquals(8, crawler.getConcurrency());
+
+		assertNotNull(crawler.search());
+		assertTrue(most.get() > 1);
+		assertTrue(most.get() <= 8);
+		assertEquals(0, running.get());
+	}
+
+	@Test
+	public void testCache() {
+		Domain domain = domain();
+		ConcurrentSweepCrawler crawler = new ConcurrentSweepCrawler(domain, 64);
+		EvaluationCache cache = new EvaluationCache(SIZE * SIZE * SIZE);
+		crawler.setEvaluationCache(cache);
+
+		// the tests still in progress when a target was found must not
+		// leave results tested against it in the cache
+		for(int i = 0; i < NUM_TARGETS - 1; i++) {
+			assertNotNull(crawler.search());
+			assertCacheCurrent(domain, cache);
+		}
+		assertFindsAll(domain, crawler, NUM_TARGETS - 1);
+		assertTrue(cache.getMisses() > 0);
+	}
+
+	@Test
+	public void testFailure() {
+		Domain domain = domain();
+		domain.setTestBudget(new Budget("tests", 10));
+
+		ConcurrentSweepCrawler crawler = new ConcurrentSweepCrawler(domain, 16);
+		try {
+			crawler.search();
+			fail("Should have run out of tests");
+		} catch (BudgetExhaustedException e) {
+			// expected
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadConcurrency() {
+		new ConcurrentSweepCrawler(new Domain("Sweep", SIZE, NUM_TARGETS), 0);
+	}
+}
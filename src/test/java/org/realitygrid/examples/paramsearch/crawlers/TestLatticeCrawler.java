@@ -0,0 +1,163 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.crawlers;
+
+import static org.junit.Assert.*;
+import static org.realitygrid.examples.paramsearch.crawlers.CrawlerAssert.*;
+
+import org.junit.Test;
+import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.EvaluationCache;
+import org.realitygrid.examples.paramsearch.cost.Budget;
+import org.realitygrid.examples.paramsearch.cost.BudgetExhaustedException;
+import org.realitygrid.examples.paramsearch.cost.ZeroCost;
+
+public class TestLatticeCrawler {
+
+	private static final int SIZE = 60;
+	private static final int NUM_TARGETS = 8;
+	private static final int ERROR = 10;
+
+	// the lattice of a 60 cube is at 10, 31 and 52 along each axis
+	private static final int LATTICE = 3 * 3 * 3;
+
+	private static Domain domain(final boolean knowsError) {
+		Domain domain = new Domain("Lattice", SIZE, NUM_TARGETS) {
+			@Override
+			public int getError() {
+				return knowsError ? super.getError() : -1;
+			}
+		};
+		domain.setCostModel(new ZeroCost());
+
+		return domain;
+	}
+
+	@Test
+	public void testError() {
+		assertEquals(ERROR, new Domain("Lattice", SIZE, NUM_TARGETS).getError());
+		assertEquals(-1, domain(false).getError());
+	}
+
+	@Test
+	public void testSearch() {
+		Domain domain = domain(true);
+		LatticeCrawler crawler = new LatticeCrawler(domain);
+		assertEquals((2 * ERROR) + 1, crawler.getStride());
+		long spent = domain.getTestBudget().getSpent();
+
+		// no search tests more than the whole lattice
+		assertFindsAll(domain, crawler);
+		assertTrue(domain.getTestBudget().getSpent() - spent <= (NUM_TARGETS + 1) * LATTICE);
+	}
+
+	@Test
+	public void testAnyOrder() {
+		Domain domain = domain(true);
+		domain.setAnyOrder(true);
+		LatticeCrawler crawler = new LatticeCrawler(domain);
+		long spent = domain.getTestBudget().getSpent();
+
+		assertFindsAll(domain, crawler);
+		assertTrue(domain.getTestBudget().getSpent() - spent <= (NUM_TARGETS + 1) * LATTICE);
+	}
+
+	@Test
+	public void testRefine() {
+		Domain domain = domain(false);
+		LatticeCrawler crawler = new LatticeCrawler(domain);
+		assertEquals(0, crawler.getStride());
+		assertFindsAll(domain, crawler);
+
+		// with no targets left the last search tests every point exactly once
+		long spent = domain.getTestBudget().getSpent();
+		assertNull(crawler.search());
+		assertEquals((long) SIZE * SIZE * SIZE, domain.getTestBudget().getSpent() - spent);
+	}
+
+	@Test
+	public void testCache() {
+		Domain domain = domain(true);
+		LatticeCrawler crawler = new LatticeCrawler(domain);
+		EvaluationCache cache = new EvaluationCache(LATTICE);
+		crawler.setEvaluationCache(cache);
+
+		// each search goes back over the lattice, which the cache must not
+		// answer with results tested against a target already found
+		for(int i = 0; i < NUM_TARGETS - 1; i++) {
+			assertNotNull(crawler.search());
+			assertCacheCurrent(domain, cache);
+		}
+		assertFindsAll(domain, crawler, NUM_TARGETS - 1);
+
+		// nothing is found after the last target, so searching again is
+		// answered by the cache alone
+		long spent = domain.getTestBudget().getSpent();
+		long hits = cache.getHits();
+		assertNull(crawler.search());
+		assertEquals(spent, domain.getTestBudget().getSpent());
+		assertEquals(LATTICE, cache.getHits() - hits);
+	}
+
+	@Test
+	public void testBudget() {
+		Domain domain = domain(true);
+		domain.setTestBudget(new Budget("tests", LATTICE));
+		LatticeCrawler crawler = new LatticeCrawler(domain);
+		crawler.setEvaluationCache(new EvaluationCache(LATTICE));
+
+		// a whole lattice is not enough to find every target, even with the
+		// cache, but the tests it does make are all charged
+		try {
+			while(crawler.search() != null);
+			fail("Should have run out of tests");
+		} catch (BudgetExhaustedException e) {
+			// expected
+		}
+		assertEquals(LATTICE, domain.getTestBudget().getSpent());
+		assertTrue(domain.getNumFound() < NUM_TARGETS);
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.crawlers;
+
+import static org.junit.Assert.*;
+import static org.realitygrid.examples.paramsearch.crawlers.CrawlerAssert.*;
+
+import org.junit.Test;
+import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.EvaluationCache;
+import org.realitygrid.examples.paramsearch.Point3D;
+import org.realitygrid.examples.paramsearch.cost.Budget;
+import org.realitygrid.examples.paramsearch.cost.BudgetExhaustedException;
+import org.realitygrid.examples.paramsearch.cost.ZeroCost;
+
+public class TestParallelSweepCrawler {
+
+	private static final int SIZE = 60;
+	private static final int NUM_TARGETS = 8;
+	private static final int ERROR = 10;
+
+	private static Domain domain() {
+		Domain domain = new Domain("Sweep", SIZE, NUM_TARGETS);
+		domain.setCostModel(new ZeroCost());
+
+		return domain;
+	}
+
+	@Test
+	public void testSearch() {
+		Domain domain = domain();
+
+		ParallelSweepCrawler crawler = new ParallelSweepCrawler(domain, 1);
+		assertEquals(1, crawler.getParallelism());
+		assertFindsAll(domain, crawler);
+
+		domain.reset();
+		crawler = new ParallelSweepCrawler(domain, 4);
+		assertEquals(4, crawler.getParallelism());
+		assertFindsAll(domain, crawler);
+	}
+
+	@Test
+	public void testAnyOrder() {
+		Domain domain = domain();
+		domain.setAnyOrder(true);
+
+		assertFindsAll(domain, new ParallelSweepCrawler(domain, 4));
+	}
+
+	@Test
+	public void testFirstFound() {
+		Domain domain = domain();
+		Point3D first = domain.getHint();
+
+		// one thread sweeps in order, so finds the first target at the first
+		// point of its halo that it reaches
+		Point3D p = new ParallelSweepCrawler(domain, 1).search();
+		assertTrue(p.isWithin(ERROR, first.getIntX() + ERROR, first.getIntY() + ERROR,
+				first.getIntZ() + ERROR));
+	}
+
+	@Test
+	public void testCache() {
+		Domain domain = domain();
+		ParallelSweepCrawler crawler = new ParallelSweepCrawler(domain, 4);
+		EvaluationCache cache = new EvaluationCache(SIZE * SIZE * SIZE);
+		crawler.setEvaluationCache(cache);
+
+		// the threads that were still testing when a target was found must
+		// not leave results tested against it in the cache
+		for(int i = 0; i < NUM_TARGETS - 1; i++) {
+			assertNotNull(crawler.search());
+			assertCacheCurrent(domain, cache);
+		}
+		assertFindsAll(domain, crawler, NUM_TARGETS - 1);
+		assertTrue(cache.getMisses() > 0);
+	}
+
+	@Test
+	public void testBudget() {
+		Domain domain = domain();
+		domain.setTestBudget(new Budget("tests", 1000));
+		ParallelSweepCrawler crawler = new ParallelSweepCrawler(domain, 4);
+
+		// every thread stops when the budget is spent
+		try {
+			while(crawler.search() != null);
+			fail("Should have run out of tests");
+		} catch (BudgetExhaustedException e) {
+			// expected
+		}
+		assertEquals(1000, domain.getTestBudget().getSpent());
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.objective;
+
+import java.lang.reflect.Constructor;
+
+import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.crawlers.AbstractCrawler;
+import org.realitygrid.examples.paramsearch.cost.CostModel;
+
+/**
+ * Compare crawlers on the landscapes of {@link ObjectiveDomain}s, and on a
+ * plain {@link Domain} for reference, by how many tests each needs to find
+ * all the targets and how many tests each makes per second. Testing is free
+ * but each run is given a budget of tests, as a crawler that follows the
+ * hints can be stuck in a local minimum for ever. This is not run as part
+ * of the unit tests; run it by hand with:
+ * <p/>{@code java ObjectiveBenchmark [budget]}
+ * @author Robert Haines
+ */
+public class ObjectiveBenchmark {
+
+	private static final int SIZE = 300;
+	private static final int NUM_TARGETS = 5;
+	private static final String[] OBJECTIVES = { null, "rosenbrock", "gaussian:20", "rastrigin" };
+	private static final String[] CRAWLERS = { "DirectedCrawler", "ImprovedDirectedCrawler", "RandomCrawler" };
+
+	public static void main(String[] args) throws Exception {
+		long budget = 5000000;
+		if(args.length > 0)
+			budget = Long.parseLong(args[0]);
+
+		for(String objective : OBJECTIVES) {
+			for(String crawler : CRAWLERS) {
+				Domain domain;
+				if(objective == null)
+					domain = new Domain("Benchmark", SIZE, NUM_TARGETS);
+				else
+					domain = new ObjectiveDomain("Benchmark", SIZE, NUM_TARGETS, Objectives.parse(objective));
+				BudgetCost cost = new BudgetCost(budget);
+				domain.setCostModel(cost);
+
+				Class<?> cls = Class.forName("org.realitygrid.examples.paramsearch.crawlers." + crawler);
+				Constructor<?> cons = cls.getConstructor(Domain.class);
+				AbstractCrawler c = (AbstractCrawler) cons.newInstance(domain);
+
+				long start = System.nanoTime();
+				try {
+					c.run();
+				} catch(BudgetExceededException e) {
+					// stuck, or just slow
+				}
+				double seconds = (System.nanoTime() - start) / 1e9;
+
+				System.out.printf("%-12s %-24s found %d/%d in %,d tests, %,.0f tests/s%n",
+						(objective == null) ? "plain" : objective, crawler, domain.getNumFound(),
+						NUM_TARGETS, cost.tests, cost.tests / seconds);
+			}
+		}
+	}
+
+	private static final class BudgetExceededException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+	}
+
+	private static final class BudgetCost implements CostModel {
+		private final long budget;
+		private long tests;
+
+		BudgetCost(long budget) {
+			this.budget = budget;
+			tests = 0;
+		}
+
+		@Override
+		public void charge(int x, int y, int z) {
+			if(tests == budget)
+				throw new BudgetExceededException();
+			tests++;
+		}
+	}
+}
@@ -0,0 +1,184 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.objective;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.Evaluation;
+import org.realitygrid.examples.paramsearch.Point3D;
+import org.realitygrid.examples.paramsearch.Vector3D;
+import org.realitygrid.examples.paramsearch.cost.ZeroCost;
+import org.realitygrid.examples.paramsearch.crawlers.DirectedCrawler;
+
+public class TestObjectiveDomain {
+
+	private static final int SIZE = 300;
+	private static final int NUM_TARGETS = 5;
+	private static final int ERROR = 10;
+
+	private static ObjectiveDomain create(Objective objective) {
+		ObjectiveDomain domain = new ObjectiveDomain("Objective", SIZE, NUM_TARGETS, objective);
+		domain.setCostModel(new ZeroCost());
+
+		return domain;
+	}
+
+	private static void assertMinimum(Objective f) {
+		Vector3D m = f.getMinimum();
+		double low = f.value(m.getDoubleX(), m.getDoubleY(), m.getDoubleZ());
+		double d = f.getWidth() / SIZE;
+		for(int i = -1; i <= 1; i++)
+			for(int j = -1; j <= 1; j++)
+				for(int k = -1; k <= 1; k++)
+					if(i != 0 || j != 0 || k != 0)
+						assertTrue(f.value(m.getDoubleX() + (i * d), m.getDoubleY() + (j * d),
+								m.getDoubleZ() + (k * d)) > low);
+	}
+
+	@Test
+	public void testObjectives() {
+		assertEquals(0.0, new Rastrigin().value(0, 0, 0), 0.0);
+		assertEquals(0.0, new Rosenbrock().value(1, 1, 1), 0.0);
+		assertEquals(-1.0, new GaussianMixture(1, 1).value(0, 0, 0), 0.0);
+
+		assertMinimum(new Rastrigin());
+		assertMinimum(new Rosenbrock());
+		assertMinimum(new GaussianMixture(1, 20));
+		assertEquals(20, new GaussianMixture(1, 20).getPits());
+	}
+
+	@Test
+	public void testMixtureMinimum() {
+		// however the pits fall, nowhere in the region of interest is lower
+		// than the minimum
+		Objective[] mixtures = { Objectives.parse("gaussian:20"), new GaussianMixture(1, 20),
+				new GaussianMixture(2, 20), new GaussianMixture(3, 20) };
+		for(Objective f : mixtures) {
+			Vector3D m = f.getMinimum();
+			double low = f.value(m.getDoubleX(), m.getDoubleY(), m.getDoubleZ());
+			double half = f.getWidth() / 2;
+			for(int i = 0; i <= 100; i++) {
+				double x = -half + (i * half / 50);
+				for(int j = 0; j <= 100; j++) {
+					double y = -half + (j * half / 50);
+					for(int k = 0; k <= 100; k++) {
+						double z = -half + (k * half / 50);
+						assertTrue(f.value(x, y, z) >= low);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testParse() {
+		assertTrue(Objectives.parse("rastrigin") instanceof Rastrigin);
+		assertTrue(Objectives.parse("rosenbrock") instanceof Rosenbrock);
+		assertEquals(5, ((GaussianMixture) Objectives.parse("gaussian:5")).getPits());
+		assertEquals(new GaussianMixture(3, 5).value(1, 2, 3),
+				Objectives.parse("gaussian:5:3").value(1, 2, 3), 0.0);
+
+		for(String bad : new String[] { "rastrigin:1", "gaussian", "gaussian:0", "sphere" }) {
+			try {
+				Objectives.parse(bad);
+				fail("Parsed " + bad);
+			} catch(IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void testSameTargets() {
+		Domain plain = new Domain("Objective", SIZE, NUM_TARGETS);
+		ObjectiveDomain domain = create(new Rastrigin());
+
+		assertEquals(NUM_TARGETS, domain.getNumTargets());
+		assertEquals(plain.getHint(), domain.getHint());
+	}
+
+	@Test
+	public void testHints() {
+		ObjectiveDomain domain = create(new Rastrigin());
+		Point3D t = domain.getHint().moveBy(new Vector3D(ERROR));
+		int tx = t.getIntX();
+		int ty = t.getIntY();
+		int tz = t.getIntZ();
+
+		// the bottom of the landscape is at the target
+		assertEquals(0.0, domain.getValue(tx, ty, tz, tx, ty, tz), 0.0);
+		assertEquals(Evaluation.hint(0, 0, 0), domain.getDirection(tx, ty, tz));
+
+		// near the target the hints lead to it...
+		assertEquals(Evaluation.hint(-1, 1, 0), domain.getDirection(tx + 5, ty - 5, tz));
+
+		// ...but further away they lead to the nearest local minimum, about
+		// one unit of the objective away, where they stop
+		int x = (tx > SIZE / 2) ? tx - 29 : tx + 29;
+		assertEquals(Evaluation.hint(0, 0, 0), domain.getDirection(x, ty, tz));
+		assertEquals(Evaluation.hint(x - tx, 0, 0), domain.getDirection(x - ((x - tx) / 5), ty, tz));
+		assertNull(domain.isWithinError(x, ty, tz));
+	}
+
+	@Test
+	public void testSinglePit() {
+		// a single pit is round, so every hint points at the target
+		ObjectiveDomain domain = create(new GaussianMixture(1, 1));
+		Point3D t = domain.getHint().moveBy(new Vector3D(ERROR));
+		for(int i = 0; i < 100; i++) {
+			int x = (i * 37) % SIZE;
+			int y = (i * 61) % SIZE;
+			int z = (i * 89) % SIZE;
+			assertEquals(Evaluation.hint(t.getIntX() - x, t.getIntY() - y, t.getIntZ() - z),
+					domain.getDirection(x, y, z));
+		}
+
+		new DirectedCrawler(domain).run();
+		assertEquals(NUM_TARGETS, domain.getNumFound());
+	}
+}
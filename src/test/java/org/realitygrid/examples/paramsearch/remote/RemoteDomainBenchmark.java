@@ -0,0 +1,165 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.remote;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+
+import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.PointBatch;
+import org.realitygrid.examples.paramsearch.cost.ZeroCost;
+
+/**
+ * Measure how fast a {@link RemoteDomain} can test points on a
+ * {@link DomainServer} over the loopback interface. The domain has no
+ * {@link org.realitygrid.examples.paramsearch.cost.CostModel cost} so this
+ * measures only the protocol and the network. It times the latency of one
+ * test at a time, the throughput of tests pipelined with more and more in
+ * flight at once, and the throughput of batches. This is not run as part of
+ * the unit tests; run it by hand with:
+ * <p/>{@code java RemoteDomainBenchmark [tests]}
+ * @author Robert Haines
+ */
+public class RemoteDomainBenchmark {
+
+	private static final int SIZE = 300;
+	private static final int NUM_TARGETS = 1000;
+	private static final int[] WINDOWS = { 1, 16, 256 };
+	private static final int BATCH = 1024;
+
+	public static void main(String[] args) throws Exception {
+		int tests = 200000;
+		if(args.length > 0)
+			tests = Integer.parseInt(args[0]);
+
+		Domain domain = new Domain("Benchmark", SIZE, NUM_TARGETS);
+		domain.setCostModel(new ZeroCost());
+		DomainServer server = new DomainServer(domain,
+				new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		server.start();
+		RemoteDomain remote = RemoteDomain.connect(server.getAddress());
+
+		// warm up
+		sequential(remote, tests / 10);
+		pipelined(remote, tests / 10, 16);
+
+		long[] latencies = sequential(remote, tests);
+		Arrays.sort(latencies);
+		long total = 0;
+		for(long l : latencies)
+			total += l;
+		System.out.printf("sequential: %d tests, mean %.1fus, p50 %.1fus, p99 %.1fus%n",
+				tests, total / (1000.0 * tests), latencies[tests / 2] / 1000.0,
+				latencies[(int) (tests * 0.99)] / 1000.0);
+
+		for(int window : WINDOWS) {
+			long time = pipelined(remote, tests, window);
+			System.out.printf("pipelined, %3d in flight: %,.0f tests/s%n",
+					window, tests * 1e9 / time);
+		}
+
+		long time = batched(remote, tests);
+		System.out.printf("batches of %d: %,.0f tests/s%n", BATCH, tests * 1e9 / time);
+
+		remote.close();
+		server.close();
+	}
+
+	private static long[] sequential(RemoteDomain remote, int tests) {
+		long[] latencies = new long[tests];
+		for(int i = 0; i < tests; i++) {
+			long start = System.nanoTime();
+			remote.evaluate(x(i), y(i), z(i));
+			latencies[i] = System.nanoTime() - start;
+		}
+
+		return latencies;
+	}
+
+	private static long pipelined(RemoteDomain remote, int tests, int window) {
+		Deque<CompletableFuture<Integer>> inFlight = new ArrayDeque<CompletableFuture<Integer>>();
+		long start = System.nanoTime();
+		for(int i = 0; i < tests; i++) {
+			if(inFlight.size() == window)
+				inFlight.removeFirst().join();
+			inFlight.addLast(remote.evaluateAsync(x(i), y(i), z(i)));
+		}
+		while(!inFlight.isEmpty())
+			inFlight.removeFirst().join();
+
+		return System.nanoTime() - start;
+	}
+
+	private static long batched(RemoteDomain remote, int tests) {
+		PointBatch batch = new PointBatch(BATCH);
+		int[] results = new int[BATCH];
+		long start = System.nanoTime();
+		for(int i = 0; i < tests; i += BATCH) {
+			batch.clear();
+			for(int j = i; j < Math.min(tests, i + BATCH); j++)
+				batch.append(x(j), y(j), z(j));
+			remote.evaluateBatch(batch, results);
+		}
+
+		return System.nanoTime() - start;
+	}
+
+	private static int x(int i) {
+		return (i * 7) % SIZE;
+	}
+
+	private static int y(int i) {
+		return (i * 13) % SIZE;
+	}
+
+	private static int z(int i) {
+		return (i * 31) % SIZE;
+	}
+}
@@ -0,0 +1,329 @@
+/*
+ * The RealityGrid Parameter Search Example Application
+ *
+ * Copyright (c) 2010, University of Manchester, United Kingdom.
+ * All rights reserved.
+ *
+ * This software is produced by Research Computing Services, University
+ * of Manchester as part of the RealityGrid project and associated
+ * follow on projects, funded by the EPSRC under grants GR/R67699/01,
+ * GR/R67699/02, GR/T27488/01, EP/C536452/1, EP/D500028/1,
+ * EP/F00561X/1.
+ *
+ * LICENCE TERMS
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   * Redistributions in binary form must reproduce the above
+ *     copyright notice, this list of conditions and the following
+ *     disclaimer in the documentation and/or other materials provided
+ *     with the distribution.
+ *
+ *   * Neither the name of The University of Manchester nor the names
+ *     of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written
+ *     permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.realitygrid.examples.paramsearch.remote;
+
+import static org.junit.Assert.*;
+
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.realitygrid.examples.paramsearch.Domain;
+import org.realitygrid.examples.paramsearch.Evaluation;
+import org.realitygrid.examples.paramsearch.EvaluationCache;
+import org.realitygrid.examples.paramsearch.Point3D;
+import org.realitygrid.examples.paramsearch.PointBatch;
+import org.realitygrid.examples.paramsearch.cost.CostModel;
+import org.realitygrid.examples.paramsearch.cost.ZeroCost;
+import org.realitygrid.examples.paramsearch.crawlers.DirectedCrawler;
+import org.realitygrid.examples.paramsearch.crawlers.LatticeCrawler;
+
+public class TestRemoteDomain {
+
+	private static final int SIZE = 300;
+	private static final int NUM_TARGETS = 5;
+	private static final int ERROR = 10;
+
+	private Domain local;
+	private Domain twin;
+	private DomainServer server;
+	private RemoteDomain remote;
+
+	@Before
+	public void setUp() throws Exception {
+		local = new Domain("Remote", SIZE, NUM_TARGETS);
+		local.setCostModel(new ZeroCost());
+		twin = new Domain("Remote", SIZE, NUM_TARGETS);
+		twin.setCostModel(new ZeroCost());
+
+		server = new DomainServer(local,
+				new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		server.start();
+		remote = RemoteDomain.connect(server.getAddress());
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		remote.close();
+		server.close();
+		remote = null;
+		server = null;
+	}
+
+	@Test
+	public void testHello() {
+		assertEquals("Remote", remote.getName());
+		assertEquals(SIZE, remote.getSize());
+		assertEquals(NUM_TARGETS, remote.getNumTargets());
+		assertEquals(ERROR, remote.getError());
+		assertEquals((2 * ERROR) + 1, new LatticeCrawler(remote).getStride());
+		assertEquals(0, remote.getNumFound());
+	}
+
+	@Test
+	public void testSameAsLocal() {
+		Point3D hint = remote.getHint();
+		assertEquals(twin.getHint(), hint);
+
+		// well outside the current target's halo
+		int x = hint.getIntX() > SIZE / 2 ? hint.getIntX() - ERROR : hint.getIntX() + (4 * ERROR);
+		int y = hint.getIntY();
+		int z = hint.getIntZ();
+		assertEquals(twin.getDirection(x, y, z), remote.getDirection(x, y, z));
+		assertEquals(twin.probe(x, y, z), remote.probe(x, y, z));
+		assertEquals(twin.evaluate(x, y, z), remote.evaluate(x, y, z));
+		assertEquals(twin.search(Point3D.of(x, y, z)), remote.search(Point3D.of(x, y, z)));
+
+		// the hint is a corner of the current target's halo
+		PointBatch batch = new PointBatch(4);
+		batch.append(0, 0, 0);
+		batch.append(hint.getIntX() + ERROR, hint.getIntY() + ERROR, hint.getIntZ() + ERROR);
+		batch.append(x, y, z);
+		batch.append(hint.getIntX() + ERROR, hint.getIntY() + ERROR, hint.getIntZ() + ERROR);
+		int[] results = new int[4];
+		int[] expected = new int[4];
+		PointBatch found = new PointBatch();
+		PointBatch expectedFound = new PointBatch();
+		assertEquals(twin.evaluateBatch(batch, expected, expectedFound),
+				remote.evaluateBatch(batch, results, found));
+		assertArrayEquals(expected, results);
+		assertEquals(Evaluation.FOUND, results[1]);
+		assertEquals(1, remote.getNumFound());
+		assertEquals(1, found.size());
+		assertEquals(expectedFound.get(0), found.get(0));
+
+		assertEquals(twin.getHint(), remote.getHint());
+		Point3D next = remote.getHint();
+		assertEquals(Point3D.of(next.getIntX() + ERROR, next.getIntY() + ERROR,
+				next.getIntZ() + ERROR), remote.isWithinError(next.getIntX() + ERROR,
+				next.getIntY(), next.getIntZ()));
+		assertEquals(2, remote.getNumFound());
+
+		remote.reset();
+		assertEquals(0, remote.getNumFound());
+		assertEquals(hint, remote.getHint());
+	}
+
+	@Test
+	public void testPipelined() throws Exception {
+		// many tests in flight at once over the one connection; stop short
+		// of finding a target as the server may test them in any order
+		List<CompletableFuture<Integer>> futures = new ArrayList<CompletableFuture<Integer>>();
+		List<Integer> expected = new ArrayList<Integer>();
+		for(int i = 0; i < 1000; i++) {
+			int x = (i * 7) % SIZE;
+			int y = (i * 13) % SIZE;
+			int z = (i * 31) % SIZE;
+			int result = twin.evaluate(x, y, z);
+			if(result == Evaluation.FOUND)
+				break;
+			futures.add(remote.evaluateAsync(x, y, z));
+			expected.add(result);
+		}
+
+		assertTrue(futures.size() > 100);
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+		for(int i = 0; i < futures.size(); i++)
+			assertEquals(expected.get(i), futures.get(i).get());
+		assertEquals(0, remote.getNumFound());
+	}
+
+	@Test
+	public void testCrawler() {
+		DirectedCrawler crawler = new DirectedCrawler(remote);
+		crawler.run();
+
+		assertEquals(NUM_TARGETS, remote.getNumFound());
+		assertEquals(NUM_TARGETS, local.getNumFound());
+		assertNull(remote.getHint());
+	}
+
+	@Test
+	public void testOneRequestPerTest() throws Exception {
+		final AtomicInteger others = new AtomicInteger();
+		final ThreadLocal<Boolean> testing = new ThreadLocal<Boolean>();
+
+		// count the requests, other than tests, that the server answers
+		Domain counted = new Domain("Remote", SIZE, NUM_TARGETS) {
+			@Override
+			public int evaluate(int x, int y, int z, int[] outcome) {
+				testing.set(Boolean.TRUE);
+				try {
+					return super.evaluate(x, y, z, outcome);
+				} finally {
+					testing.remove();
+				}
+			}
+
+			@Override
+			public int getNumFound() {
+				count();
+				return super.getNumFound();
+			}
+
+			@Override
+			public int getDirection(int x, int y, int z) {
+				count();
+				return super.getDirection(x, y, z);
+			}
+
+			@Override
+			public Point3D isWithinError(int x, int y, int z) {
+				count();
+				return super.isWithinError(x, y, z);
+			}
+
+			private void count() {
+				if(testing.get() == null)
+					others.incrementAndGet();
+			}
+		};
+		counted.setCostModel(new ZeroCost());
+		DomainServer s = new DomainServer(counted,
+				new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		s.start();
+		RemoteDomain r = RemoteDomain.connect(s.getAddress());
+
+		try {
+			// with a cache each test needs just one EVALUATE, and the cache is
+			// only checked against the domain when the crawler is run
+			DirectedCrawler crawler = new DirectedCrawler(r);
+			crawler.setEvaluationCache(new EvaluationCache(1000));
+			others.set(0);
+			crawler.run();
+
+			assertEquals(1, others.get());
+			assertTrue(counted.getTestBudget().getSpent() > NUM_TARGETS);
+			assertEquals(NUM_TARGETS, counted.getNumFound());
+		} finally {
+			r.close();
+			s.close();
+		}
+	}
+
+	@Test
+	public void testEvaluateOutcome() {
+		Point3D hint = remote.getHint();
+		int[] outcome = new int[4];
+		int[] expected = new int[4];
+
+		assertEquals(twin.evaluate(0, 0, 0, expected), remote.evaluate(0, 0, 0, outcome));
+		assertArrayEquals(expected, outcome);
+		assertEquals(Evaluation.FOUND, remote.evaluate(hint.getIntX() + ERROR,
+				hint.getIntY() + ERROR, hint.getIntZ() + ERROR, outcome));
+		assertArrayEquals(new int[] { 1, hint.getIntX() + ERROR, hint.getIntY() + ERROR,
+				hint.getIntZ() + ERROR }, outcome);
+	}
+
+	@Test
+	public void testServerError() {
+		local.setCostModel(new CostModel() {
+			public void charge(int x, int y, int z) {
+				throw new IllegalArgumentException("bad point");
+			}
+		});
+
+		try {
+			remote.evaluate(1, 2, 3);
+			fail("Server error not raised.");
+		} catch(IllegalStateException e) {
+			assertTrue(e.getMessage().contains("bad point"));
+		}
+
+		// the connection is still good
+		assertEquals(0, remote.getNumFound());
+	}
+
+	@Test
+	public void testServerClosed() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		local.setCostModel(new CostModel() {
+			public void charge(int x, int y, int z) {
+				started.countDown();
+				try {
+					release.await();
+				} catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+
+		CompletableFuture<Integer> f = remote.evaluateAsync(1, 2, 3);
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+		server.close();
+		release.countDown();
+
+		try {
+			f.get(10, TimeUnit.SECONDS);
+			fail("Pending test not failed.");
+		} catch(ExecutionException e) {
+			assertTrue(e.getCause() instanceof UncheckedIOException);
+		}
+
+		try {
+			remote.getNumFound();
+			fail("Closed connection not noticed.");
+		} catch(UncheckedIOException e) {
+			// expected
+		}
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testNoCostModel() {
+		remote.setCostModel(new ZeroCost());
+	}
+}